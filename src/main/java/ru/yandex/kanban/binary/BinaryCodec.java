@@ -0,0 +1,239 @@
+package ru.yandex.kanban.binary;
+
+import ru.yandex.kanban.issue.Epic;
+import ru.yandex.kanban.issue.Status;
+import ru.yandex.kanban.issue.Subtask;
+import ru.yandex.kanban.issue.Task;
+import ru.yandex.kanban.issue.TaskType;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Кодирование кадров протокола в переиспользуемый direct-буфер и разбор задач из входного буфера.
+ * Строки кодируются в UTF-8 прямо в буфер, без промежуточных byte[]; при разборе используется
+ * один переиспользуемый массив. Экземпляр не потокобезопасен: он принадлежит соединению.
+ * <p>
+ * Задача: byte вид | id | строка name | строка description | byte статус | время начала |
+ * продолжительность | int версия, затем для подзадачи — id эпика, для эпика — id родителя
+ * и список id подзадач. Необязательные int — byte признак и значение, время и продолжительность —
+ * long секунды и int наносекунды (Long.MIN_VALUE — null). Вычисляемое время эпика не передаётся.
+ */
+
+final class BinaryCodec {
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final long NULL_TIME = Long.MIN_VALUE;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private ByteBuffer out = ByteBuffer.allocateDirect(INITIAL_BUFFER_SIZE);
+    private byte[] scratch = new byte[256];
+
+    // Буфер закодированных кадров в режиме записи: данные от 0 до position
+    ByteBuffer buffer() {
+        return out;
+    }
+
+    // Начинает кадр и возвращает его начало для endFrame
+    int beginFrame(int requestId, byte code) {
+        ensure(Integer.BYTES + BinaryProtocol.HEADER_SIZE);
+        int start = out.position();
+        out.putInt(0).putInt(requestId).put(code);
+        return start;
+    }
+
+    void endFrame(int start) {
+        out.putInt(start, out.position() - start - Integer.BYTES);
+    }
+
+    // Отбрасывает недописанный кадр, например при ошибке во время кодирования результата
+    void discardFrame(int start) {
+        out.position(start);
+    }
+
+    void putByte(int value) {
+        ensure(1);
+        out.put((byte) value);
+    }
+
+    void putInt(int value) {
+        ensure(Integer.BYTES);
+        out.putInt(value);
+    }
+
+    void putNullableInt(Integer value) {
+        ensure(1 + Integer.BYTES);
+        if (value == null) {
+            out.put((byte) 0);
+        } else {
+            out.put((byte) 1).putInt(value);
+        }
+    }
+
+    void putString(String value) {
+        if (value == null) {
+            putInt(-1);
+            return;
+        }
+
+        // В UTF-8 на символ Java приходится не больше 3 байт
+        ensure(Integer.BYTES + value.length() * 3);
+        int lengthPosition = out.position();
+        out.position(lengthPosition + Integer.BYTES);
+        encoder.reset();
+        encoder.encode(CharBuffer.wrap(value), out, true);
+        encoder.flush(out);
+        out.putInt(lengthPosition, out.position() - lengthPosition - Integer.BYTES);
+    }
+
+    void putTask(Task task) {
+        putByte(task.getType().ordinal());
+        putNullableInt(task.getId());
+        putString(task.getName());
+        putString(task.getDescription());
+        putByte(task.getStatus().ordinal());
+        putTime(task.getType() == TaskType.EPIC ? null : task.getStartTime());
+        putDuration(task.getType() == TaskType.EPIC ? null : task.getDuration());
+        putInt(task.getVersion());
+
+        if (task instanceof Subtask subtask)
+            putNullableInt(subtask.getEpicId());
+        if (task instanceof Epic epic) {
+            putNullableInt(epic.getParentEpicId());
+            putInt(epic.getDependentSubtaskIds().size());
+            for (Integer subtaskId : epic.getDependentSubtaskIds()) {
+                putInt(subtaskId);
+            }
+        }
+    }
+
+    void putTasks(Collection<? extends Task> tasks) {
+        putInt(tasks.size());
+        for (Task task : tasks) {
+            putTask(task);
+        }
+    }
+
+    Integer getNullableInt(ByteBuffer in) {
+        return in.get() == 0 ? null : in.getInt();
+    }
+
+    String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0)
+            return null;
+        if (length > in.remaining())
+            throw new IllegalArgumentException("Строка длиннее кадра: " + length);
+
+        if (scratch.length < length)
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        in.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    static TaskType getType(ByteBuffer in) {
+        int type = in.get();
+        if (type < 0 || type >= TYPES.length)
+            throw new IllegalArgumentException("Неизвестный вид задачи: " + type);
+        return TYPES[type];
+    }
+
+    Task getTask(ByteBuffer in) {
+        TaskType type = getType(in);
+        Integer id = getNullableInt(in);
+        String name = getString(in);
+        String description = getString(in);
+        int status = in.get();
+        if (status < 0 || status >= STATUSES.length)
+            throw new IllegalArgumentException("Неизвестный статус: " + status);
+        LocalDateTime startTime = getTime(in);
+        Duration duration = getDuration(in);
+        int version = in.getInt();
+
+        Task task = switch (type) {
+            case TASK -> new Task(id, name, description, STATUSES[status], startTime, duration);
+            case SUBTASK -> new Subtask(getNullableInt(in), id, name, description, STATUSES[status],
+                    startTime, duration);
+            case EPIC -> {
+                Epic epic = new Epic(id, name, description, getNullableInt(in));
+                epic.setStatus(STATUSES[status]);
+                int subtaskCount = in.getInt();
+                for (int i = 0; i < subtaskCount; i++) {
+                    epic.getDependentSubtaskIds().add(in.getInt());
+                }
+                yield epic;
+            }
+        };
+        task.setVersion(version);
+        return task;
+    }
+
+    List<Task> getTasks(ByteBuffer in) {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining())
+            throw new IllegalArgumentException("Некорректная длина списка: " + count);
+
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(getTask(in));
+        }
+        return tasks;
+    }
+
+    private void putTime(LocalDateTime time) {
+        ensure(Long.BYTES + Integer.BYTES);
+        if (time == null) {
+            out.putLong(NULL_TIME).putInt(0);
+        } else {
+            out.putLong(time.toEpochSecond(ZoneOffset.UTC)).putInt(time.getNano());
+        }
+    }
+
+    private void putDuration(Duration duration) {
+        ensure(Long.BYTES + Integer.BYTES);
+        if (duration == null) {
+            out.putLong(NULL_TIME).putInt(0);
+        } else {
+            out.putLong(duration.getSeconds()).putInt(duration.getNano());
+        }
+    }
+
+    private static LocalDateTime getTime(ByteBuffer in) {
+        long seconds = in.getLong();
+        int nanos = in.getInt();
+        return seconds == NULL_TIME ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    private static Duration getDuration(ByteBuffer in) {
+        long seconds = in.getLong();
+        int nanos = in.getInt();
+        return seconds == NULL_TIME ? null : Duration.ofSeconds(seconds, nanos);
+    }
+
+    // Буфер растёт удвоением с переносом уже записанного; после роста остаётся увеличенным
+    private void ensure(int bytes) {
+        if (out.remaining() >= bytes)
+            return;
+
+        int capacity = out.capacity();
+        while (capacity - out.position() < bytes) {
+            capacity *= 2;
+        }
+        ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+        out.flip();
+        grown.put(out);
+        out = grown;
+    }
+}
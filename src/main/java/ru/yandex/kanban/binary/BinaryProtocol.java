@@ -0,0 +1,46 @@
+package ru.yandex.kanban.binary;
+
+/**
+ * Двоичный протокол менеджера задач. Запрос и ответ — кадры с длиной в начале:
+ * <pre>
+ * запрос: int длина | int id запроса | byte операция | параметры
+ * ответ:  int длина | int id запроса | byte статус   | результат или ошибка
+ * </pre>
+ * Длина считается без самого поля длины. Клиент может отправлять запросы, не дожидаясь ответов,
+ * сервер отвечает на запросы соединения в порядке их получения, а id связывает ответ с запросом.
+ * <p>
+ * Числа — big-endian, строки — int длина в байтах UTF-8 (-1 — null) и байты, задача — см. BinaryCodec.
+ * <p>
+ * Кадр не длиннее MAX_FRAME_SIZE. Если список не помещается в ответ, сервер отвечает ERROR:
+ * такой список читается по страницам через GET_PAGE.
+ */
+
+final class BinaryProtocol {
+    // Операции. Вид задачи передаётся параметром byte (TaskType.ordinal)
+    static final byte CREATE = 1;             // задача -> int id
+    static final byte UPDATE = 2;             // задача -> int новая версия
+    static final byte GET = 3;                // вид, int id -> задача
+    static final byte REMOVE = 4;             // вид, int id -> пусто
+    static final byte GET_ALL = 5;            // вид -> список
+    static final byte REMOVE_ALL = 6;         // вид -> пусто
+    static final byte GET_PAGE = 7;           // вид, int afterId, int limit -> список
+    static final byte GET_EPIC_SUBTASKS = 8;  // int id эпика -> список
+    static final byte GET_HISTORY = 9;        // -> список
+    static final byte GET_PRIORITIZED = 10;   // -> список
+    static final byte UNDO = 11;              // -> byte 0/1
+    static final byte REDO = 12;              // -> byte 0/1
+
+    // Статусы ответа
+    static final byte OK = 0;
+    static final byte NOT_FOUND = 1;          // строка сообщения: задачи с таким id нет
+    static final byte BAD_REQUEST = 2;        // строка сообщения: некорректные параметры
+    static final byte CONFLICT = 3;           // int id задачи, int ожидаемая версия, int текущая версия
+    static final byte ERROR = 4;              // строка сообщения
+
+    // Заголовок кадра после поля длины: id запроса и байт операции (статуса)
+    static final int HEADER_SIZE = Integer.BYTES + 1;
+    static final int MAX_FRAME_SIZE = 16 * 1024 * 1024;
+
+    private BinaryProtocol() {
+    }
+}
@@ -0,0 +1,290 @@
+package ru.yandex.kanban.binary;
+
+import ru.yandex.kanban.exception.TaskVersionConflictException;
+import ru.yandex.kanban.issue.Task;
+import ru.yandex.kanban.issue.TaskType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Клиент двоичного протокола. Все методы асинхронные: запрос кодируется в буфер и сразу
+ * возвращается CompletableFuture, поэтому один или много потоков могут отправлять запросы
+ * подряд, не дожидаясь ответов (pipelining) по одному соединению.
+ * <p>
+ * Отправку выполняет отдельный поток: он забирает всё, что накопилось в буфере запросов,
+ * одной записью в сокет, а вызывающие потоки тем временем пишут в второй буфер. Ответы читает
+ * ещё один поток и завершает ожидающие их future в своём потоке. Ошибки сервера приходят
+ * теми же исключениями, что бросает менеджер: IllegalArgumentException и
+ * TaskVersionConflictException.
+ */
+
+public class BinaryTaskClient implements AutoCloseable {
+    private static final int INPUT_BUFFER_SIZE = 64 * 1024;
+    // Сколько неотправленных запросов можно накопить, прежде чем вызывающий поток будет ждать
+    private static final int OUTPUT_LIMIT = 4 * 1024 * 1024;
+
+    // Ожидающий ответа запрос и разбор его результата
+    private record Pending<T>(CompletableFuture<T> future, Function<ByteBuffer, T> decoder) {
+    }
+
+    private final SocketChannel channel;
+    private final Map<Integer, Pending<?>> pending = new ConcurrentHashMap<>();
+    // Вызывающие потоки кодируют в front, поток отправки пишет в сокет back; буферы меняются местами
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Condition hasRequests = writeLock.newCondition();
+    private final Condition hasSpace = writeLock.newCondition();
+    private BinaryCodec front = new BinaryCodec();
+    private BinaryCodec back = new BinaryCodec();
+    // Кодек потока чтения: только для разбора ответов
+    private final BinaryCodec reader = new BinaryCodec();
+    private int nextRequestId;
+    private boolean closed;
+    private volatile IOException failure;
+    private final Thread sender;
+    private final Thread receiver;
+
+    public BinaryTaskClient(String host, int port) throws IOException {
+        channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.socket().setTcpNoDelay(true);
+        sender = Thread.ofVirtual().name("binary-client-sender").start(this::sendLoop);
+        receiver = Thread.ofVirtual().name("binary-client-receiver").start(this::receiveLoop);
+    }
+
+    public CompletableFuture<Integer> create(Task issue) {
+        return call(BinaryProtocol.CREATE, codec -> codec.putTask(issue), ByteBuffer::getInt);
+    }
+
+    // Результат — новая версия задачи
+    public CompletableFuture<Integer> update(Task issue) {
+        return call(BinaryProtocol.UPDATE, codec -> codec.putTask(issue), ByteBuffer::getInt);
+    }
+
+    public CompletableFuture<Task> get(TaskType type, int id) {
+        return call(BinaryProtocol.GET, codec -> {
+            codec.putByte(type.ordinal());
+            codec.putInt(id);
+        }, reader::getTask);
+    }
+
+    public CompletableFuture<Void> remove(TaskType type, int id) {
+        return call(BinaryProtocol.REMOVE, codec -> {
+            codec.putByte(type.ordinal());
+            codec.putInt(id);
+        }, in -> null);
+    }
+
+    public CompletableFuture<List<Task>> getAll(TaskType type) {
+        return call(BinaryProtocol.GET_ALL, codec -> codec.putByte(type.ordinal()), reader::getTasks);
+    }
+
+    public CompletableFuture<Void> removeAll(TaskType type) {
+        return call(BinaryProtocol.REMOVE_ALL, codec -> codec.putByte(type.ordinal()), in -> null);
+    }
+
+    // Страница по возрастанию id, см. TaskManager.getTasksPage
+    public CompletableFuture<List<Task>> getPage(TaskType type, int afterId, int limit) {
+        return call(BinaryProtocol.GET_PAGE, codec -> {
+            codec.putByte(type.ordinal());
+            codec.putInt(afterId);
+            codec.putInt(limit);
+        }, reader::getTasks);
+    }
+
+    public CompletableFuture<List<Task>> getEpicSubtasks(int epicId) {
+        return call(BinaryProtocol.GET_EPIC_SUBTASKS, codec -> codec.putInt(epicId), reader::getTasks);
+    }
+
+    public CompletableFuture<List<Task>> getHistory() {
+        return call(BinaryProtocol.GET_HISTORY, codec -> {
+        }, reader::getTasks);
+    }
+
+    public CompletableFuture<List<Task>> getPrioritized() {
+        return call(BinaryProtocol.GET_PRIORITIZED, codec -> {
+        }, reader::getTasks);
+    }
+
+    public CompletableFuture<Boolean> undo() {
+        return call(BinaryProtocol.UNDO, codec -> {
+        }, in -> in.get() != 0);
+    }
+
+    public CompletableFuture<Boolean> redo() {
+        return call(BinaryProtocol.REDO, codec -> {
+        }, in -> in.get() != 0);
+    }
+
+    @Override
+    public void close() {
+        writeLock.lock();
+        try {
+            closed = true;
+            hasRequests.signalAll();
+            hasSpace.signalAll();
+        } finally {
+            writeLock.unlock();
+        }
+        try {
+            sender.join();
+            channel.close();
+            receiver.join();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failPending(new IOException("Соединение закрыто"));
+    }
+
+    private <T> CompletableFuture<T> call(byte operation, Consumer<BinaryCodec> parameters,
+                                          Function<ByteBuffer, T> decoder) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        writeLock.lock();
+        try {
+            while (!closed && failure == null && front.buffer().position() >= OUTPUT_LIMIT) {
+                hasSpace.awaitUninterruptibly();
+            }
+            if (closed || failure != null) {
+                future.completeExceptionally(failure != null ? failure : new IOException("Соединение закрыто"));
+                return future;
+            }
+
+            int requestId = nextRequestId++;
+            pending.put(requestId, new Pending<>(future, decoder));
+            int start = front.beginFrame(requestId, operation);
+            try {
+                parameters.accept(front);
+            } catch (RuntimeException e) {
+                // Недописанный кадр не должен уйти на сервер, а запрос — остаться без ответа
+                front.discardFrame(start);
+                pending.remove(requestId);
+                future.completeExceptionally(e);
+                throw e;
+            }
+            front.endFrame(start);
+            hasRequests.signal();
+        } finally {
+            writeLock.unlock();
+        }
+        return future;
+    }
+
+    private void sendLoop() {
+        try {
+            while (true) {
+                BinaryCodec batch;
+                writeLock.lock();
+                try {
+                    while (!closed && front.buffer().position() == 0) {
+                        hasRequests.awaitUninterruptibly();
+                    }
+                    if (front.buffer().position() == 0)
+                        return;
+
+                    batch = front;
+                    front = back;
+                    back = batch;
+                    hasSpace.signalAll();
+                } finally {
+                    writeLock.unlock();
+                }
+
+                ByteBuffer output = batch.buffer().flip();
+                while (output.hasRemaining()) {
+                    channel.write(output);
+                }
+                output.clear();
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void receiveLoop() {
+        ByteBuffer input = ByteBuffer.allocateDirect(INPUT_BUFFER_SIZE);
+        try {
+            while (channel.read(input) >= 0) {
+                input.flip();
+                while (input.remaining() >= Integer.BYTES) {
+                    int length = input.getInt(input.position());
+                    if (length < BinaryProtocol.HEADER_SIZE || length > BinaryProtocol.MAX_FRAME_SIZE)
+                        throw new IOException("Некорректная длина кадра: " + length);
+                    if (input.remaining() < Integer.BYTES + length)
+                        break;
+
+                    int frameEnd = input.position() + Integer.BYTES + length;
+                    input.position(input.position() + Integer.BYTES);
+                    int requestId = input.getInt();
+                    byte status = input.get();
+                    complete(pending.remove(requestId), status,
+                            input.slice(input.position(), frameEnd - input.position()));
+                    input.position(frameEnd);
+                }
+                input.compact();
+
+                // Ответ больше буфера: буфер увеличивается до размера кадра
+                if (!input.hasRemaining() && Integer.BYTES + input.getInt(0) > input.capacity()) {
+                    ByteBuffer grown = ByteBuffer.allocateDirect(Integer.BYTES + input.getInt(0));
+                    grown.put(input.flip());
+                    input = grown;
+                }
+            }
+            fail(new IOException("Сервер закрыл соединение"));
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void complete(Pending<?> request, byte status, ByteBuffer payload) {
+        if (request == null)
+            return;
+
+        CompletableFuture<Object> future = (CompletableFuture<Object>) request.future();
+        try {
+            switch (status) {
+                case BinaryProtocol.OK -> future.complete(request.decoder().apply(payload));
+                case BinaryProtocol.NOT_FOUND, BinaryProtocol.BAD_REQUEST ->
+                        future.completeExceptionally(new IllegalArgumentException(reader.getString(payload)));
+                case BinaryProtocol.CONFLICT -> future.completeExceptionally(new TaskVersionConflictException(
+                        payload.getInt(), payload.getInt(), payload.getInt()));
+                default -> future.completeExceptionally(new IllegalStateException(reader.getString(payload)));
+            }
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private void fail(IOException e) {
+        writeLock.lock();
+        try {
+            if (failure == null && !closed)
+                failure = e;
+            hasSpace.signalAll();
+            hasRequests.signalAll();
+        } finally {
+            writeLock.unlock();
+        }
+        failPending(e);
+    }
+
+    private void failPending(IOException e) {
+        for (Integer requestId : pending.keySet()) {
+            Pending<?> request = pending.remove(requestId);
+            if (request != null)
+                request.future().completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package ru.yandex.kanban.binary;
+
+import ru.yandex.kanban.exception.TaskVersionConflictException;
+import ru.yandex.kanban.issue.Epic;
+import ru.yandex.kanban.issue.Subtask;
+import ru.yandex.kanban.issue.Task;
+import ru.yandex.kanban.issue.TaskType;
+import ru.yandex.kanban.service.TaskManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Сервер двоичного протокола (см. BinaryProtocol) для обмена между сервисами — легче HTTP и JSON.
+ * <p>
+ * Все соединения обслуживает один поток на Selector. Из соединения читаются все пришедшие кадры,
+ * запросы выполняются по порядку, ответы кодируются в буфер соединения и отправляются одной
+ * записью. Буферы чтения и записи у соединения свои и переиспользуются между запросами.
+ * Если клиент не забирает ответы и их накопилось больше OUTPUT_LIMIT, разбор уже прочитанных
+ * кадров и чтение из соединения приостанавливаются, пока ответы не будут отправлены.
+ * <p>
+ * Менеджер вызывается под переданной блокировкой — той же, что у HttpTaskServer,
+ * если оба сервера работают с одним менеджером.
+ */
+
+public class BinaryTaskServer {
+    public static final int DEFAULT_PORT = 8081;
+    private static final int INPUT_BUFFER_SIZE = 64 * 1024;
+    private static final int OUTPUT_LIMIT = 1024 * 1024;
+
+    // Состояние соединения: входной буфер в режиме записи и кодек с буфером ответов
+    private static class Connection {
+        private final SocketChannel channel;
+        private ByteBuffer input = ByteBuffer.allocateDirect(INPUT_BUFFER_SIZE);
+        private final BinaryCodec codec = new BinaryCodec();
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    private final TaskManager manager;
+    private final ReentrantLock lock;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private Thread worker;
+    private volatile boolean stopped;
+
+    public BinaryTaskServer(TaskManager manager) throws IOException {
+        this(manager, DEFAULT_PORT, new ReentrantLock());
+    }
+
+    // port 0 — любой свободный порт, см. getPort
+    public BinaryTaskServer(TaskManager manager, int port, ReentrantLock lock) throws IOException {
+        if (manager == null || lock == null)
+            throw new IllegalArgumentException("TaskManager и блокировка не должны быть null.");
+
+        this.manager = manager;
+        this.lock = lock;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public synchronized void start() {
+        if (worker != null)
+            throw new IllegalStateException("Сервер уже запущен");
+
+        worker = Thread.ofPlatform().name("binary-task-server").start(this::selectLoop);
+    }
+
+    public void stop() {
+        stopped = true;
+        selector.wakeup();
+        Thread running;
+        synchronized (this) {
+            running = worker;
+        }
+        // Запущенный поток закрывает соединения сам при выходе из цикла
+        if (running == null) {
+            closeQuietly();
+            return;
+        }
+        try {
+            running.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort() {
+        try {
+            return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void selectLoop() {
+        try {
+            while (!stopped) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid())
+                        continue;
+
+                    try {
+                        if (key.isAcceptable())
+                            accept();
+                        else if (key.isReadable())
+                            read(key);
+                        else if (key.isWritable())
+                            write(key);
+                    } catch (IOException | IllegalArgumentException e) {
+                        // Обрыв соединения или нарушение протокола затрагивает только это соединение
+                        close(key);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            closeQuietly();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null)
+            return;
+
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        if (connection.channel.read(connection.input) < 0) {
+            close(key);
+            return;
+        }
+
+        processFrames(connection);
+        write(key);
+    }
+
+    // Выполняет пришедшие кадры, пока ответов не накопилось OUTPUT_LIMIT. Остальные кадры ждут во
+    // входном буфере и выполняются из write, когда ответы будут отправлены
+    private void processFrames(Connection connection) {
+        ByteBuffer input = connection.input.flip();
+        // Буфер ответов берётся заново на каждом кадре: кодек заменяет его, когда увеличивает
+        while (input.remaining() >= Integer.BYTES && connection.codec.buffer().position() < OUTPUT_LIMIT) {
+            int length = input.getInt(input.position());
+            if (length < BinaryProtocol.HEADER_SIZE || length > BinaryProtocol.MAX_FRAME_SIZE)
+                throw new IllegalArgumentException("Некорректная длина кадра: " + length);
+            if (input.remaining() < Integer.BYTES + length)
+                break;
+
+            int frameEnd = input.position() + Integer.BYTES + length;
+            input.position(input.position() + Integer.BYTES);
+            int requestId = input.getInt();
+            byte operation = input.get();
+            // Кадр разбирается прямо во входном буфере, без копирования
+            handle(connection.codec, requestId, operation, input.slice(input.position(), frameEnd - input.position()));
+            input.position(frameEnd);
+        }
+        input.compact();
+        growInput(connection);
+    }
+
+    // Под кадр, который не помещается в буфер, буфер увеличивается до его размера
+    private static void growInput(Connection connection) {
+        ByteBuffer input = connection.input;
+        if (input.position() < Integer.BYTES || input.hasRemaining())
+            return;
+
+        int frameSize = Integer.BYTES + input.getInt(0);
+        if (frameSize <= input.capacity())
+            return;
+
+        ByteBuffer grown = ByteBuffer.allocateDirect(frameSize);
+        input.flip();
+        grown.put(input);
+        connection.input = grown;
+    }
+
+    private void write(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        ByteBuffer output = connection.codec.buffer().flip();
+        connection.channel.write(output);
+        output.compact();
+        // Ответы отправлены — можно выполнить кадры, отложенные из-за OUTPUT_LIMIT
+        if (output.position() < OUTPUT_LIMIT && connection.input.position() > 0) {
+            processFrames(connection);
+            output = connection.codec.buffer();
+        }
+
+        // Пока неотправленных ответов много, новые запросы не читаются
+        int interest = 0;
+        if (output.position() > 0)
+            interest |= SelectionKey.OP_WRITE;
+        if (output.position() < OUTPUT_LIMIT)
+            interest |= SelectionKey.OP_READ;
+        key.interestOps(interest);
+    }
+
+    private void handle(BinaryCodec codec, int requestId, byte operation, ByteBuffer payload) {
+        int start = codec.beginFrame(requestId, BinaryProtocol.OK);
+        try {
+            lock.lock();
+            try {
+                execute(codec, operation, payload);
+            } finally {
+                lock.unlock();
+            }
+            if (payload.hasRemaining())
+                throw new IllegalArgumentException("Лишние данные в запросе");
+            // Больший кадр клиент считает нарушением протокола и закрывает соединение со всеми запросами
+            if (codec.buffer().position() - start - Integer.BYTES > BinaryProtocol.MAX_FRAME_SIZE) {
+                codec.discardFrame(start);
+                start = codec.beginFrame(requestId, BinaryProtocol.ERROR);
+                codec.putString("Ответ больше " + BinaryProtocol.MAX_FRAME_SIZE
+                        + " байт: список нужно читать по страницам (GET_PAGE)");
+            }
+        } catch (TaskVersionConflictException e) {
+            codec.discardFrame(start);
+            start = codec.beginFrame(requestId, BinaryProtocol.CONFLICT);
+            codec.putInt(e.getTaskId());
+            codec.putInt(e.getExpectedVersion());
+            codec.putInt(e.getActualVersion());
+        } catch (NotFoundException e) {
+            codec.discardFrame(start);
+            start = codec.beginFrame(requestId, BinaryProtocol.NOT_FOUND);
+            codec.putString(e.getMessage());
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            codec.discardFrame(start);
+            start = codec.beginFrame(requestId, BinaryProtocol.BAD_REQUEST);
+            codec.putString(e.getMessage() == null ? "Некорректный запрос" : e.getMessage());
+        } catch (RuntimeException e) {
+            codec.discardFrame(start);
+            start = codec.beginFrame(requestId, BinaryProtocol.ERROR);
+            codec.putString("Внутренняя ошибка сервера");
+        }
+        codec.endFrame(start);
+    }
+
+    private void execute(BinaryCodec codec, byte operation, ByteBuffer in) {
+        switch (operation) {
+            case BinaryProtocol.CREATE -> {
+                Task task = codec.getTask(in);
+                codec.putInt(switch (task.getType()) {
+                    case TASK -> manager.createTask(task);
+                    case EPIC -> manager.createEpic((Epic) task);
+                    case SUBTASK -> manager.createSubtask((Subtask) task);
+                });
+            }
+            case BinaryProtocol.UPDATE -> {
+                Task task = codec.getTask(in);
+                switch (task.getType()) {
+                    case TASK -> manager.updateTask(task);
+                    case EPIC -> manager.updateEpic((Epic) task);
+                    case SUBTASK -> manager.updateSubtask((Subtask) task);
+                }
+                codec.putInt(task.getVersion());
+            }
+            case BinaryProtocol.GET -> {
+                TaskType type = BinaryCodec.getType(in);
+                int id = in.getInt();
+                Task task = lookup(() -> switch (type) {
+                    case TASK -> manager.getTaskById(id);
+                    case EPIC -> manager.getEpicById(id);
+                    case SUBTASK -> manager.getSubtaskById(id);
+                });
+                if (task == null)
+                    throw new NotFoundException("Задача не найдена " + id);
+                codec.putTask(task);
+            }
+            case BinaryProtocol.REMOVE -> {
+                TaskType type = BinaryCodec.getType(in);
+                int id = in.getInt();
+                lookup(() -> {
+                    switch (type) {
+                        case TASK -> manager.removeTaskById(id);
+                        case EPIC -> manager.removeEpicById(id);
+                        case SUBTASK -> manager.removeSubtaskById(id);
+                    }
+                    return null;
+                });
+            }
+            case BinaryProtocol.GET_ALL -> codec.putTasks(switch (BinaryCodec.getType(in)) {
+                case TASK -> manager.getAllTasks();
+                case EPIC -> manager.getAllEpics();
+                case SUBTASK -> manager.getAllSubtasks();
+            });
+            case BinaryProtocol.REMOVE_ALL -> {
+                switch (BinaryCodec.getType(in)) {
+                    case TASK -> manager.removeAllTasks();
+                    case EPIC -> manager.removeAllEpics();
+                    case SUBTASK -> manager.removeAllSubtasks();
+                }
+            }
+            case BinaryProtocol.GET_PAGE -> {
+                TaskType type = BinaryCodec.getType(in);
+                int afterId = in.getInt();
+                int limit = in.getInt();
+                codec.putTasks(switch (type) {
+                    case TASK -> manager.getTasksPage(afterId, limit);
+                    case EPIC -> manager.getEpicsPage(afterId, limit);
+                    case SUBTASK -> manager.getSubtasksPage(afterId, limit);
+                });
+            }
+            case BinaryProtocol.GET_EPIC_SUBTASKS -> {
+                int epicId = in.getInt();
+                codec.putTasks(lookup(() -> manager.getAllSubtasksByEpicId(epicId)));
+            }
+            case BinaryProtocol.GET_HISTORY -> codec.putTasks(manager.getHistory());
+            case BinaryProtocol.GET_PRIORITIZED -> codec.putTasks(manager.getPrioritizedTasks());
+            case BinaryProtocol.UNDO -> codec.putByte(manager.undo() ? 1 : 0);
+            case BinaryProtocol.REDO -> codec.putByte(manager.redo() ? 1 : 0);
+            default -> throw new IllegalArgumentException("Неизвестная операция: " + operation);
+        }
+    }
+
+    // Обращение к задаче по id: параметры запроса уже разобраны, поэтому ошибка менеджера означает, что задачи нет
+    private static <T> T lookup(Supplier<T> action) {
+        try {
+            return action.get();
+        } catch (IllegalArgumentException e) {
+            throw new NotFoundException(e.getMessage());
+        }
+    }
+
+    private void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+            // Соединение уже закрыто
+        }
+    }
+
+    private void closeQuietly() {
+        for (SelectionKey key : selector.keys()) {
+            close(key);
+        }
+        try {
+            selector.close();
+            serverChannel.close();
+        } catch (IOException ignored) {
+            // Сервер останавливается, ошибки закрытия не важны
+        }
+    }
+
+    private static class NotFoundException extends RuntimeException {
+        NotFoundException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package ru.yandex.kanban.exception;
+
+public class TaskVersionConflictException extends RuntimeException {
+    private final int taskId;
+    private final int expectedVersion;
+    private final int actualVersion;
+
+    public TaskVersionConflictException(int taskId, int expectedVersion, int actualVersion) {
+        super("Задача " + taskId + " уже изменена: ожидалась версия " + expectedVersion
+                + ", текущая версия " + actualVersion);
+        this.taskId = taskId;
+        this.expectedVersion = expectedVersion;
+        this.actualVersion = actualVersion;
+    }
+
+    public int getTaskId() {
+        return taskId;
+    }
+
+    public int getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    public int getActualVersion() {
+        return actualVersion;
+    }
+}
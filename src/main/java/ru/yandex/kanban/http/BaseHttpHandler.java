@@ -0,0 +1,331 @@
+package ru.yandex.kanban.http;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import ru.yandex.kanban.exception.TaskVersionConflictException;
+import ru.yandex.kanban.issue.Task;
+import ru.yandex.kanban.service.TaskManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Общая часть обработчиков HTTP API: доступ к менеджеру, разбор пути, отправка ответов
+ * и перевод исключений менеджера в коды ответа.
+ * <p>
+ * Менеджер не потокобезопасен, поэтому все обращения к нему идут под общей блокировкой.
+ * Это ReentrantLock, а не synchronized: обработчики выполняются в виртуальных потоках,
+ * и ожидание на мониторе закрепило бы виртуальный поток за потоком-носителем.
+ * Кодирование ответа выполняется уже после снятия блокировки.
+ * <p>
+ * Списки задач отдаются с ETag по версии данных менеджера и кешируются в закодированном виде.
+ * Версия считается с нуля в каждом процессе, поэтому в тег добавляется случайный идентификатор
+ * обработчика: тег, выданный до перезапуска сервера, не совпадёт с новым.
+ * Ответы от килобайта сжимаются gzip или deflate, если клиент указал их в Accept-Encoding.
+ */
+
+abstract class BaseHttpHandler implements HttpHandler {
+    private static final String JSON_CONTENT_TYPE = "application/json;charset=utf-8";
+    private static final byte[] ERROR_PREFIX = "{\"error\":".getBytes(StandardCharsets.US_ASCII);
+    // Путей с кешируемыми ответами у обработчика немного: список и списки подзадач эпиков
+    private static final int CACHE_CAPACITY = 256;
+    private static final long CACHE_MAX_BYTES = 16L * 1024 * 1024;
+    // Больший ответ не кешируется и отправляется по мере кодирования
+    private static final int MAX_CACHED_BYTES = 1024 * 1024;
+    // Меньшие ответы сжимать невыгодно
+    private static final int MIN_COMPRESSED_SIZE = 1024;
+
+    // Список и версия данных, прочитанные за одно взятие блокировки
+    private record Snapshot(long version, List<? extends Task> issues) {
+    }
+
+    private final TaskManager manager;
+    private final ReentrantLock lock;
+    private final ResponseCache cache = new ResponseCache(CACHE_CAPACITY, CACHE_MAX_BYTES);
+    private final String instance = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+    BaseHttpHandler(TaskManager manager, ReentrantLock lock) {
+        this.manager = manager;
+        this.lock = lock;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        // Ответ об ошибке отправляется до закрытия обмена
+        try (exchange) {
+            try {
+                handleRequest(exchange, pathSegments(exchange));
+            } catch (RuntimeException e) {
+                int code = statusOf(e);
+                sendError(exchange, code, errorMessage(e, code));
+            }
+        }
+    }
+
+    // Код ответа для исключения менеджера или разбора запроса
+    protected static int statusOf(RuntimeException e) {
+        if (e instanceof NotFoundException)
+            return 404;
+        if (e instanceof TaskVersionConflictException)
+            return 409;
+        if (e instanceof IllegalArgumentException)
+            return 400;
+        return 500;
+    }
+
+    // Подробности внутренних ошибок клиенту не отдаются
+    protected static String errorMessage(RuntimeException e, int code) {
+        return code == 500 ? "Внутренняя ошибка сервера" : e.getMessage();
+    }
+
+    // Источник списка по страницам: каждая страница читается отдельным взятием блокировки, пустая — конец
+    @FunctionalInterface
+    protected interface PageSource {
+        List<? extends Task> next(TaskManager manager);
+    }
+
+    protected abstract void handleRequest(HttpExchange exchange, String[] path) throws IOException;
+
+    protected <T> T withManager(Function<TaskManager, T> action) {
+        lock.lock();
+        try {
+            return action.apply(manager);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Чтение, для которого IllegalArgumentException менеджера означает отсутствие задачи
+    protected <T> T find(Function<TaskManager, T> action) {
+        T result;
+        try {
+            result = withManager(action);
+        } catch (IllegalArgumentException e) {
+            throw new NotFoundException(e.getMessage());
+        }
+        if (result == null)
+            throw new NotFoundException("Задача не найдена");
+        return result;
+    }
+
+    protected static int parseId(String segment) {
+        try {
+            return Integer.parseInt(segment);
+        } catch (NumberFormatException e) {
+            throw new NotFoundException("Некорректный id: " + segment);
+        }
+    }
+
+    protected static byte[] readBody(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            return body.readAllBytes();
+        }
+    }
+
+    protected static void sendJson(HttpExchange exchange, int code, String json) throws IOException {
+        sendJson(exchange, code, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Тело от MIN_COMPRESSED_SIZE байт сжимается, если клиент это поддерживает
+    protected static void sendJson(HttpExchange exchange, int code, byte[] response) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", JSON_CONTENT_TYPE);
+        String encoding = null;
+        if (response.length >= MIN_COMPRESSED_SIZE) {
+            headers.set("Vary", "Accept-Encoding");
+            encoding = ContentEncoding.negotiate(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+        }
+
+        if (encoding == null) {
+            exchange.sendResponseHeaders(code, response.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(response);
+            }
+            return;
+        }
+
+        headers.set("Content-Encoding", encoding);
+        exchange.sendResponseHeaders(code, 0);
+        try (OutputStream body = ContentEncoding.wrap(encoding, exchange.getResponseBody())) {
+            body.write(response);
+        }
+    }
+
+    protected static void sendIssue(HttpExchange exchange, Task issue) throws IOException {
+        sendJson(exchange, 200, IssueJson.toBytes(issue));
+    }
+
+    // Список пишется в ответ по мере кодирования (chunked), целиком в памяти не собирается
+    protected static void sendIssues(HttpExchange exchange, List<? extends Task> issues) throws IOException {
+        try (OutputStream body = openStream(exchange)) {
+            IssueJson.writeArray(body, issues);
+        }
+    }
+
+    // Список, читаемый одним обращением к менеджеру, с условным GET и кешем (см. sendList)
+    protected void sendIssues(HttpExchange exchange, ToLongFunction<TaskManager> version,
+                              Function<TaskManager, List<? extends Task>> issues) throws IOException {
+        boolean[] read = new boolean[1];
+        sendList(exchange, version, manager -> {
+            if (read[0])
+                return List.of();
+            read[0] = true;
+            return issues.apply(manager);
+        });
+    }
+
+    /**
+     * Список с условным GET: ETag — идентификатор обработчика и версия данных. Если клиент прислал её в If-None-Match,
+     * отвечаем 304 без чтения и кодирования списка. Иначе ответ берётся из кеша по версии.
+     * <p>
+     * Если в кеше ответа нет, список читается страницами, каждая под отдельным взятием блокировки,
+     * и кодируется по мере чтения. Ответ до MAX_CACHED_BYTES собирается в памяти и кешируется
+     * (если версия не менялась между страницами), больший — сразу пишется в сокет (chunked,
+     * со сжатием), так что память на запрос не зависит от размера списка. Такой ответ не снимок:
+     * задача, изменённая во время чтения, попадает в него в одном из состояний.
+     */
+    protected void sendList(HttpExchange exchange, ToLongFunction<TaskManager> version, PageSource pages)
+            throws IOException {
+        String key = exchange.getRequestURI().toString();
+        Headers headers = exchange.getResponseHeaders();
+        long current = find(manager -> version.applyAsLong(manager));
+        headers.set("Cache-Control", "no-cache");
+        headers.set("ETag", etag(current));
+        if (matches(exchange.getRequestHeaders().getFirst("If-None-Match"), current)) {
+            sendEmpty(exchange, 304);
+            return;
+        }
+
+        byte[] cached = cache.get(key, current);
+        if (cached != null) {
+            sendJson(exchange, 200, cached);
+            return;
+        }
+
+        boolean consistent = true;
+        SpillingOutputStream body = new SpillingOutputStream(MAX_CACHED_BYTES, () -> openStream(exchange));
+        try (body) {
+            JsonWriter writer = new JsonWriter(body);
+            writer.raw('[');
+            boolean first = true;
+            while (true) {
+                Snapshot page = find(manager -> new Snapshot(version.applyAsLong(manager), pages.next(manager)));
+                consistent &= page.version() == current;
+                if (page.issues().isEmpty())
+                    break;
+
+                for (Task issue : page.issues()) {
+                    if (!first)
+                        writer.raw(',');
+                    IssueJson.write(writer, issue);
+                    first = false;
+                }
+            }
+            writer.raw(']');
+            writer.flush();
+            if (body.isSpilled())
+                return;
+        }
+
+        byte[] json = body.toByteArray();
+        if (consistent)
+            cache.put(key, current, json);
+        sendJson(exchange, 200, json);
+    }
+
+    // Отправляет заголовки ответа без длины и возвращает поток тела со сжатием, выбранным по Accept-Encoding
+    private static OutputStream openStream(HttpExchange exchange) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        String encoding = ContentEncoding.negotiate(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+        headers.set("Content-Type", JSON_CONTENT_TYPE);
+        headers.set("Vary", "Accept-Encoding");
+        if (encoding != null)
+            headers.set("Content-Encoding", encoding);
+        exchange.sendResponseHeaders(200, 0);
+        return ContentEncoding.wrap(encoding, exchange.getResponseBody());
+    }
+
+    protected static String queryParameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null)
+            return null;
+
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0 && parameter.substring(0, separator).equals(name))
+                return parameter.substring(separator + 1);
+        }
+        return null;
+    }
+
+    protected static long parseLong(String value, String name) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректное значение " + name + ": " + value);
+        }
+    }
+
+    protected static void sendEmpty(HttpExchange exchange, int code) throws IOException {
+        exchange.sendResponseHeaders(code, -1);
+    }
+
+    protected static void sendMethodNotAllowed(HttpExchange exchange) throws IOException {
+        sendError(exchange, 405, "Метод не поддерживается: " + exchange.getRequestMethod());
+    }
+
+    private static void sendError(HttpExchange exchange, int code, String message) throws IOException {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        JsonWriter writer = new JsonWriter(json);
+        writer.raw(ERROR_PREFIX).string(message == null ? "" : message).raw('}');
+        writer.flush();
+        sendJson(exchange, code, json.toByteArray());
+    }
+
+    // Слабый тег: тело одной версии может отдаваться сжатым по-разному
+    private String etag(long version) {
+        return "W/" + strongTag(version);
+    }
+
+    // If-None-Match может содержать несколько тегов через запятую, слабые теги сравниваются как обычные
+    private boolean matches(String ifNoneMatch, long version) {
+        if (ifNoneMatch == null)
+            return false;
+
+        String expected = strongTag(version);
+        for (String tag : ifNoneMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.startsWith("W/"))
+                trimmed = trimmed.substring(2);
+            if (trimmed.equals("*") || trimmed.equals(expected))
+                return true;
+        }
+        return false;
+    }
+
+    private String strongTag(long version) {
+        return "\"" + instance + "-" + version + "\"";
+    }
+
+    // Сегменты пути без пустого первого: /tasks/1 -> [tasks, 1]
+    private static String[] pathSegments(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+        String trimmed = path.replaceAll("^/+|/+$", "");
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("/+");
+    }
+
+    static class NotFoundException extends RuntimeException {
+        NotFoundException(String message) {
+            super(message);
+        }
+    }
+}
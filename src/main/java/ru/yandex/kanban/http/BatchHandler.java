@@ -0,0 +1,191 @@
+package ru.yandex.kanban.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import ru.yandex.kanban.issue.Epic;
+import ru.yandex.kanban.issue.Subtask;
+import ru.yandex.kanban.issue.Task;
+import ru.yandex.kanban.issue.TaskType;
+import ru.yandex.kanban.service.TaskManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * POST /batch — упорядоченный список операций за один запрос:
+ * <pre>
+ * [{"op":"create","type":"TASK","issue":{...}},
+ *  {"op":"update","type":"SUBTASK","issue":{"id":5,...}},
+ *  {"op":"delete","type":"EPIC","id":3}]
+ * </pre>
+ * Операции выполняются по порядку за одно взятие блокировки и одно сохранение менеджера
+ * (TaskManager.runBatch). Каждая операция независима: ошибка одной не отменяет остальные.
+ * Ответ — результаты по позициям с теми же кодами, что у обычных запросов:
+ * {"status":201,"id":12}, {"status":200}, {"status":404,"error":"..."}.
+ */
+
+class BatchHandler extends BaseHttpHandler {
+    private static final int MAX_OPERATIONS = 1_000;
+    private static final byte[] STATUS = "{\"status\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ID = ",\"id\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ERROR = ",\"error\":".getBytes(StandardCharsets.US_ASCII);
+
+    private enum Kind {
+        CREATE, UPDATE, DELETE
+    }
+
+    // Разобранная операция; id созданной задачи заполняется при выполнении
+    private static class Operation {
+        private final Kind kind;
+        private final TaskType type;
+        private final Task issue;
+        private final int id;
+        private int createdId;
+
+        Operation(Kind kind, TaskType type, Task issue, int id) {
+            this.kind = kind;
+            this.type = type;
+            this.issue = issue;
+            this.id = id;
+        }
+    }
+
+    BatchHandler(TaskManager manager, ReentrantLock lock) {
+        super(manager, lock);
+    }
+
+    @Override
+    protected void handleRequest(HttpExchange exchange, String[] path) throws IOException {
+        if (path.length != 1)
+            throw new NotFoundException("Путь не найден: " + exchange.getRequestURI().getPath());
+        if (!exchange.getRequestMethod().equals("POST")) {
+            sendMethodNotAllowed(exchange);
+            return;
+        }
+
+        // Запрос разбирается целиком до выполнения: некорректный пакет не выполняется совсем
+        List<Operation> operations = parse(readBody(exchange));
+        List<Consumer<TaskManager>> actions = new ArrayList<>(operations.size());
+        for (Operation operation : operations) {
+            actions.add(manager -> execute(manager, operation));
+        }
+        List<RuntimeException> errors = withManager(manager -> manager.runBatch(actions));
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream body = exchange.getResponseBody()) {
+            JsonWriter writer = new JsonWriter(body);
+            writer.raw('[');
+            for (int i = 0; i < operations.size(); i++) {
+                if (i > 0)
+                    writer.raw(',');
+                writeResult(writer, operations.get(i), errors.get(i));
+            }
+            writer.raw(']');
+            writer.flush();
+        }
+    }
+
+    private static void execute(TaskManager manager, Operation operation) {
+        switch (operation.kind) {
+            case CREATE -> operation.createdId = switch (operation.type) {
+                case TASK -> manager.createTask(operation.issue);
+                case EPIC -> manager.createEpic((Epic) operation.issue);
+                case SUBTASK -> manager.createSubtask((Subtask) operation.issue);
+            };
+            case UPDATE -> {
+                switch (operation.type) {
+                    case TASK -> manager.updateTask(operation.issue);
+                    case EPIC -> manager.updateEpic((Epic) operation.issue);
+                    case SUBTASK -> manager.updateSubtask((Subtask) operation.issue);
+                }
+            }
+            case DELETE -> {
+                // Как и DELETE /{collection}/{id}: отсутствующая задача — 404
+                try {
+                    switch (operation.type) {
+                        case TASK -> manager.removeTaskById(operation.id);
+                        case EPIC -> manager.removeEpicById(operation.id);
+                        case SUBTASK -> manager.removeSubtaskById(operation.id);
+                    }
+                } catch (IllegalArgumentException e) {
+                    throw new NotFoundException(e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void writeResult(JsonWriter writer, Operation operation, RuntimeException error)
+            throws IOException {
+        if (error != null) {
+            int code = statusOf(error);
+            writer.raw(STATUS).value(code).raw(ERROR).string(errorMessage(error, code)).raw('}');
+        } else if (operation.kind == Kind.CREATE) {
+            writer.raw(STATUS).value(201).raw(ID).value(operation.createdId).raw('}');
+        } else {
+            writer.raw(STATUS).value(200).raw('}');
+        }
+    }
+
+    private static List<Operation> parse(byte[] body) {
+        JsonReader reader = new JsonReader(body);
+        List<Operation> operations = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (operations.size() == MAX_OPERATIONS)
+                throw new IllegalArgumentException("В пакете больше " + MAX_OPERATIONS + " операций");
+            operations.add(parseOperation(reader, operations.size()));
+        }
+        reader.endArray();
+        reader.endDocument();
+        return operations;
+    }
+
+    private static Operation parseOperation(JsonReader reader, int index) {
+        String op = null;
+        String type = null;
+        byte[] issue = null;
+        Integer id = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "op" -> op = reader.nextString();
+                case "type" -> type = reader.nextString();
+                case "issue" -> issue = reader.nextRaw();
+                case "id" -> id = reader.nextInt();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        Kind kind = parseEnum(Kind.class, op, "op", index);
+        TaskType taskType = parseEnum(TaskType.class, type, "type", index);
+        if (kind == Kind.DELETE) {
+            if (id == null)
+                throw new IllegalArgumentException("Операция " + index + ": для удаления нужен id");
+            return new Operation(kind, taskType, null, id);
+        }
+
+        if (issue == null)
+            throw new IllegalArgumentException("Операция " + index + ": не передана задача issue");
+        Task parsed = IssueJson.fromJson(issue, taskType);
+        if (kind == Kind.UPDATE && parsed.getId() == null)
+            throw new IllegalArgumentException("Операция " + index + ": для обновления нужен id задачи");
+        return new Operation(kind, taskType, parsed, 0);
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String field, int index) {
+        if (value == null)
+            throw new IllegalArgumentException("Операция " + index + ": не указано поле " + field);
+        try {
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Операция " + index + ": неизвестное значение " + field + ": " + value);
+        }
+    }
+}
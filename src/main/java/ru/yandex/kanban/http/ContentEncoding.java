@@ -0,0 +1,76 @@
+package ru.yandex.kanban.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Сжатие ответа по заголовку Accept-Encoding: gzip или deflate (zlib), иначе без сжатия.
+ */
+
+final class ContentEncoding {
+    static final String GZIP = "gzip";
+    static final String DEFLATE = "deflate";
+    private static final int BUFFER_SIZE = 8192;
+
+    private ContentEncoding() {
+    }
+
+    // Выбранное сжатие или null. При равном весе предпочитается gzip, q=0 запрещает способ
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return null;
+
+        double gzip = -1;
+        double deflate = -1;
+        double any = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim();
+                if (parameter.startsWith("q="))
+                    quality = parseQuality(parameter.substring(2));
+            }
+
+            switch (name) {
+                case "gzip", "x-gzip" -> gzip = quality;
+                case "deflate" -> deflate = quality;
+                case "*" -> any = quality;
+                default -> {
+                }
+            }
+        }
+
+        // "*" относится к способам, не перечисленным явно
+        if (gzip < 0)
+            gzip = any;
+        if (deflate < 0)
+            deflate = any;
+        if (gzip > 0 && gzip >= deflate)
+            return GZIP;
+        return deflate > 0 ? DEFLATE : null;
+    }
+
+    // Поток, сжимающий данные в out; close завершает сжатие и закрывает out
+    static OutputStream wrap(String encoding, OutputStream out) throws IOException {
+        if (encoding == null)
+            return out;
+        return switch (encoding) {
+            case GZIP -> new GZIPOutputStream(out, BUFFER_SIZE);
+            case DEFLATE -> new DeflaterOutputStream(out);
+            default -> throw new IllegalArgumentException("Неизвестное сжатие: " + encoding);
+        };
+    }
+
+    private static double parseQuality(String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package ru.yandex.kanban.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import ru.yandex.kanban.issue.Epic;
+import ru.yandex.kanban.issue.TaskType;
+import ru.yandex.kanban.service.TaskManager;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Кроме общих путей поддерживает GET /epics/{id}/subtasks — подзадачи эпика.
+ */
+
+class EpicsHandler extends IssueHandler<Epic> {
+    EpicsHandler(TaskManager manager, ReentrantLock lock) {
+        super(manager, lock, TaskType.EPIC);
+    }
+
+    @Override
+    protected List<Epic> getPage(TaskManager manager, int afterId, int limit) {
+        return manager.getEpicsPage(afterId, limit);
+    }
+
+    @Override
+    protected Epic getById(TaskManager manager, int id) {
+        return manager.getEpicById(id);
+    }
+
+    @Override
+    protected int create(TaskManager manager, Epic issue) {
+        return manager.createEpic(issue);
+    }
+
+    @Override
+    protected void update(TaskManager manager, Epic issue) {
+        manager.updateEpic(issue);
+    }
+
+    @Override
+    protected void removeById(TaskManager manager, int id) {
+        manager.removeEpicById(id);
+    }
+
+    @Override
+    protected void removeAll(TaskManager manager) {
+        manager.removeAllEpics();
+    }
+
+    @Override
+    protected void handleNested(HttpExchange exchange, String[] path) throws IOException {
+        if (path.length != 3 || !path[2].equals("subtasks")) {
+            super.handleNested(exchange, path);
+            return;
+        }
+        if (!exchange.getRequestMethod().equals("GET")) {
+            sendMethodNotAllowed(exchange);
+            return;
+        }
+
+        int epicId = parseId(path[1]);
+        sendIssues(exchange, manager -> manager.getEpicModificationVersion(epicId),
+                manager -> manager.getAllSubtasksByEpicId(epicId));
+    }
+}
@@ -0,0 +1,132 @@
+package ru.yandex.kanban.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import ru.yandex.kanban.service.ChangeFeed;
+import ru.yandex.kanban.service.TaskManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * GET /events — лента изменений задач, эпиков и подзадач.
+ * <p>
+ * С заголовком Accept: text/event-stream ответ — поток server-sent events: каждое событие
+ * с id, при отсутствии событий — комментарий-пинг, по которому обнаруживается отключение клиента.
+ * Переподключившийся клиент присылает Last-Event-ID и получает пропущенные события.
+ * Без него — long-poll: GET /events?after=N&timeout=S возвращает пачку событий после N,
+ * ожидая первое не дольше S секунд.
+ * <p>
+ * Каждый клиент читает общую ленту своим курсором в своём виртуальном потоке, поэтому медленный
+ * клиент задерживает только себя. Отставшему больше, чем хранит лента, приходит reset
+ * (в long-poll — missed): доску нужно перечитать целиком.
+ */
+
+class EventsHandler extends BaseHttpHandler {
+    private static final int BATCH_SIZE = 256;
+    private static final Duration HEARTBEAT = Duration.ofSeconds(15);
+    private static final Duration DEFAULT_POLL_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration MAX_POLL_TIMEOUT = Duration.ofSeconds(60);
+    private static final byte[] ID = ascii("id: ");
+    private static final byte[] EVENT = ascii("\nevent: ");
+    private static final byte[] DATA = ascii("\ndata: ");
+    private static final byte[] END = ascii("\n\n");
+    private static final byte[] PING = ascii(": ping\n\n");
+    private static final byte[] RESET = ascii("reset");
+    private static final byte[] RESET_DATA = ascii("{\"lastEventId\":");
+    private static final byte[][] KIND_NAMES = kindNames();
+
+    EventsHandler(TaskManager manager, ReentrantLock lock) {
+        super(manager, lock);
+    }
+
+    @Override
+    protected void handleRequest(HttpExchange exchange, String[] path) throws IOException {
+        if (path.length != 1)
+            throw new NotFoundException("Путь не найден: " + exchange.getRequestURI().getPath());
+        if (!exchange.getRequestMethod().equals("GET")) {
+            sendMethodNotAllowed(exchange);
+            return;
+        }
+
+        ChangeFeed feed = withManager(TaskManager::getChangeFeed);
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        try {
+            if (accept != null && accept.contains("text/event-stream"))
+                stream(exchange, feed);
+            else
+                poll(exchange, feed);
+        } catch (InterruptedException e) {
+            // Сервер останавливается
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void poll(HttpExchange exchange, ChangeFeed feed) throws IOException, InterruptedException {
+        String after = queryParameter(exchange, "after");
+        String timeout = queryParameter(exchange, "timeout");
+        long afterId = after == null ? feed.getLastEventId() : parseLong(after, "after");
+        Duration wait = timeout == null ? DEFAULT_POLL_TIMEOUT : Duration.ofSeconds(parseLong(timeout, "timeout"));
+        if (wait.isNegative() || wait.compareTo(MAX_POLL_TIMEOUT) > 0)
+            throw new IllegalArgumentException("Время ожидания должно быть от 0 до "
+                    + MAX_POLL_TIMEOUT.toSeconds() + " секунд: " + timeout);
+
+        ChangeFeed.Batch batch = feed.await(afterId, BATCH_SIZE, wait);
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream body = exchange.getResponseBody()) {
+            IssueJson.writeBatch(body, batch);
+        }
+    }
+
+    private void stream(HttpExchange exchange, ChangeFeed feed) throws IOException, InterruptedException {
+        String lastEventId = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+        if (lastEventId == null)
+            lastEventId = queryParameter(exchange, "after");
+        long cursor = lastEventId == null ? feed.getLastEventId() : parseLong(lastEventId, "Last-Event-ID");
+
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream;charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream body = exchange.getResponseBody()) {
+            JsonWriter writer = new JsonWriter(body);
+            // Цикл заканчивается, когда клиент отключился (ошибка записи) или сервер остановлен
+            while (true) {
+                ChangeFeed.Batch batch = feed.await(cursor, BATCH_SIZE, HEARTBEAT);
+                if (batch.missed()) {
+                    writer.raw(ID).value(batch.lastEventId()).raw(EVENT).raw(RESET).raw(DATA)
+                            .raw(RESET_DATA).value(batch.lastEventId()).raw('}').raw(END);
+                } else if (batch.events().isEmpty()) {
+                    writer.raw(PING);
+                }
+                for (ChangeFeed.Event event : batch.events()) {
+                    writer.raw(ID).value(event.id()).raw(EVENT).raw(KIND_NAMES[event.kind().ordinal()]).raw(DATA);
+                    IssueJson.writeEvent(writer, event);
+                    writer.raw(END);
+                }
+                // Пачка уходит клиенту одним сбросом
+                writer.flush();
+                cursor = batch.lastEventId();
+            }
+        } catch (IOException e) {
+            // Клиент отключился
+        }
+    }
+
+    // Имя события SSE — вид изменения в нижнем регистре: created, updated, deleted
+    private static byte[][] kindNames() {
+        ChangeFeed.Kind[] kinds = ChangeFeed.Kind.values();
+        byte[][] names = new byte[kinds.length][];
+        for (ChangeFeed.Kind kind : kinds) {
+            names[kind.ordinal()] = ascii(kind.name().toLowerCase());
+        }
+        return names;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,78 @@
+package ru.yandex.kanban.http;
+
+import com.sun.net.httpserver.HttpServer;
+import ru.yandex.kanban.service.TaskManager;
+import ru.yandex.kanban.utility.Managers;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * HTTP API менеджера задач на встроенном в JDK сервере. Каждый запрос обрабатывается
+ * в отдельном виртуальном потоке, поэтому тысячи одновременных соединений не требуют
+ * тысяч потоков ОС.
+ * <p>
+ * Пути: /tasks, /subtasks, /epics (и /epics/{id}/subtasks), /history, /prioritized,
+ * /events — лента изменений (server-sent events или long-poll), /batch — пакет операций.
+ */
+
+public class HttpTaskServer {
+    public static final int DEFAULT_PORT = 8080;
+    // Очередь ожидающих соединений: при всплеске подключений они ждут, а не получают отказ
+    private static final int BACKLOG = 4096;
+    private static final int STOP_DELAY_SECONDS = 1;
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public HttpTaskServer(TaskManager manager) throws IOException {
+        this(manager, DEFAULT_PORT);
+    }
+
+    // port 0 — любой свободный порт, см. getPort
+    public HttpTaskServer(TaskManager manager, int port) throws IOException {
+        this(manager, port, new ReentrantLock());
+    }
+
+    // Общая блокировка нужна, когда тот же менеджер обслуживают и другие серверы, например BinaryTaskServer
+    public HttpTaskServer(TaskManager manager, int port, ReentrantLock lock) throws IOException {
+        if (manager == null)
+            throw new IllegalArgumentException("TaskManager не должен быть null.");
+        if (lock == null)
+            throw new IllegalArgumentException("Блокировка не должна быть null.");
+
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/tasks", new TasksHandler(manager, lock));
+        server.createContext("/subtasks", new SubtasksHandler(manager, lock));
+        server.createContext("/epics", new EpicsHandler(manager, lock));
+        server.createContext("/history", new HistoryHandler(manager, lock));
+        server.createContext("/prioritized", new PrioritizedHandler(manager, lock));
+        server.createContext("/events", new EventsHandler(manager, lock));
+        server.createContext("/batch", new BatchHandler(manager, lock));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(STOP_DELAY_SECONDS);
+        // Прерываем потоки, которые держат открытые ленты событий
+        executor.shutdownNow();
+        executor.close();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public static void main(String[] args) throws IOException {
+        HttpTaskServer server = new HttpTaskServer(Managers.getDefault());
+        server.start();
+        System.out.println("HTTP-сервер запущен на порту " + server.getPort());
+    }
+}
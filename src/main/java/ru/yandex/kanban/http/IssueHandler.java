@@ -0,0 +1,147 @@
+package ru.yandex.kanban.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import ru.yandex.kanban.issue.Task;
+import ru.yandex.kanban.issue.TaskType;
+import ru.yandex.kanban.service.TaskManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * Обработчик коллекции задач одного типа:
+ * GET /{collection} (целиком или страницей: ?limit=N&after=id), GET /{collection}/{id}, POST /{collection} (без id — создание, с id — обновление),
+ * DELETE /{collection}/{id}, DELETE /{collection}.
+ */
+
+abstract class IssueHandler<T extends Task> extends BaseHttpHandler {
+    // Страница чтения менеджера при выдаче всей коллекции и наибольшая страница по запросу клиента
+    private static final int PAGE_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 1_000;
+
+    private final TaskType type;
+
+    IssueHandler(TaskManager manager, ReentrantLock lock, TaskType type) {
+        super(manager, lock);
+        this.type = type;
+    }
+
+    // Страница коллекции по возрастанию id, см. TaskManager.getTasksPage
+    protected abstract List<T> getPage(TaskManager manager, int afterId, int limit);
+
+    protected abstract T getById(TaskManager manager, int id);
+
+    protected abstract int create(TaskManager manager, T issue);
+
+    protected abstract void update(TaskManager manager, T issue);
+
+    protected abstract void removeById(TaskManager manager, int id);
+
+    protected abstract void removeAll(TaskManager manager);
+
+    // Дополнительные пути вида /{collection}/{id}/..., по умолчанию не поддерживаются
+    protected void handleNested(HttpExchange exchange, String[] path) throws IOException {
+        throw new NotFoundException("Путь не найден: " + exchange.getRequestURI().getPath());
+    }
+
+    @Override
+    protected void handleRequest(HttpExchange exchange, String[] path) throws IOException {
+        if (path.length > 2) {
+            handleNested(exchange, path);
+            return;
+        }
+
+        String method = exchange.getRequestMethod();
+        if (path.length == 1) {
+            switch (method) {
+                case "GET" -> sendCollection(exchange);
+                case "POST" -> save(exchange);
+                case "DELETE" -> {
+                    withManager(manager -> {
+                        removeAll(manager);
+                        return null;
+                    });
+                    sendEmpty(exchange, 200);
+                }
+                default -> sendMethodNotAllowed(exchange);
+            }
+            return;
+        }
+
+        int id = parseId(path[1]);
+        switch (method) {
+            case "GET" -> sendIssue(exchange, find(manager -> getById(manager, id)));
+            case "DELETE" -> {
+                find(manager -> {
+                    removeById(manager, id);
+                    return id;
+                });
+                sendEmpty(exchange, 200);
+            }
+            default -> sendMethodNotAllowed(exchange);
+        }
+    }
+
+    /**
+     * GET /{collection}?limit=N[&after=id] — одна страница; если она полная, в заголовке Link
+     * передаётся адрес следующей. Без limit коллекция отдаётся целиком, но читается из менеджера
+     * страницами по PAGE_SIZE, и память на ответ не зависит от размера коллекции.
+     */
+    private void sendCollection(HttpExchange exchange) throws IOException {
+        String limit = queryParameter(exchange, "limit");
+        String after = queryParameter(exchange, "after");
+        int afterId = after == null ? Integer.MIN_VALUE : toInt(parseLong(after, "after"), "after");
+        ToLongFunction<TaskManager> version = manager -> manager.getModificationVersion(type);
+
+        if (limit == null) {
+            int[] cursor = {afterId};
+            sendList(exchange, version, manager -> {
+                List<T> page = getPage(manager, cursor[0], PAGE_SIZE);
+                if (!page.isEmpty())
+                    cursor[0] = page.getLast().getId();
+                return page;
+            });
+            return;
+        }
+
+        int pageSize = toInt(parseLong(limit, "limit"), "limit");
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE)
+            throw new IllegalArgumentException("limit должен быть от 1 до " + MAX_PAGE_SIZE + ": " + limit);
+
+        List<T> page = withManager(manager -> getPage(manager, afterId, pageSize));
+        if (page.size() == pageSize) {
+            String path = exchange.getRequestURI().getPath();
+            exchange.getResponseHeaders().set("Link", "<" + path + "?after=" + page.getLast().getId()
+                    + "&limit=" + pageSize + ">; rel=\"next\"");
+        }
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        IssueJson.writeArray(json, page);
+        sendJson(exchange, 200, json.toByteArray());
+    }
+
+    private static int toInt(long value, String name) {
+        if (value != (int) value)
+            throw new IllegalArgumentException("Значение " + name + " вне диапазона: " + value);
+        return (int) value;
+    }
+
+    private void save(HttpExchange exchange) throws IOException {
+        @SuppressWarnings("unchecked")
+        T issue = (T) IssueJson.fromJson(readBody(exchange), type);
+
+        if (issue.getId() == null) {
+            int id = withManager(manager -> create(manager, issue));
+            sendJson(exchange, 201, "{\"id\":" + id + "}");
+            return;
+        }
+
+        withManager(manager -> {
+            update(manager, issue);
+            return null;
+        });
+        sendEmpty(exchange, 200);
+    }
+}
@@ -0,0 +1,231 @@
+package ru.yandex.kanban.http;
+
+import ru.yandex.kanban.issue.Epic;
+import ru.yandex.kanban.issue.Status;
+import ru.yandex.kanban.issue.Subtask;
+import ru.yandex.kanban.issue.Task;
+import ru.yandex.kanban.issue.TaskType;
+import ru.yandex.kanban.service.ChangeFeed;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * JSON-представление задач для HTTP API. Продолжительность передаётся в минутах,
+ * время начала — в формате ISO-8601 без часового пояса.
+ * <p>
+ * Кодирование и разбор написаны вручную под модель задач: списки пишутся прямо в поток
+ * ответа через JsonWriter, тело запроса разбирается JsonReader без промежуточного дерева.
+ */
+
+final class IssueJson {
+    private static final byte[] ID = ascii("{\"id\":");
+    private static final byte[] TYPE = ascii(",\"type\":");
+    private static final byte[] NAME = ascii(",\"name\":");
+    private static final byte[] DESCRIPTION = ascii(",\"description\":");
+    private static final byte[] STATUS = ascii(",\"status\":");
+    private static final byte[] EPIC_ID = ascii(",\"epicId\":");
+    private static final byte[] PARENT_EPIC_ID = ascii(",\"parentEpicId\":");
+    private static final byte[] SUBTASKS = ascii(",\"subtasks\":[");
+    private static final byte[] START_TIME = ascii(",\"startTime\":");
+    private static final byte[] DURATION = ascii(",\"duration\":");
+    private static final byte[] END_TIME = ascii(",\"endTime\":");
+    private static final byte[] VERSION = ascii(",\"version\":");
+    private static final byte[] EVENT_ID = ascii("{\"id\":");
+    private static final byte[] EVENT_KIND = ascii(",\"kind\":");
+    private static final byte[] ISSUE_ID = ascii(",\"issueId\":");
+    private static final byte[] ISSUE = ascii(",\"issue\":");
+    private static final byte[] LAST_EVENT_ID = ascii("{\"lastEventId\":");
+    private static final byte[] MISSED = ascii(",\"missed\":");
+    private static final byte[] EVENTS = ascii(",\"events\":[");
+    private static final byte[] TRUE = ascii("true");
+    private static final byte[] FALSE = ascii("false");
+    private static final byte[][] TYPE_NAMES = quotedNames(TaskType.values());
+    private static final byte[][] KIND_NAMES = quotedNames(ChangeFeed.Kind.values());
+    private static final byte[][] STATUS_NAMES = quotedNames(Status.values());
+
+    private IssueJson() {
+    }
+
+    static void write(JsonWriter writer, Task task) throws IOException {
+        writer.raw(ID).value(task.getId())
+                .raw(TYPE).raw(TYPE_NAMES[task.getType().ordinal()])
+                .raw(NAME).string(task.getName())
+                .raw(DESCRIPTION).string(task.getDescription())
+                .raw(STATUS).raw(STATUS_NAMES[task.getStatus().ordinal()]);
+
+        if (task instanceof Subtask subtask)
+            writer.raw(EPIC_ID).value(subtask.getEpicId());
+        if (task instanceof Epic epic) {
+            writer.raw(PARENT_EPIC_ID).value(epic.getParentEpicId()).raw(SUBTASKS);
+            boolean first = true;
+            for (Integer subtaskId : epic.getDependentSubtaskIds()) {
+                if (!first)
+                    writer.raw(',');
+                writer.value(subtaskId);
+                first = false;
+            }
+            writer.raw(']');
+        }
+
+        writer.raw(START_TIME).value(task.getStartTime()).raw(DURATION);
+        if (task.getDuration() == null)
+            writer.nullValue();
+        else
+            writer.value(task.getDuration().toMinutes());
+        writer.raw(END_TIME).value(task.getEndTime())
+                .raw(VERSION).value(task.getVersion())
+                .raw('}');
+    }
+
+    // Массив задач пишется в поток по одной, без сборки всего ответа в памяти
+    static void writeArray(OutputStream out, Iterable<? extends Task> tasks) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.raw('[');
+        boolean first = true;
+        for (Task task : tasks) {
+            if (!first)
+                writer.raw(',');
+            write(writer, task);
+            first = false;
+        }
+        writer.raw(']');
+        writer.flush();
+    }
+
+    // Событие ленты: {"id":1,"kind":"CREATED","type":"TASK","issueId":5,"issue":{...}}
+    static void writeEvent(JsonWriter writer, ChangeFeed.Event event) throws IOException {
+        writer.raw(EVENT_ID).value(event.id())
+                .raw(EVENT_KIND).raw(KIND_NAMES[event.kind().ordinal()])
+                .raw(TYPE).raw(TYPE_NAMES[event.type().ordinal()])
+                .raw(ISSUE_ID).value(event.issueId())
+                .raw(ISSUE);
+        if (event.issue() == null)
+            writer.nullValue();
+        else
+            write(writer, event.issue());
+        writer.raw('}');
+    }
+
+    // Пачка событий для long-poll: {"lastEventId":7,"missed":false,"events":[...]}
+    static void writeBatch(OutputStream out, ChangeFeed.Batch batch) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.raw(LAST_EVENT_ID).value(batch.lastEventId())
+                .raw(MISSED).raw(batch.missed() ? TRUE : FALSE)
+                .raw(EVENTS);
+        boolean first = true;
+        for (ChangeFeed.Event event : batch.events()) {
+            if (!first)
+                writer.raw(',');
+            writeEvent(writer, event);
+            first = false;
+        }
+        writer.raw(']').raw('}');
+        writer.flush();
+    }
+
+    static byte[] toBytes(Task task) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try {
+            JsonWriter writer = new JsonWriter(out);
+            write(writer, task);
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    static String toJson(Task task) {
+        return new String(toBytes(task), StandardCharsets.UTF_8);
+    }
+
+    // Разбирает задачу ожидаемого типа. id и version необязательны: без id задача создаётся.
+    // Вычисляемые поля (type, endTime, subtasks) и неизвестные поля пропускаются
+    static Task fromJson(byte[] json, TaskType type) {
+        JsonReader reader = new JsonReader(json);
+        Integer id = null;
+        String name = null;
+        String description = null;
+        Status status = Status.NEW;
+        LocalDateTime startTime = null;
+        Duration duration = null;
+        Integer epicId = null;
+        Integer parentEpicId = null;
+        Integer version = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id" -> id = reader.nextInt();
+                case "name" -> name = reader.nextString();
+                case "description" -> description = reader.nextString();
+                case "status" -> status = parseStatus(reader.nextString());
+                case "startTime" -> startTime = parseTime(reader.nextString());
+                case "duration" -> {
+                    Long minutes = reader.nextLong();
+                    duration = minutes == null ? null : Duration.ofMinutes(minutes);
+                }
+                case "epicId" -> epicId = reader.nextInt();
+                case "parentEpicId" -> parentEpicId = reader.nextInt();
+                case "version" -> version = reader.nextInt();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        reader.endDocument();
+
+        Task task = switch (type) {
+            case TASK -> new Task(id, name, description, status, startTime, duration);
+            case EPIC -> new Epic(id, name, description, parentEpicId);
+            case SUBTASK -> {
+                if (epicId == null)
+                    throw new IllegalArgumentException("У подзадачи должен быть указан epicId");
+                yield new Subtask(epicId, id, name, description, status, startTime, duration);
+            }
+        };
+        if (version != null)
+            task.setVersion(version);
+        return task;
+    }
+
+    static Task fromJson(String json, TaskType type) {
+        return fromJson(json.getBytes(StandardCharsets.UTF_8), type);
+    }
+
+    private static Status parseStatus(String name) {
+        if (name == null)
+            return Status.NEW;
+        try {
+            return Status.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неизвестный статус: " + name);
+        }
+    }
+
+    private static LocalDateTime parseTime(String value) {
+        try {
+            return value == null ? null : LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Некорректные дата и время: " + value);
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[][] quotedNames(Enum<?>[] values) {
+        byte[][] names = new byte[values.length][];
+        for (Enum<?> value : values) {
+            names[value.ordinal()] = ascii('"' + value.name() + '"');
+        }
+        return names;
+    }
+}
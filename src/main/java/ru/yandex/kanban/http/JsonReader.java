@@ -0,0 +1,300 @@
+package ru.yandex.kanban.http;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Потоковый разбор JSON из байтов UTF-8 без построения дерева: вызывающий код читает
+ * поля по одному и сам решает, какие значения ему нужны, остальные пропускаются.
+ * Ошибки формата — IllegalArgumentException с позицией.
+ */
+
+final class JsonReader {
+    private static final int MAX_DEPTH = 64;
+
+    private final byte[] data;
+    private int position;
+    // Для каждого уровня вложенности: был ли уже элемент (тогда перед следующим нужна запятая)
+    private final boolean[] hasElement = new boolean[MAX_DEPTH];
+    private int depth;
+
+    JsonReader(byte[] data) {
+        this.data = data;
+    }
+
+    void beginObject() {
+        begin('{');
+    }
+
+    void endObject() {
+        end('}');
+    }
+
+    void beginArray() {
+        begin('[');
+    }
+
+    void endArray() {
+        end(']');
+    }
+
+    // Есть ли ещё элемент в текущем объекте или массиве; запятая перед ним пропускается
+    boolean hasNext() {
+        skipWhitespace();
+        byte c = peek();
+        if (c == '}' || c == ']')
+            return false;
+
+        if (hasElement[depth - 1]) {
+            expect(',');
+            skipWhitespace();
+        }
+        hasElement[depth - 1] = true;
+        return true;
+    }
+
+    String nextName() {
+        skipWhitespace();
+        String name = readString();
+        skipWhitespace();
+        expect(':');
+        return name;
+    }
+
+    // Строка или null
+    String nextString() {
+        skipWhitespace();
+        if (consumeNull())
+            return null;
+        if (peek() != '"')
+            throw error("ожидается строка");
+        return readString();
+    }
+
+    // Целое число или null
+    Long nextLong() {
+        skipWhitespace();
+        if (consumeNull())
+            return null;
+
+        int start = position;
+        boolean negative = peek() == '-';
+        if (negative)
+            position++;
+
+        long value = 0;
+        int digitsStart = position;
+        while (position < data.length && data[position] >= '0' && data[position] <= '9') {
+            int digit = data[position++] - '0';
+            if (value > (Long.MAX_VALUE - digit) / 10)
+                throw error("слишком большое число");
+            value = value * 10 + digit;
+        }
+        if (position == digitsStart) {
+            position = start;
+            throw error("ожидается целое число");
+        }
+        return negative ? -value : value;
+    }
+
+    Integer nextInt() {
+        Long value = nextLong();
+        if (value == null)
+            return null;
+        if (value != value.intValue())
+            throw error("число вне диапазона int");
+        return value.intValue();
+    }
+
+    void skipValue() {
+        skipWhitespace();
+        switch (peek()) {
+            case '{' -> {
+                beginObject();
+                while (hasNext()) {
+                    nextName();
+                    skipValue();
+                }
+                endObject();
+            }
+            case '[' -> {
+                beginArray();
+                while (hasNext()) {
+                    skipValue();
+                }
+                endArray();
+            }
+            case '"' -> readString();
+            case 't' -> literal("true");
+            case 'f' -> literal("false");
+            case 'n' -> literal("null");
+            default -> skipNumber();
+        }
+    }
+
+    // Значение целиком в исходном виде — чтобы разобрать его позже, когда станет известен его тип
+    byte[] nextRaw() {
+        skipWhitespace();
+        int start = position;
+        skipValue();
+        return Arrays.copyOfRange(data, start, position);
+    }
+
+    // После корневого значения допускаются только пробелы
+    void endDocument() {
+        skipWhitespace();
+        if (position != data.length)
+            throw error("лишние данные после JSON");
+    }
+
+    private void begin(char bracket) {
+        skipWhitespace();
+        expect(bracket);
+        if (depth == MAX_DEPTH)
+            throw error("слишком глубокая вложенность");
+        hasElement[depth++] = false;
+    }
+
+    private void end(char bracket) {
+        skipWhitespace();
+        expect(bracket);
+        depth--;
+    }
+
+    // Строка без escape-последовательностей декодируется одним вызовом, с ними — по частям
+    private String readString() {
+        expect('"');
+        int start = position;
+        while (position < data.length) {
+            byte c = data[position];
+            if (c == '"') {
+                String value = new String(data, start, position - start, StandardCharsets.UTF_8);
+                position++;
+                return value;
+            }
+            if (c == '\\')
+                return readEscapedString(start);
+            position++;
+        }
+        throw error("незакрытая строка");
+    }
+
+    private String readEscapedString(int start) {
+        StringBuilder value = new StringBuilder(new String(data, start, position - start, StandardCharsets.UTF_8));
+        int chunkStart = position;
+        while (position < data.length) {
+            byte c = data[position];
+            if (c == '"') {
+                value.append(new String(data, chunkStart, position - chunkStart, StandardCharsets.UTF_8));
+                position++;
+                return value.toString();
+            }
+            if (c != '\\') {
+                position++;
+                continue;
+            }
+
+            value.append(new String(data, chunkStart, position - chunkStart, StandardCharsets.UTF_8));
+            position++;
+            if (position >= data.length)
+                break;
+            byte escaped = data[position++];
+            switch (escaped) {
+                case '"', '\\', '/' -> value.append((char) escaped);
+                case 'b' -> value.append('\b');
+                case 'f' -> value.append('\f');
+                case 'n' -> value.append('\n');
+                case 'r' -> value.append('\r');
+                case 't' -> value.append('\t');
+                case 'u' -> value.append(readHexChar());
+                default -> throw error("неизвестная escape-последовательность");
+            }
+            chunkStart = position;
+        }
+        throw error("незакрытая строка");
+    }
+
+    private char readHexChar() {
+        if (position + 4 > data.length)
+            throw error("неполная escape-последовательность");
+
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(data[position++], 16);
+            if (digit < 0)
+                throw error("некорректная escape-последовательность");
+            value = value << 4 | digit;
+        }
+        return (char) value;
+    }
+
+    // Число по полной грамматике JSON: -?(0|[1-9]\d*)(\.\d+)?([eE][+-]?\d+)?
+    private void skipNumber() {
+        if (peek() == '-')
+            position++;
+        if (peek() == '0')
+            position++;
+        else if (!skipDigits())
+            throw error("ожидается значение");
+
+        if (peek() == '.') {
+            position++;
+            if (!skipDigits())
+                throw error("ожидаются цифры после точки");
+        }
+        if (peek() == 'e' || peek() == 'E') {
+            position++;
+            if (peek() == '+' || peek() == '-')
+                position++;
+            if (!skipDigits())
+                throw error("ожидаются цифры порядка");
+        }
+    }
+
+    // Пропускает цифры, false — если их не было
+    private boolean skipDigits() {
+        int start = position;
+        while (position < data.length && data[position] >= '0' && data[position] <= '9') {
+            position++;
+        }
+        return position > start;
+    }
+
+    private boolean consumeNull() {
+        if (peek() != 'n')
+            return false;
+        literal("null");
+        return true;
+    }
+
+    private void literal(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (position >= data.length || data[position] != word.charAt(i))
+                throw error("ожидается " + word);
+            position++;
+        }
+    }
+
+    private void expect(char c) {
+        if (peek() != c)
+            throw error("ожидается '" + c + "'");
+        position++;
+    }
+
+    private byte peek() {
+        return position < data.length ? data[position] : 0;
+    }
+
+    private void skipWhitespace() {
+        while (position < data.length) {
+            byte c = data[position];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t')
+                return;
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Некорректный JSON в позиции " + position + ": " + message);
+    }
+}
@@ -0,0 +1,184 @@
+package ru.yandex.kanban.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Потоковая запись JSON в UTF-8 прямо в OutputStream через собственный буфер.
+ * Строки, числа и даты кодируются в буфер посимвольно, без промежуточных String и byte[].
+ * Запятые между элементами расставляет вызывающий код — структура ответа известна заранее.
+ */
+
+final class JsonWriter {
+    private static final int BUFFER_SIZE = 8192;
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    // Самое длинное значение, которое пишется без проверки места: long или дата со временем
+    private static final int MAX_SCALAR = 32;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+
+    JsonWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    // Заранее закодированный фрагмент: имена полей, скобки, разделители
+    JsonWriter raw(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - position) {
+            flushBuffer();
+            if (bytes.length > buffer.length) {
+                out.write(bytes);
+                return this;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+        return this;
+    }
+
+    JsonWriter raw(char c) throws IOException {
+        ensure(1);
+        buffer[position++] = (byte) c;
+        return this;
+    }
+
+    JsonWriter nullValue() throws IOException {
+        return raw(NULL);
+    }
+
+    JsonWriter value(long number) throws IOException {
+        ensure(MAX_SCALAR);
+        if (number < 0) {
+            if (number == Long.MIN_VALUE)
+                return raw(Long.toString(number).getBytes(StandardCharsets.US_ASCII));
+            buffer[position++] = '-';
+            number = -number;
+        }
+
+        int start = position;
+        do {
+            buffer[position++] = (byte) ('0' + number % 10);
+            number /= 10;
+        } while (number != 0);
+        reverse(start, position - 1);
+        return this;
+    }
+
+    JsonWriter value(Integer number) throws IOException {
+        return number == null ? nullValue() : value((long) number);
+    }
+
+    // Дата в формате ISO-8601 с секундами: 2025-01-01T10:00:00
+    JsonWriter value(LocalDateTime time) throws IOException {
+        if (time == null)
+            return nullValue();
+        if (time.getNano() != 0 || time.getYear() < 0 || time.getYear() > 9999)
+            return string(time.toString());
+
+        ensure(MAX_SCALAR);
+        buffer[position++] = '"';
+        digits(time.getYear(), 4);
+        buffer[position++] = '-';
+        digits(time.getMonthValue(), 2);
+        buffer[position++] = '-';
+        digits(time.getDayOfMonth(), 2);
+        buffer[position++] = 'T';
+        digits(time.getHour(), 2);
+        buffer[position++] = ':';
+        digits(time.getMinute(), 2);
+        buffer[position++] = ':';
+        digits(time.getSecond(), 2);
+        buffer[position++] = '"';
+        return this;
+    }
+
+    JsonWriter string(String value) throws IOException {
+        if (value == null)
+            return nullValue();
+
+        raw('"');
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            // До 6 байт на символ: \\uXXXX или суррогатная пара в 4 байта
+            ensure(6);
+            if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x80) {
+                escape(c);
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | c >> 6);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                // Одиночный суррогат не кодируется в UTF-8
+                escape(c);
+            } else {
+                buffer[position++] = (byte) (0xE0 | c >> 12);
+                buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        return raw('"');
+    }
+
+    void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    private void escape(char c) {
+        buffer[position++] = '\\';
+        switch (c) {
+            case '"' -> buffer[position++] = '"';
+            case '\\' -> buffer[position++] = '\\';
+            case '\n' -> buffer[position++] = 'n';
+            case '\r' -> buffer[position++] = 'r';
+            case '\t' -> buffer[position++] = 't';
+            default -> {
+                buffer[position++] = 'u';
+                buffer[position++] = HEX[c >> 12 & 0xF];
+                buffer[position++] = HEX[c >> 8 & 0xF];
+                buffer[position++] = HEX[c >> 4 & 0xF];
+                buffer[position++] = HEX[c & 0xF];
+            }
+        }
+    }
+
+    private void digits(int value, int width) {
+        for (int i = position + width - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += width;
+    }
+
+    private void reverse(int from, int to) {
+        while (from < to) {
+            byte swap = buffer[from];
+            buffer[from++] = buffer[to];
+            buffer[to--] = swap;
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.length - position < bytes)
+            flushBuffer();
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
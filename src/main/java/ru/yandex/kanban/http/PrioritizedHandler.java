@@ -0,0 +1,26 @@
+package ru.yandex.kanban.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import ru.yandex.kanban.service.TaskManager;
+
+import java.io.IOException;
+import java.util.concurrent.locks.ReentrantLock;
+
+// GET /prioritized — задачи и подзадачи по времени начала, версия ответа — общая ревизия менеджера
+class PrioritizedHandler extends BaseHttpHandler {
+    PrioritizedHandler(TaskManager manager, ReentrantLock lock) {
+        super(manager, lock);
+    }
+
+    @Override
+    protected void handleRequest(HttpExchange exchange, String[] path) throws IOException {
+        if (path.length != 1)
+            throw new NotFoundException("Путь не найден: " + exchange.getRequestURI().getPath());
+        if (!exchange.getRequestMethod().equals("GET")) {
+            sendMethodNotAllowed(exchange);
+            return;
+        }
+
+        sendIssues(exchange, TaskManager::getCurrentRevision, TaskManager::getPrioritizedTasks);
+    }
+}
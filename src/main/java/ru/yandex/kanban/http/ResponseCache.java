@@ -0,0 +1,62 @@
+package ru.yandex.kanban.http;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Закодированные ответы по пути запроса вместе с версией данных, из которых они получены.
+ * Ответ годен, пока версия не изменилась. При превышении числа ответов или их общего размера
+ * вытесняются самые давно запрошенные.
+ */
+
+final class ResponseCache {
+    private record Entry(long version, byte[] body) {
+    }
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final int capacity;
+    private final long maxBytes;
+    private long bytes;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    ResponseCache(int capacity, long maxBytes) {
+        if (capacity <= 0 || maxBytes <= 0)
+            throw new IllegalArgumentException("Размеры кеша ответов должны быть положительными: "
+                    + capacity + ", " + maxBytes);
+
+        this.capacity = capacity;
+        this.maxBytes = maxBytes;
+    }
+
+    // Тело ответа для данной версии или null, если его нет или оно устарело
+    byte[] get(String key, long version) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            return entry != null && entry.version() == version ? entry.body() : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Ответ более старой версии, закодированный позже, не заменяет более новый
+    void put(String key, long version, byte[] body) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.version() >= version)
+                return;
+
+            Entry previous = entries.put(key, new Entry(version, body));
+            bytes += body.length - (previous == null ? 0 : previous.body().length);
+            var eldest = entries.values().iterator();
+            while ((entries.size() > capacity || bytes > maxBytes) && eldest.hasNext()) {
+                bytes -= eldest.next().body().length;
+                eldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
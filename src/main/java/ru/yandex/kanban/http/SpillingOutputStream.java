@@ -0,0 +1,71 @@
+package ru.yandex.kanban.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Копит записанное в памяти, пока оно не больше threshold. Если данных оказалось больше,
+ * открывает целевой поток (например, отправляет заголовки ответа), переносит туда накопленное
+ * и дальше пишет напрямую. Так небольшой ответ можно закешировать целиком, а большой
+ * отправляется по мере записи, занимая не больше threshold памяти.
+ */
+
+final class SpillingOutputStream extends OutputStream {
+    @FunctionalInterface
+    interface Target {
+        OutputStream open() throws IOException;
+    }
+
+    private final int threshold;
+    private final Target target;
+    private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private OutputStream out;
+
+    SpillingOutputStream(int threshold, Target target) {
+        this.threshold = threshold;
+        this.target = target;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (out == null && buffer.size() + length <= threshold) {
+            buffer.write(bytes, offset, length);
+            return;
+        }
+        if (out == null) {
+            out = target.open();
+            buffer.writeTo(out);
+            buffer = null;
+        }
+        out.write(bytes, offset, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out != null)
+            out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null)
+            out.close();
+    }
+
+    boolean isSpilled() {
+        return out != null;
+    }
+
+    // Всё записанное, если оно осталось в памяти
+    byte[] toByteArray() {
+        if (out != null)
+            throw new IllegalStateException("Данные уже отправлены в целевой поток");
+        return buffer.toByteArray();
+    }
+}
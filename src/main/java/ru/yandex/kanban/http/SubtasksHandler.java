@@ -0,0 +1,44 @@
+package ru.yandex.kanban.http;
+
+import ru.yandex.kanban.issue.Subtask;
+import ru.yandex.kanban.issue.TaskType;
+import ru.yandex.kanban.service.TaskManager;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+class SubtasksHandler extends IssueHandler<Subtask> {
+    SubtasksHandler(TaskManager manager, ReentrantLock lock) {
+        super(manager, lock, TaskType.SUBTASK);
+    }
+
+    @Override
+    protected List<Subtask> getPage(TaskManager manager, int afterId, int limit) {
+        return manager.getSubtasksPage(afterId, limit);
+    }
+
+    @Override
+    protected Subtask getById(TaskManager manager, int id) {
+        return manager.getSubtaskById(id);
+    }
+
+    @Override
+    protected int create(TaskManager manager, Subtask issue) {
+        return manager.createSubtask(issue);
+    }
+
+    @Override
+    protected void update(TaskManager manager, Subtask issue) {
+        manager.updateSubtask(issue);
+    }
+
+    @Override
+    protected void removeById(TaskManager manager, int id) {
+        manager.removeSubtaskById(id);
+    }
+
+    @Override
+    protected void removeAll(TaskManager manager) {
+        manager.removeAllSubtasks();
+    }
+}
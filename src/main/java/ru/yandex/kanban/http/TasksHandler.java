@@ -0,0 +1,44 @@
+package ru.yandex.kanban.http;
+
+import ru.yandex.kanban.issue.Task;
+import ru.yandex.kanban.issue.TaskType;
+import ru.yandex.kanban.service.TaskManager;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+class TasksHandler extends IssueHandler<Task> {
+    TasksHandler(TaskManager manager, ReentrantLock lock) {
+        super(manager, lock, TaskType.TASK);
+    }
+
+    @Override
+    protected List<Task> getPage(TaskManager manager, int afterId, int limit) {
+        return manager.getTasksPage(afterId, limit);
+    }
+
+    @Override
+    protected Task getById(TaskManager manager, int id) {
+        return manager.getTaskById(id);
+    }
+
+    @Override
+    protected int create(TaskManager manager, Task issue) {
+        return manager.createTask(issue);
+    }
+
+    @Override
+    protected void update(TaskManager manager, Task issue) {
+        manager.updateTask(issue);
+    }
+
+    @Override
+    protected void removeById(TaskManager manager, int id) {
+        manager.removeTaskById(id);
+    }
+
+    @Override
+    protected void removeAll(TaskManager manager) {
+        manager.removeAllTasks();
+    }
+}
@@ -1,11 +1,38 @@
 package ru.yandex.kanban.issue;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.HashSet;
+import java.util.NavigableMap;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Время эпика (начало, окончание, продолжительность) рассчитывается из подзадач.
+ * Чтобы не перебирать все подзадачи при каждом изменении, эпик хранит упорядоченные
+ * мультимножества времён начала и окончания подзадач и сумму их продолжительностей.
+ * Менеджер вызывает addSubtaskTime/removeSubtaskTime при создании, обновлении и удалении
+ * подзадачи, каждое такое изменение стоит O(log n).
+ * <p>
+ * Эпики могут быть вложены друг в друга. Статус и процент готовности эпика считаются по всем
+ * подзадачам его поддерева: эпик хранит счётчики подзадач поддерева по статусам, и изменение
+ * подзадачи обновляет счётчики только у эпиков на пути к корню — O(глубины).
+ * Время эпика учитывает только его собственные подзадачи.
+ */
 
 public class Epic extends Task implements Cloneable {
-    private final Set<Integer> dependentSubtaskIds = new HashSet<>();
+    private Set<Integer> dependentSubtaskIds = new HashSet<>();
+    // Мультимножества: время -> количество подзадач с этим временем
+    private NavigableMap<LocalDateTime, Integer> subtaskStartTimes = new TreeMap<>();
+    private NavigableMap<LocalDateTime, Integer> subtaskEndTimes = new TreeMap<>();
+    private Duration subtasksDuration = Duration.ZERO;
+    private Integer parentEpicId;
+    private Set<Integer> childEpicIds = new HashSet<>();
+    // Подзадачи всего поддерева: всего, завершённых и в работе
+    private int subtreeSubtasks;
+    private int subtreeDone;
+    private int subtreeInProgress;
 
     public Epic(String name, String description) {
         super(name, description, Status.NEW);
@@ -15,6 +42,68 @@ public class Epic extends Task implements Cloneable {
         super(id, name, description, Status.NEW);
     }
 
+    public Epic(Integer id, String name, String description, Integer parentEpicId) {
+        this(id, name, description);
+        this.parentEpicId = parentEpicId;
+    }
+
+    public Integer getParentEpicId() {
+        return parentEpicId;
+    }
+
+    public void setParentEpicId(Integer parentEpicId) {
+        if (parentEpicId != null && Objects.equals(parentEpicId, this.getId()))
+            throw new IllegalArgumentException("setParentEpicId: Epic не может быть вложен сам в себя: "
+                    + parentEpicId);
+
+        this.parentEpicId = parentEpicId;
+    }
+
+    public Set<Integer> getChildEpicIds() {
+        return childEpicIds;
+    }
+
+    // Изменение счётчиков поддерева: вызывается менеджером для эпика и всех его предков
+    public void adjustSubtree(int subtasks, int done, int inProgress) {
+        subtreeSubtasks += subtasks;
+        subtreeDone += done;
+        subtreeInProgress += inProgress;
+    }
+
+    public void clearSubtree() {
+        subtreeSubtasks = 0;
+        subtreeDone = 0;
+        subtreeInProgress = 0;
+    }
+
+    public int getSubtreeSubtasks() {
+        return subtreeSubtasks;
+    }
+
+    public int getSubtreeDone() {
+        return subtreeDone;
+    }
+
+    public int getSubtreeInProgress() {
+        return subtreeInProgress;
+    }
+
+    // Статус по подзадачам поддерева: все завершены — DONE, есть в работе — IN_PROGRESS, иначе NEW
+    public Status calculateStatus() {
+        if (subtreeSubtasks == 0)
+            return Status.NEW;
+        if (subtreeDone == subtreeSubtasks)
+            return Status.DONE;
+        if (subtreeInProgress > 0)
+            return Status.IN_PROGRESS;
+        return Status.NEW;
+    }
+
+    // Процент завершённых подзадач поддерева
+    public int getProgress() {
+        return subtreeSubtasks == 0 ? 0 : subtreeDone * 100 / subtreeSubtasks;
+    }
+
     public Set<Integer> getDependentSubtaskIds() {
         return dependentSubtaskIds;
     }
@@ -37,6 +126,75 @@ public class Epic extends Task implements Cloneable {
 
     }
 
+    public void addSubtaskTime(Subtask subtask) {
+        var duration = subtask.getDuration();
+        if (duration != null)
+            subtasksDuration = subtasksDuration.plus(duration);
+
+        var startTime = subtask.getStartTime();
+        if (startTime == null)
+            return;
+
+        subtaskStartTimes.merge(startTime, 1, Integer::sum);
+        subtaskEndTimes.merge(subtask.getEndTime(), 1, Integer::sum);
+    }
+
+    public void removeSubtaskTime(Subtask subtask) {
+        var duration = subtask.getDuration();
+        if (duration != null)
+            subtasksDuration = subtasksDuration.minus(duration);
+
+        var startTime = subtask.getStartTime();
+        if (startTime == null)
+            return;
+
+        decrement(subtaskStartTimes, startTime);
+        decrement(subtaskEndTimes, subtask.getEndTime());
+    }
+
+    public void clearSubtaskTimes() {
+        subtaskStartTimes.clear();
+        subtaskEndTimes.clear();
+        subtasksDuration = Duration.ZERO;
+    }
+
+    public void copySubtasksFrom(Epic other) {
+        dependentSubtaskIds = new HashSet<>(other.dependentSubtaskIds);
+        subtaskStartTimes = new TreeMap<>(other.subtaskStartTimes);
+        subtaskEndTimes = new TreeMap<>(other.subtaskEndTimes);
+        subtasksDuration = other.subtasksDuration;
+        childEpicIds = new HashSet<>(other.childEpicIds);
+        subtreeSubtasks = other.subtreeSubtasks;
+        subtreeDone = other.subtreeDone;
+        subtreeInProgress = other.subtreeInProgress;
+    }
+
+    private static void decrement(NavigableMap<LocalDateTime, Integer> times, LocalDateTime time) {
+        var count = times.get(time);
+        if (count == null)
+            throw new IllegalArgumentException("removeSubtaskTime: время подзадачи не найдено " + time);
+
+        if (count == 1)
+            times.remove(time);
+        else
+            times.put(time, count - 1);
+    }
+
+    @Override
+    public LocalDateTime getStartTime() {
+        return subtaskStartTimes.isEmpty() ? null : subtaskStartTimes.firstKey();
+    }
+
+    @Override
+    public LocalDateTime getEndTime() {
+        return subtaskEndTimes.isEmpty() ? null : subtaskEndTimes.lastKey();
+    }
+
+    @Override
+    public Duration getDuration() {
+        return subtasksDuration;
+    }
+
     @Override
     public TaskType getType() {
         return TaskType.EPIC;
@@ -49,11 +207,20 @@ public class Epic extends Task implements Cloneable {
                 ", name='" + this.getName() + '\'' +
                 ", description='" + this.getDescription() + '\'' +
                 ", status=" + this.getStatus() +
+                ", startTime=" + this.getStartTime() +
+                ", duration=" + this.getDuration() +
+                ", parentEpicId=" + this.getParentEpicId() +
                 '}';
     }
 
     @Override
     public Epic clone() {
-        return (Epic) super.clone();
+        Epic epic = (Epic) super.clone();
+        // Копируем коллекции, чтобы копия не разделяла состояние с оригиналом
+        epic.dependentSubtaskIds = new HashSet<>(dependentSubtaskIds);
+        epic.subtaskStartTimes = new TreeMap<>(subtaskStartTimes);
+        epic.subtaskEndTimes = new TreeMap<>(subtaskEndTimes);
+        epic.childEpicIds = new HashSet<>(childEpicIds);
+        return epic;
     }
 }
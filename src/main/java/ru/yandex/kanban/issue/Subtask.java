@@ -1,5 +1,8 @@
 package ru.yandex.kanban.issue;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+
 public class Subtask extends Task implements Cloneable {
     private final Integer epicId;
 
@@ -13,6 +16,18 @@ public class Subtask extends Task implements Cloneable {
         this.epicId = epicId;
     }
 
+    public Subtask(Integer epicId, String name, String description, Status status,
+                   LocalDateTime startTime, Duration duration) {
+        super(name, description, status, startTime, duration);
+        this.epicId = epicId;
+    }
+
+    public Subtask(Integer epicId, Integer id, String name, String description, Status status,
+                   LocalDateTime startTime, Duration duration) {
+        super(id, name, description, status, startTime, duration);
+        this.epicId = epicId;
+    }
+
     public Integer getEpicId() {
         return epicId;
     }
@@ -29,6 +44,8 @@ public class Subtask extends Task implements Cloneable {
                 ", name='" + this.getName() + '\'' +
                 ", description='" + this.getDescription() + '\'' +
                 ", status=" + this.getStatus() +
+                ", startTime=" + this.getStartTime() +
+                ", duration=" + this.getDuration() +
                 ", epicId=" + this.getEpicId() +
                 '}';
     }
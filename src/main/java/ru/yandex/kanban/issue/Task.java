@@ -1,5 +1,7 @@
 package ru.yandex.kanban.issue;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Objects;
 
 public class Task implements Cloneable {
@@ -7,6 +9,10 @@ public class Task implements Cloneable {
     private String name;
     private String description;
     private Status status;
+    private LocalDateTime startTime;
+    private Duration duration;
+    // Номер версии для оптимистичной блокировки: увеличивается менеджером при каждом обновлении
+    private int version;
 
     public Task(String name, String description, Status status) {
         this.name = name;
@@ -21,6 +27,19 @@ public class Task implements Cloneable {
         this.status = status;
     }
 
+    public Task(String name, String description, Status status, LocalDateTime startTime, Duration duration) {
+        this(name, description, status);
+        this.startTime = startTime;
+        this.duration = duration;
+    }
+
+    public Task(Integer id, String name, String description, Status status,
+                LocalDateTime startTime, Duration duration) {
+        this(id, name, description, status);
+        this.startTime = startTime;
+        this.duration = duration;
+    }
+
     public Integer getId() {
         return id;
     }
@@ -37,6 +56,26 @@ public class Task implements Cloneable {
         return status;
     }
 
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    // Время завершения: startTime + duration, если оба заданы
+    public LocalDateTime getEndTime() {
+        if (startTime == null)
+            return null;
+
+        return duration == null ? startTime : startTime.plus(duration);
+    }
+
     public void setId(Integer id) {
         this.id = id;
     }
@@ -53,6 +92,18 @@ public class Task implements Cloneable {
         this.status = status;
     }
 
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public void setDuration(Duration duration) {
+        this.duration = duration;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     public TaskType getType() {
         return TaskType.TASK;
     }
@@ -64,6 +115,8 @@ public class Task implements Cloneable {
                 ", name='" + name + '\'' +
                 ", description='" + description + '\'' +
                 ", status=" + status +
+                ", startTime=" + startTime +
+                ", duration=" + duration +
                 '}';
     }
 
@@ -0,0 +1,190 @@
+package ru.yandex.kanban.service;
+
+import ru.yandex.kanban.issue.Task;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * История просмотров с асинхронной записью.
+ * <p>
+ * add и remove только кладут событие в неблокирующую очередь, а фоновый поток применяет
+ * события к истории-делегату в порядке поступления. getHistory перед чтением сам дочитывает
+ * очередь, поэтому поток всегда видит свои предыдущие просмотры и удаления.
+ * <p>
+ * В очередь попадает уже готовая копия задачи (см. addSnapshot), фоновый поток только
+ * связывает её в историю. Поток запускается при первом событии и спит, пока очередь пуста.
+ */
+
+public class AsyncHistoryManager implements HistoryManager, AutoCloseable {
+    // task == null — удаление задачи из истории
+    private record Event(int id, Task task) {
+    }
+
+    private final HistoryManager delegate;
+    private final Queue<Event> queue = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock applyLock = new ReentrantLock();
+    private final AtomicBoolean consumerParked = new AtomicBoolean();
+    private final ReentrantLock startLock = new ReentrantLock();
+    private volatile Thread consumer;
+    private volatile boolean closed;
+
+    public AsyncHistoryManager() {
+        this(new InMemoryHistoryManager());
+    }
+
+    public AsyncHistoryManager(HistoryManager delegate) {
+        if (delegate == null)
+            throw new IllegalArgumentException("HistoryManager не должен быть null.");
+
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void add(Task task) {
+        addSnapshot(task.clone());
+    }
+
+    @Override
+    public void addSnapshot(Task snapshot) {
+        if (snapshot.getId() == null)
+            throw new IllegalArgumentException("Task id не должен быть null.");
+
+        publish(new Event(snapshot.getId(), snapshot));
+    }
+
+    @Override
+    public void remove(int id) {
+        publish(new Event(id, null));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        applyLock.lock();
+        try {
+            drain();
+            return delegate.getHistory();
+        } finally {
+            applyLock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        applyLock.lock();
+        try {
+            drain();
+            return delegate.size();
+        } finally {
+            applyLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getLastHistory(int count) {
+        applyLock.lock();
+        try {
+            drain();
+            return delegate.getLastHistory(count);
+        } finally {
+            applyLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistoryPage(int offset, int limit) {
+        applyLock.lock();
+        try {
+            drain();
+            return delegate.getHistoryPage(offset, limit);
+        } finally {
+            applyLock.unlock();
+        }
+    }
+
+    // Останавливает фоновый поток, оставшиеся события применяются
+    @Override
+    public void close() {
+        Thread running;
+        startLock.lock();
+        try {
+            closed = true;
+            running = consumer;
+        } finally {
+            startLock.unlock();
+        }
+        if (running != null) {
+            LockSupport.unpark(running);
+            try {
+                running.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        applyLock.lock();
+        try {
+            drain();
+        } finally {
+            applyLock.unlock();
+        }
+    }
+
+    private void publish(Event event) {
+        if (closed)
+            throw new IllegalStateException("История просмотров закрыта.");
+
+        queue.offer(event);
+        Thread running = consumer;
+        if (running == null)
+            startConsumer();
+        else if (consumerParked.get())
+            LockSupport.unpark(running);
+    }
+
+    private void startConsumer() {
+        startLock.lock();
+        try {
+            if (consumer == null && !closed)
+                consumer = Thread.ofVirtual().name("history-consumer").start(this::consume);
+        } finally {
+            startLock.unlock();
+        }
+    }
+
+    private void consume() {
+        while (!closed) {
+            if (queue.isEmpty()) {
+                consumerParked.set(true);
+                // Повторная проверка: событие могло прийти до установки флага.
+                // Иначе поток спит до unpark из publish или close
+                if (queue.isEmpty() && !closed)
+                    LockSupport.park(this);
+                consumerParked.set(false);
+                continue;
+            }
+
+            applyLock.lock();
+            try {
+                drain();
+            } finally {
+                applyLock.unlock();
+            }
+        }
+    }
+
+    // Вызывается под applyLock. Копии из очереди связываются в историю без повторного копирования
+    private void drain() {
+        Event event;
+        while ((event = queue.poll()) != null) {
+            if (event.task() == null)
+                delegate.remove(event.id());
+            else
+                delegate.addSnapshot(event.task());
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package ru.yandex.kanban.service;
+
+import ru.yandex.kanban.issue.Epic;
+import ru.yandex.kanban.issue.Subtask;
+import ru.yandex.kanban.issue.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Асинхронный фасад TaskManager: методы сразу возвращают CompletableFuture, а операции
+ * выполняются на исполнителе (по умолчанию — виртуальные потоки).
+ * <p>
+ * Операции попадают в общую очередь и применяются к менеджеру по одной задаче исполнителя
+ * за раз в порядке поступления, поэтому изменения одной задачи не обгоняют друг друга, а
+ * чтение видит все записи, отправленные до него. Подряд идущие записи выполняются одним
+ * runBatch: пока сохраняется одна пачка, следующие записи копятся и потом сохраняются
+ * вместе. Future записи завершается после сохранения; ошибка одной записи не отменяет
+ * остальные в пачке.
+ * <p>
+ * Зависимые действия future выполняются на исполнителе, а не в потоке записи.
+ */
+
+public class AsyncTaskManager implements AutoCloseable {
+    // Сколько записей не больше попадает в одно сохранение
+    private static final int MAX_BATCH_SIZE = 1_024;
+
+    // write — изменяющая операция, которая идёт в runBatch
+    private record Operation<T>(Function<TaskManager, T> action, boolean write, CompletableFuture<T> future) {
+    }
+
+    private final TaskManager manager;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final ReentrantLock lock;
+    private final Queue<Operation<?>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean closed;
+
+    public AsyncTaskManager(TaskManager manager) {
+        this(manager, Executors.newVirtualThreadPerTaskExecutor(), true, new ReentrantLock());
+    }
+
+    // Исполнитель остаётся за вызывающим кодом: close его не останавливает.
+    // Общая блокировка нужна, если тот же менеджер используют и другие потоки, например HttpTaskServer
+    public AsyncTaskManager(TaskManager manager, ExecutorService executor, ReentrantLock lock) {
+        this(manager, executor, false, lock);
+    }
+
+    private AsyncTaskManager(TaskManager manager, ExecutorService executor, boolean ownsExecutor, ReentrantLock lock) {
+        if (manager == null || executor == null || lock == null)
+            throw new IllegalArgumentException("TaskManager, исполнитель и блокировка не должны быть null.");
+
+        this.manager = manager;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.lock = lock;
+    }
+
+    public CompletableFuture<Integer> createTask(Task task) {
+        return write(manager -> manager.createTask(task));
+    }
+
+    public CompletableFuture<Integer> createEpic(Epic epic) {
+        return write(manager -> manager.createEpic(epic));
+    }
+
+    public CompletableFuture<Integer> createSubtask(Subtask subtask) {
+        return write(manager -> manager.createSubtask(subtask));
+    }
+
+    public CompletableFuture<Void> updateTask(Task task) {
+        return update(manager -> manager.updateTask(task));
+    }
+
+    public CompletableFuture<Void> updateEpic(Epic epic) {
+        return update(manager -> manager.updateEpic(epic));
+    }
+
+    public CompletableFuture<Void> updateSubtask(Subtask subtask) {
+        return update(manager -> manager.updateSubtask(subtask));
+    }
+
+    public CompletableFuture<Void> removeTaskById(int taskId) {
+        return update(manager -> manager.removeTaskById(taskId));
+    }
+
+    public CompletableFuture<Void> removeEpicById(int epicId) {
+        return update(manager -> manager.removeEpicById(epicId));
+    }
+
+    public CompletableFuture<Void> removeSubtaskById(int subtaskId) {
+        return update(manager -> manager.removeSubtaskById(subtaskId));
+    }
+
+    public CompletableFuture<Task> getTaskById(int taskId) {
+        return read(manager -> manager.getTaskById(taskId));
+    }
+
+    public CompletableFuture<Epic> getEpicById(int epicId) {
+        return read(manager -> manager.getEpicById(epicId));
+    }
+
+    public CompletableFuture<Subtask> getSubtaskById(int subtaskId) {
+        return read(manager -> manager.getSubtaskById(subtaskId));
+    }
+
+    public CompletableFuture<List<Task>> getAllTasks() {
+        return read(TaskManager::getAllTasks);
+    }
+
+    public CompletableFuture<List<Epic>> getAllEpics() {
+        return read(TaskManager::getAllEpics);
+    }
+
+    public CompletableFuture<List<Subtask>> getAllSubtasks() {
+        return read(TaskManager::getAllSubtasks);
+    }
+
+    public CompletableFuture<List<Subtask>> getAllSubtasksByEpicId(int epicId) {
+        return read(manager -> manager.getAllSubtasksByEpicId(epicId));
+    }
+
+    public CompletableFuture<List<Task>> getHistory() {
+        return read(TaskManager::getHistory);
+    }
+
+    public CompletableFuture<List<Task>> getPrioritizedTasks() {
+        return read(TaskManager::getPrioritizedTasks);
+    }
+
+    // Любой другой метод менеджера, который ничего не сохраняет
+    public <T> CompletableFuture<T> read(Function<TaskManager, T> action) {
+        return submit(action, false);
+    }
+
+    // Любая изменяющая операция: выполняется в пачке с соседними записями и одним сохранением
+    public <T> CompletableFuture<T> write(Function<TaskManager, T> action) {
+        return submit(action, true);
+    }
+
+    // Изменяющая операция без результата
+    public CompletableFuture<Void> update(Consumer<TaskManager> action) {
+        if (action == null)
+            throw new IllegalArgumentException("Операция не должна быть null.");
+
+        return submit(manager -> {
+            action.accept(manager);
+            return null;
+        }, true);
+    }
+
+    // Новые операции отклоняются, уже принятые выполняются. Свой исполнитель дожидается их и останавливается
+    @Override
+    public void close() {
+        closed = true;
+        if (ownsExecutor)
+            executor.close();
+    }
+
+    private <T> CompletableFuture<T> submit(Function<TaskManager, T> action, boolean write) {
+        if (action == null)
+            throw new IllegalArgumentException("Операция не должна быть null.");
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new IllegalStateException("AsyncTaskManager закрыт"));
+            return future;
+        }
+        queue.add(new Operation<>(action, write, future));
+        scheduleDrain();
+        return future;
+    }
+
+    // Очередь разбирает не больше одной задачи исполнителя одновременно
+    private void scheduleDrain() {
+        if (queue.isEmpty() || !draining.compareAndSet(false, true))
+            return;
+
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            draining.set(false);
+            Operation<?> operation;
+            while ((operation = queue.poll()) != null) {
+                operation.future().completeExceptionally(e);
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            List<Operation<?>> writes = new ArrayList<>();
+            Operation<?> operation;
+            while ((operation = queue.poll()) != null) {
+                if (operation.write()) {
+                    writes.add(operation);
+                    if (writes.size() == MAX_BATCH_SIZE) {
+                        runWrites(writes);
+                        writes = new ArrayList<>();
+                    }
+                    continue;
+                }
+
+                // Чтение не должно обогнать записи, поступившие раньше него
+                if (!writes.isEmpty()) {
+                    runWrites(writes);
+                    writes = new ArrayList<>();
+                }
+                runRead(operation);
+            }
+            if (!writes.isEmpty())
+                runWrites(writes);
+        } finally {
+            draining.set(false);
+        }
+        // Операция могла попасть в очередь после последнего poll, но до сброса флага
+        scheduleDrain();
+    }
+
+    private void runWrites(List<Operation<?>> writes) {
+        Object[] results = new Object[writes.size()];
+        List<Consumer<TaskManager>> actions = new ArrayList<>(writes.size());
+        for (int i = 0; i < writes.size(); i++) {
+            int position = i;
+            Function<TaskManager, ?> action = writes.get(i).action();
+            actions.add(manager -> results[position] = action.apply(manager));
+        }
+
+        List<RuntimeException> errors;
+        lock.lock();
+        try {
+            errors = manager.runBatch(actions);
+        } catch (RuntimeException saveException) {
+            // Пачка не сохранилась: ошибку сохранения получают все её записи
+            complete(writes, i -> saveException, results);
+            return;
+        } finally {
+            lock.unlock();
+        }
+        complete(writes, errors::get, results);
+    }
+
+    private <T> void runRead(Operation<T> operation) {
+        T result;
+        lock.lock();
+        try {
+            result = operation.action().apply(manager);
+        } catch (RuntimeException e) {
+            completeAsync(() -> operation.future().completeExceptionally(e));
+            return;
+        } finally {
+            lock.unlock();
+        }
+        completeAsync(() -> operation.future().complete(result));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void complete(List<Operation<?>> writes, IntFunction<RuntimeException> errors,
+                          Object[] results) {
+        RuntimeException[] failures = new RuntimeException[writes.size()];
+        for (int i = 0; i < failures.length; i++) {
+            failures[i] = errors.apply(i);
+        }
+        completeAsync(() -> {
+            for (int i = 0; i < failures.length; i++) {
+                CompletableFuture<Object> future = (CompletableFuture<Object>) writes.get(i).future();
+                if (failures[i] != null)
+                    future.completeExceptionally(failures[i]);
+                else
+                    future.complete(results[i]);
+            }
+        });
+    }
+
+    // Одна задача исполнителя на пачку, чтобы зависимые действия не задерживали следующую запись
+    private void completeAsync(Runnable completion) {
+        try {
+            executor.execute(completion);
+        } catch (RejectedExecutionException e) {
+            completion.run();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package ru.yandex.kanban.service;
+
+import ru.yandex.kanban.issue.Task;
+import ru.yandex.kanban.issue.TaskType;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Многоверсионное хранение состояния доски. Каждое изменение задачи получает номер ревизии,
+ * а для каждого id хранится цепочка состояний по ревизиям (null — задача удалена).
+ * Запрос "на момент ревизии R" находит в каждой цепочке последнее состояние с ревизией не больше R.
+ * <p>
+ * Память ограничена окном retention последних ревизий: более старые состояния удаляются, кроме
+ * последнего перед границей окна, которое остаётся базой для запросов внутри окна.
+ * Получить снимок для чтения — значит просто запомнить номер текущей ревизии.
+ */
+
+class BoardVersions {
+    private record Version(long revision, Task state) {
+    }
+
+    private final Map<TaskType, Map<Integer, List<Version>>> chains = new EnumMap<>(TaskType.class);
+    // Время изменения -> последняя ревизия, сделанная к этому моменту
+    private final NavigableMap<Instant, Long> revisionsByTime = new TreeMap<>();
+    private final Clock clock;
+    private int retention;
+    private long currentRevision;
+
+    BoardVersions(Clock clock, int retention) {
+        this.clock = clock;
+        setRetention(retention);
+        for (TaskType type : TaskType.values()) {
+            chains.put(type, new HashMap<>());
+        }
+    }
+
+    void setRetention(int retention) {
+        if (retention < 1)
+            throw new IllegalArgumentException("Глубина хранения версий должна быть положительной: " + retention);
+
+        this.retention = retention;
+        pruneAll();
+    }
+
+    long getCurrentRevision() {
+        return currentRevision;
+    }
+
+    // Самая старая ревизия, для которой ещё можно выполнить запрос
+    long getOldestRevision() {
+        return Math.max(0, currentRevision - retention);
+    }
+
+    void record(int id, TaskType type, Task state) {
+        currentRevision++;
+        revisionsByTime.put(clock.instant(), currentRevision);
+
+        var chain = chains.get(type).computeIfAbsent(id, key -> new ArrayList<>());
+        chain.add(new Version(currentRevision, state));
+        prune(chain);
+
+        // Полная очистка цепочек раз в retention ревизий: амортизированно O(1) на изменение
+        if (currentRevision % retention == 0)
+            pruneAll();
+    }
+
+    long getRevisionAt(Instant time) {
+        var entry = revisionsByTime.floorEntry(time);
+        long revision = entry == null ? 0 : entry.getValue();
+        checkRevision(revision);
+        return revision;
+    }
+
+    Task get(int id, long revision) {
+        checkRevision(revision);
+        for (var byId : chains.values()) {
+            var chain = byId.get(id);
+            if (chain != null) {
+                var state = stateAt(chain, revision);
+                return state == null ? null : state.clone();
+            }
+        }
+        return null;
+    }
+
+    List<Task> getAll(TaskType type, long revision) {
+        checkRevision(revision);
+        List<Task> result = new ArrayList<>();
+        for (var chain : chains.get(type).values()) {
+            var state = stateAt(chain, revision);
+            if (state != null)
+                result.add(state.clone());
+        }
+        return result;
+    }
+
+    private void checkRevision(long revision) {
+        if (revision < getOldestRevision() || revision > currentRevision)
+            throw new IllegalArgumentException("Ревизия " + revision + " вне хранимого диапазона ["
+                    + getOldestRevision() + ", " + currentRevision + "]");
+    }
+
+    // Двоичный поиск последнего состояния с ревизией <= revision
+    private static Task stateAt(List<Version> chain, long revision) {
+        int low = 0;
+        int high = chain.size() - 1;
+        Task found = null;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            var version = chain.get(middle);
+            if (version.revision() <= revision) {
+                found = version.state();
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return found;
+    }
+
+    private void prune(List<Version> chain) {
+        long horizon = getOldestRevision();
+        int base = 0;
+        while (base + 1 < chain.size() && chain.get(base + 1).revision() <= horizon) {
+            base++;
+        }
+        if (base > 0)
+            chain.subList(0, base).clear();
+    }
+
+    private void pruneAll() {
+        long horizon = getOldestRevision();
+        for (var byId : chains.values()) {
+            Iterator<List<Version>> iterator = byId.values().iterator();
+            while (iterator.hasNext()) {
+                var chain = iterator.next();
+                prune(chain);
+                // Задача удалена до границы окна — её цепочка больше не нужна
+                if (chain.size() == 1 && chain.getFirst().state() == null
+                        && chain.getFirst().revision() <= horizon)
+                    iterator.remove();
+            }
+        }
+
+        // Последняя отметка перед границей остаётся, чтобы время внутри окна находило свою ревизию
+        while (revisionsByTime.size() > 1 && revisionsByTime.higherEntry(revisionsByTime.firstKey()).getValue() <= horizon) {
+            revisionsByTime.pollFirstEntry();
+        }
+    }
+}
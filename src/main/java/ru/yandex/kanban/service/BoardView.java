@@ -0,0 +1,144 @@
+package ru.yandex.kanban.service;
+
+import ru.yandex.kanban.issue.Status;
+import ru.yandex.kanban.issue.Subtask;
+import ru.yandex.kanban.issue.Task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Материализованное представление канбан-доски. Для каждого статуса хранится упорядоченный
+ * набор id задач и подзадач (в порядке попадания в колонку) — общий и отдельно по каждому эпику.
+ * Менеджер обновляет доску при каждом изменении, поэтому отрисовка колонки стоит
+ * O(количество показанных карточек), а размер колонки — O(1).
+ * <p>
+ * Там же ведётся список задач и подзадач с заданным временем начала, упорядоченный по нему.
+ */
+
+class BoardView {
+    private final Map<Status, LinkedHashSet<Integer>> columns = newColumns();
+    private final Map<Integer, Map<Status, LinkedHashSet<Integer>>> epicColumns = new HashMap<>();
+    private final TreeSet<TimeSlot> prioritized = new TreeSet<>(Comparator.comparing(TimeSlot::startTime)
+            .thenComparingInt(TimeSlot::id));
+
+    private record TimeSlot(LocalDateTime startTime, int id) {
+    }
+
+    private static Map<Status, LinkedHashSet<Integer>> newColumns() {
+        Map<Status, LinkedHashSet<Integer>> result = new EnumMap<>(Status.class);
+        for (Status status : Status.values()) {
+            result.put(status, new LinkedHashSet<>());
+        }
+        return result;
+    }
+
+    void add(Task issue) {
+        if (issue.getStartTime() != null)
+            prioritized.add(new TimeSlot(issue.getStartTime(), issue.getId()));
+        columns.get(issue.getStatus()).add(issue.getId());
+        if (issue instanceof Subtask subtask) {
+            epicColumns.computeIfAbsent(subtask.getEpicId(), epicId -> newColumns())
+                    .get(subtask.getStatus())
+                    .add(subtask.getId());
+        }
+    }
+
+    void remove(Task issue) {
+        if (issue.getStartTime() != null)
+            prioritized.remove(new TimeSlot(issue.getStartTime(), issue.getId()));
+        columns.get(issue.getStatus()).remove(issue.getId());
+        if (issue instanceof Subtask subtask) {
+            var byEpic = epicColumns.get(subtask.getEpicId());
+            if (byEpic != null)
+                byEpic.get(subtask.getStatus()).remove(subtask.getId());
+        }
+    }
+
+    // Перемещение карточки: при неизменном статусе и эпике позиция в колонке сохраняется
+    void move(Task previous, Task current) {
+        if (previous.getStatus() == current.getStatus() && sameEpic(previous, current)) {
+            if (!Objects.equals(previous.getStartTime(), current.getStartTime())) {
+                if (previous.getStartTime() != null)
+                    prioritized.remove(new TimeSlot(previous.getStartTime(), previous.getId()));
+                if (current.getStartTime() != null)
+                    prioritized.add(new TimeSlot(current.getStartTime(), current.getId()));
+            }
+            return;
+        }
+
+        remove(previous);
+        add(current);
+    }
+
+    void removeEpic(int epicId) {
+        epicColumns.remove(epicId);
+    }
+
+    void clear() {
+        prioritized.clear();
+        columns.values().forEach(LinkedHashSet::clear);
+        epicColumns.clear();
+    }
+
+    List<Integer> getColumn(Status status, int limit) {
+        return firstIds(columns.get(status), limit);
+    }
+
+    // Id задач и подзадач по возрастанию времени начала, задачи без времени не входят
+    List<Integer> getPrioritized() {
+        List<Integer> ids = new ArrayList<>(prioritized.size());
+        prioritized.forEach(slot -> ids.add(slot.id()));
+        return ids;
+    }
+
+    Map<Status, Integer> getCounts() {
+        return counts(columns);
+    }
+
+    List<Integer> getEpicColumn(int epicId, Status status, int limit) {
+        var byEpic = epicColumns.get(epicId);
+        if (byEpic == null)
+            return new ArrayList<>();
+
+        return firstIds(byEpic.get(status), limit);
+    }
+
+    Map<Status, Integer> getEpicCounts(int epicId) {
+        return counts(epicColumns.getOrDefault(epicId, newColumns()));
+    }
+
+    private static boolean sameEpic(Task previous, Task current) {
+        if (previous instanceof Subtask previousSubtask && current instanceof Subtask currentSubtask)
+            return previousSubtask.getEpicId().equals(currentSubtask.getEpicId());
+
+        return true;
+    }
+
+    private static List<Integer> firstIds(LinkedHashSet<Integer> column, int limit) {
+        if (limit < 0)
+            throw new IllegalArgumentException("Ошибка getBoardColumn: limit не может быть отрицательным " + limit);
+
+        List<Integer> ids = new ArrayList<>(Math.min(limit, column.size()));
+        for (Integer id : column) {
+            if (ids.size() == limit)
+                break;
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private static Map<Status, Integer> counts(Map<Status, LinkedHashSet<Integer>> source) {
+        Map<Status, Integer> result = new EnumMap<>(Status.class);
+        source.forEach((status, ids) -> result.put(status, ids.size()));
+        return result;
+    }
+}
@@ -0,0 +1,109 @@
+package ru.yandex.kanban.service;
+
+import ru.yandex.kanban.issue.Task;
+import ru.yandex.kanban.issue.TaskType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Лента изменений доски для клиентов, которые хотят получать изменения, а не перечитывать списки.
+ * <p>
+ * События нумеруются подряд с 1 и хранятся в кольцевом буфере последних capacity событий.
+ * У каждого клиента только свой курсор — id последнего полученного события, поэтому медленный
+ * клиент не задерживает менеджер и других клиентов, а просто отстаёт. Если он отстал больше
+ * чем на capacity событий (или прислал id, которого не было), чтение возвращает missed:
+ * клиент перечитывает доску целиком и продолжает с lastEventId.
+ */
+
+public class ChangeFeed {
+    public enum Kind {
+        CREATED, UPDATED, DELETED
+    }
+
+    // issue — состояние после изменения (null при удалении), его нельзя изменять
+    public record Event(long id, Kind kind, TaskType type, int issueId, Task issue) {
+    }
+
+    // События после запрошенного id; lastEventId — с какого id продолжать чтение
+    public record Batch(List<Event> events, long lastEventId, boolean missed) {
+    }
+
+    private final Event[] ring;
+    private long lastEventId;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+
+    public ChangeFeed(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Размер ленты изменений должен быть положительным: " + capacity);
+
+        this.ring = new Event[capacity];
+    }
+
+    void publish(Kind kind, TaskType type, int issueId, Task issue) {
+        lock.lock();
+        try {
+            lastEventId++;
+            ring[(int) (lastEventId % ring.length)] = new Event(lastEventId, kind, type, issueId, issue);
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getLastEventId() {
+        lock.lock();
+        try {
+            return lastEventId;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Не больше limit событий с id больше afterId, без ожидания
+    public Batch read(long afterId, int limit) {
+        if (limit <= 0)
+            throw new IllegalArgumentException("Размер пачки событий должен быть положительным: " + limit);
+
+        lock.lock();
+        try {
+            return readLocked(afterId, limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Как read, но если новых событий нет, ждёт их не дольше timeout (пустая пачка — время вышло)
+    public Batch await(long afterId, int limit, Duration timeout) throws InterruptedException {
+        if (limit <= 0)
+            throw new IllegalArgumentException("Размер пачки событий должен быть положительным: " + limit);
+
+        long nanos = timeout.toNanos();
+        lock.lock();
+        try {
+            while (afterId == lastEventId && nanos > 0) {
+                nanos = published.awaitNanos(nanos);
+            }
+            return readLocked(afterId, limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Batch readLocked(long afterId, int limit) {
+        long oldestId = Math.max(1, lastEventId - ring.length + 1);
+        if (afterId < oldestId - 1 || afterId > lastEventId)
+            return new Batch(List.of(), lastEventId, true);
+
+        long toId = Math.min(lastEventId, afterId + limit);
+        List<Event> events = new ArrayList<>((int) (toId - afterId));
+        for (long id = afterId + 1; id <= toId; id++) {
+            events.add(ring[(int) (id % ring.length)]);
+        }
+        return new Batch(events, toId, false);
+    }
+}
@@ -0,0 +1,213 @@
+package ru.yandex.kanban.service;
+
+import ru.yandex.kanban.issue.Task;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Потокобезопасная история просмотров для большого числа читающих потоков.
+ * <p>
+ * Просмотры не меняют упорядоченную историю напрямую: поток кладёт запись в свой буфер
+ * (буфер выбирается по потоку, чтобы потоки не конкурировали за одну очередь) и сразу
+ * возвращается. Буферы сливаются в историю-делегат под блокировкой, которую просмотры
+ * берут только через tryLock — при занятой блокировке слив выполнит другой поток.
+ * Записи упорядочиваются по общему счётчику, поэтому порядок истории совпадает с порядком
+ * просмотров. Номер выдаётся под блокировкой буфера вместе с записью в него, поэтому слив
+ * применяет только просмотры с номерами до прочитанного им значения счётчика: все они уже
+ * в буферах. Более поздние просмотры ждут следующего слива и не обгоняют тех, кто получил
+ * номер раньше, но ещё не записался. Удаление и чтение истории сначала сливают все буферы.
+ */
+
+public class ConcurrentHistoryManager implements HistoryManager {
+    private static final int DEFAULT_DRAIN_THRESHOLD = 64;
+
+    private record View(long sequence, Task task) {
+    }
+
+    // Буфер просмотров и блокировка, под которой выдаётся номер и выполняется запись в буфер
+    private record Stripe(ReentrantLock lock, Queue<View> views) {
+    }
+
+    private final HistoryManager delegate;
+    private final List<Stripe> stripes;
+    private final int drainThreshold;
+    private final AtomicLong sequence = new AtomicLong();
+    // Вызывается между получением номера и записью в буфер; тесты останавливают в нём поток
+    private final Runnable onNumbered;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final ReentrantLock drainLock = new ReentrantLock();
+    // Просмотры, вынутые из буферов, но более поздние, чем прочитанный сливом номер
+    private final List<View> heldBack = new ArrayList<>();
+    // Номер удаления по id: более ранние просмотры, слитые после удаления, отбрасываются
+    private final Map<Integer, Long> removedAt = new HashMap<>();
+
+    public ConcurrentHistoryManager() {
+        this(new InMemoryHistoryManager(), Runtime.getRuntime().availableProcessors(), DEFAULT_DRAIN_THRESHOLD);
+    }
+
+    public ConcurrentHistoryManager(HistoryManager delegate) {
+        this(delegate, Runtime.getRuntime().availableProcessors(), DEFAULT_DRAIN_THRESHOLD);
+    }
+
+    public ConcurrentHistoryManager(HistoryManager delegate, int stripeCount, int drainThreshold) {
+        this(delegate, stripeCount, drainThreshold, () -> {
+        });
+    }
+
+    ConcurrentHistoryManager(HistoryManager delegate, int stripeCount, int drainThreshold, Runnable onNumbered) {
+        if (delegate == null)
+            throw new IllegalArgumentException("HistoryManager не должен быть null.");
+        if (stripeCount <= 0)
+            throw new IllegalArgumentException("Число буферов должно быть положительным: " + stripeCount);
+        if (drainThreshold <= 0)
+            throw new IllegalArgumentException("Порог слива должен быть положительным: " + drainThreshold);
+
+        this.delegate = delegate;
+        this.drainThreshold = drainThreshold;
+        this.onNumbered = onNumbered;
+        // Степень двойки, чтобы буфер выбирался маской
+        int size = Integer.highestOneBit(stripeCount - 1) << 1;
+        size = Math.max(size, 1);
+        this.stripes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            stripes.add(new Stripe(new ReentrantLock(), new ArrayDeque<>()));
+        }
+    }
+
+    @Override
+    public void add(Task task) {
+        addSnapshot(task.clone());
+    }
+
+    @Override
+    public void addSnapshot(Task copy) {
+        if (copy.getId() == null)
+            throw new IllegalArgumentException("Task id не должен быть null.");
+
+        Stripe stripe = stripeOf(Thread.currentThread());
+        stripe.lock().lock();
+        try {
+            long number = sequence.incrementAndGet();
+            onNumbered.run();
+            stripe.views().offer(new View(number, copy));
+        } finally {
+            stripe.lock().unlock();
+        }
+
+        if (pending.incrementAndGet() >= drainThreshold && drainLock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                drainLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        drainLock.lock();
+        try {
+            drain();
+            removedAt.put(id, sequence.incrementAndGet());
+            delegate.remove(id);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        drainLock.lock();
+        try {
+            drain();
+            return delegate.getHistory();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        drainLock.lock();
+        try {
+            drain();
+            return delegate.size();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getLastHistory(int count) {
+        drainLock.lock();
+        try {
+            drain();
+            return delegate.getLastHistory(count);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistoryPage(int offset, int limit) {
+        drainLock.lock();
+        try {
+            drain();
+            return delegate.getHistoryPage(offset, limit);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private Stripe stripeOf(Thread thread) {
+        long hash = thread.threadId() * 0x9E3779B97F4A7C15L;
+        return stripes.get((int) (hash >>> 32) & (stripes.size() - 1));
+    }
+
+    // Вызывается под drainLock
+    private void drain() {
+        // Номер до limit выдан под блокировкой буфера, поэтому после её взятия его просмотр уже в буфере
+        long limit = sequence.get();
+
+        List<View> views = new ArrayList<>(heldBack);
+        heldBack.clear();
+        int polled = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock().lock();
+            try {
+                View view;
+                while ((view = stripe.views().poll()) != null) {
+                    views.add(view);
+                    polled++;
+                }
+            } finally {
+                stripe.lock().unlock();
+            }
+        }
+        pending.addAndGet(-polled);
+
+        views.sort(Comparator.comparingLong(View::sequence));
+        for (View view : views) {
+            if (view.sequence() > limit) {
+                heldBack.add(view);
+                continue;
+            }
+
+            Long removed = removedAt.get(view.task().getId());
+            if (removed == null || view.sequence() > removed)
+                delegate.addSnapshot(view.task());
+        }
+
+        // Все просмотры до limit применены, более ранние удаления больше не нужны
+        removedAt.values().removeIf(removed -> removed <= limit);
+    }
+}
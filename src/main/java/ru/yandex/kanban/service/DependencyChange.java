@@ -0,0 +1,9 @@
+package ru.yandex.kanban.service;
+
+/**
+ * Изменение графа зависимостей: ребро "blocker блокирует dependent" добавлено (added)
+ * или удалено. Удаление задачи записывает удаление всех её рёбер перед удалением самой задачи.
+ */
+
+record DependencyChange(int blockerId, int dependentId, boolean added) implements OperationChange {
+}
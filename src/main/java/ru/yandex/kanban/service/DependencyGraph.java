@@ -0,0 +1,245 @@
+package ru.yandex.kanban.service;
+
+import ru.yandex.kanban.issue.Status;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Граф зависимостей "blocker блокирует dependent" между задачами и подзадачами.
+ * <p>
+ * Циклы обнаруживаются инкрементально по алгоритму Пирса — Келли: граф хранит топологический
+ * порядок вершин, и при добавлении ребра, нарушающего порядок, обходится и переупорядочивается
+ * только участок графа между концами ребра, а не весь граф.
+ * <p>
+ * Для каждой вершины хранится число незавершённых блокеров. Множество готовых к работе задач
+ * (статус NEW и нет незавершённых блокеров) обновляется при изменении статуса только у прямых
+ * зависимых задач.
+ */
+
+class DependencyGraph {
+    private static class Node {
+        private final int id;
+        private final Set<Integer> blockers = new HashSet<>();
+        private final Set<Integer> dependents = new HashSet<>();
+        private Status status;
+        private int order;
+        private int unresolvedBlockers;
+
+        Node(int id, Status status, int order) {
+            this.id = id;
+            this.status = status;
+            this.order = order;
+        }
+    }
+
+    private final Map<Integer, Node> nodes = new HashMap<>();
+    // Топологический порядок: позиция -> id вершины
+    private final TreeMap<Integer, Integer> topologicalOrder = new TreeMap<>();
+    private final Set<Integer> ready = new LinkedHashSet<>();
+    private int nextOrder;
+
+    void addNode(int id, Status status) {
+        if (nodes.containsKey(id)) {
+            updateStatus(id, status);
+            return;
+        }
+
+        var node = new Node(id, status, nextOrder++);
+        nodes.put(id, node);
+        topologicalOrder.put(node.order, id);
+        refreshReady(node);
+    }
+
+    void removeNode(int id) {
+        var node = nodes.get(id);
+        if (node == null)
+            return;
+
+        for (Integer blockerId : new ArrayList<>(node.blockers)) {
+            removeEdge(blockerId, id);
+        }
+        for (Integer dependentId : new ArrayList<>(node.dependents)) {
+            removeEdge(id, dependentId);
+        }
+
+        nodes.remove(id);
+        topologicalOrder.remove(node.order);
+        ready.remove(id);
+    }
+
+    void updateStatus(int id, Status status) {
+        var node = nodes.get(id);
+        if (node == null || node.status == status)
+            return;
+
+        boolean wasDone = node.status == Status.DONE;
+        node.status = status;
+        boolean isDone = status == Status.DONE;
+
+        if (wasDone != isDone) {
+            int delta = isDone ? -1 : 1;
+            for (Integer dependentId : node.dependents) {
+                var dependent = nodes.get(dependentId);
+                dependent.unresolvedBlockers += delta;
+                refreshReady(dependent);
+            }
+        }
+        refreshReady(node);
+    }
+
+    // Возвращает false, если ребро уже было
+    boolean addEdge(int blockerId, int dependentId) {
+        if (blockerId == dependentId)
+            throw new IllegalArgumentException("Задача не может блокировать саму себя: " + blockerId);
+
+        var blocker = requireNode(blockerId);
+        var dependent = requireNode(dependentId);
+        if (blocker.dependents.contains(dependentId))
+            return false;
+
+        if (blocker.order > dependent.order)
+            reorder(blocker, dependent);
+
+        blocker.dependents.add(dependentId);
+        dependent.blockers.add(blockerId);
+        if (blocker.status != Status.DONE) {
+            dependent.unresolvedBlockers++;
+            refreshReady(dependent);
+        }
+        return true;
+    }
+
+    // Возвращает false, если ребра не было
+    boolean removeEdge(int blockerId, int dependentId) {
+        var blocker = nodes.get(blockerId);
+        var dependent = nodes.get(dependentId);
+        if (blocker == null || dependent == null || !blocker.dependents.remove(dependentId))
+            return false;
+
+        dependent.blockers.remove(blockerId);
+        if (blocker.status != Status.DONE) {
+            dependent.unresolvedBlockers--;
+            refreshReady(dependent);
+        }
+        return true;
+    }
+
+    Set<Integer> getBlockers(int id) {
+        var node = nodes.get(id);
+        return node == null ? Set.of() : Collections.unmodifiableSet(node.blockers);
+    }
+
+    Set<Integer> getDependents(int id) {
+        var node = nodes.get(id);
+        return node == null ? Set.of() : Collections.unmodifiableSet(node.dependents);
+    }
+
+    List<Integer> getReady() {
+        return new ArrayList<>(ready);
+    }
+
+    List<Integer> getTopologicalOrder() {
+        return new ArrayList<>(topologicalOrder.values());
+    }
+
+    // Все рёбра: для сохранения графа
+    List<int[]> getEdges() {
+        List<int[]> edges = new ArrayList<>();
+        for (Node node : nodes.values()) {
+            for (Integer dependentId : node.dependents) {
+                edges.add(new int[]{node.id, dependentId});
+            }
+        }
+        return edges;
+    }
+
+    private Node requireNode(int id) {
+        var node = nodes.get(id);
+        if (node == null)
+            throw new IllegalArgumentException("Зависимости возможны только между задачами и подзадачами: " + id);
+        return node;
+    }
+
+    private void refreshReady(Node node) {
+        if (node.status == Status.NEW && node.unresolvedBlockers == 0)
+            ready.add(node.id);
+        else
+            ready.remove(node.id);
+    }
+
+    /**
+     * Ребро blocker -> dependent нарушает текущий порядок (blocker стоит позже).
+     * Прямой обход от dependent ограничен позициями до blocker включительно: если он доходит
+     * до blocker — это цикл. Иначе обратный обход от blocker ограничен позициями от dependent,
+     * и обе найденные группы занимают освободившиеся позиции: сначала предки blocker, затем
+     * потомки dependent.
+     */
+    private void reorder(Node blocker, Node dependent) {
+        int lowerBound = dependent.order;
+        int upperBound = blocker.order;
+
+        List<Node> forward = collect(dependent, upperBound, true);
+        if (forward.contains(blocker))
+            throw new IllegalArgumentException("Зависимость " + blocker.id + " -> " + dependent.id
+                    + " образует цикл");
+
+        List<Node> backward = collect(blocker, lowerBound, false);
+
+        Comparator<Node> byOrder = Comparator.comparingInt(node -> node.order);
+        forward.sort(byOrder);
+        backward.sort(byOrder);
+
+        List<Integer> positions = new ArrayList<>(forward.size() + backward.size());
+        for (Node node : backward) {
+            positions.add(node.order);
+            topologicalOrder.remove(node.order);
+        }
+        for (Node node : forward) {
+            positions.add(node.order);
+            topologicalOrder.remove(node.order);
+        }
+        Collections.sort(positions);
+
+        int index = 0;
+        for (Node node : backward) {
+            node.order = positions.get(index++);
+            topologicalOrder.put(node.order, node.id);
+        }
+        for (Node node : forward) {
+            node.order = positions.get(index++);
+            topologicalOrder.put(node.order, node.id);
+        }
+    }
+
+    // Обход без рекурсии, чтобы длинные цепочки зависимостей не переполняли стек
+    private List<Node> collect(Node start, int bound, boolean forward) {
+        List<Node> visited = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(start);
+        seen.add(start.id);
+
+        while (!stack.isEmpty()) {
+            var node = stack.pop();
+            visited.add(node);
+            for (Integer nextId : forward ? node.dependents : node.blockers) {
+                var next = nodes.get(nextId);
+                boolean inBounds = forward ? next.order <= bound : next.order >= bound;
+                if (inBounds && seen.add(nextId))
+                    stack.push(next);
+            }
+        }
+        return visited;
+    }
+}
@@ -2,21 +2,47 @@ package ru.yandex.kanban.service;
 
 import ru.yandex.kanban.exception.ManagerSaveException;
 import ru.yandex.kanban.issue.*;
+import ru.yandex.kanban.utility.Managers;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCloseable {
+    private static final String HEADER = "id,type,name,status,description,epic,startTime,duration,version";
+    // Раздел зависимостей идёт после задач
+    private static final String DEPENDENCIES_HEADER = "blocker,dependent";
+
     private final File file;
+    // Журнал просмотров хранится рядом с файлом задач
+    private final PersistentHistoryManager historyLog;
+    // Выполняется пакет операций: файл записывается один раз после него
+    private boolean inBatch;
 
     public FileBackedTaskManager(File file) {
-        super();
+        this(file, historyLogOf(file));
+        historyLog.reset();
+    }
+
+    private FileBackedTaskManager(File file, PersistentHistoryManager historyLog) {
+        super(historyLog);
         this.file = file;
+        this.historyLog = historyLog;
+    }
+
+    private static PersistentHistoryManager historyLogOf(File file) {
+        if (file == null)
+            throw new IllegalArgumentException("Файл не может быть null");
+        return new PersistentHistoryManager(Managers.getDefaultHistory(),
+                file.toPath().resolveSibling(file.getName() + ".history"));
     }
 
     public static FileBackedTaskManager loadFromFile(File file) {
@@ -32,13 +58,14 @@ public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCl
             throw new ManagerSaveException("Файл " + file.getAbsolutePath() + "недоступен для чтения.");
         }
 
-        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, historyLogOf(file));
 
         try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
             // Пропускаем заголовок
             reader.readLine();
 
-            List<Subtask> subtasksToLink = new ArrayList<>();
+            List<int[]> edges = new ArrayList<>();
+            boolean readingDependencies = false;
             String line;
             while ((line = reader.readLine()) != null) {
                 line = line.trim();
@@ -47,28 +74,31 @@ public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCl
                     continue;
                 }
 
+                if (line.equals(DEPENDENCIES_HEADER)) {
+                    readingDependencies = true;
+                    continue;
+                }
+                if (readingDependencies) {
+                    String[] parts = line.split(",");
+                    edges.add(new int[]{Integer.parseInt(parts[0]), Integer.parseInt(parts[1])});
+                    continue;
+                }
+
                 Task task = manager.fromString(line);
                 switch (task.getType()) {
                     case EPIC -> manager.epics.put(task.getId(), (Epic) task);
-                    case SUBTASK -> {
-                        Subtask subtask = (Subtask) task;
-                        manager.subtasks.put(task.getId(), subtask);
-                        subtasksToLink.add(subtask);
-                    }
+                    case SUBTASK -> manager.subtasks.put(task.getId(), (Subtask) task);
                     case TASK -> manager.tasks.put(task.getId(), task);
                     default -> throw new IllegalArgumentException("Неизвестный тип задачи: " + task.getType());
                 }
             }
 
-            for (Subtask subtask : subtasksToLink) {
-                Epic epic = manager.epics.get(subtask.getEpicId());
-                if (epic != null) {
-                    epic.addSubtaskId(subtask.getId());
-                }
-            }
-            for (Epic epic : manager.epics.values()) {
-                manager.refreshEpicStatusById(epic.getId());
+            // Связи эпиков с подзадачами, время эпиков и доска восстанавливаются по загруженным задачам
+            manager.rebuildIndexes();
+            for (int[] edge : edges) {
+                manager.putDependency(edge[0], edge[1]);
             }
+            manager.historyLog.restore(manager::findStored);
         } catch (IOException managerReadException) {
             throw new ManagerSaveException("Ошибка чтения из файлового менеджера: "
                     + managerReadException.getMessage());
@@ -157,22 +187,111 @@ public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCl
         save();
     }
 
+    @Override
+    public int updateSubtasksStatusByEpicId(int epicId, Predicate<Subtask> filter, Status status) {
+        int updated = super.updateSubtasksStatusByEpicId(epicId, filter, status);
+        if (updated > 0)
+            save();
+        return updated;
+    }
+
+    @Override
+    public int removeAllByStatus(Status status) {
+        int removed = super.removeAllByStatus(status);
+        if (removed > 0)
+            save();
+        return removed;
+    }
+
+    // Все изменения транзакции сохраняются одной записью файла
+    @Override
+    public void runInTransaction(Consumer<TaskManager> operations) {
+        boolean outer = !isInTransaction();
+        super.runInTransaction(operations);
+        if (outer)
+            save();
+    }
+
+    @Override
+    public List<RuntimeException> runBatch(List<Consumer<TaskManager>> operations) {
+        if (inBatch || isInTransaction())
+            return super.runBatch(operations);
+
+        inBatch = true;
+        List<RuntimeException> errors;
+        try {
+            errors = super.runBatch(operations);
+        } finally {
+            inBatch = false;
+        }
+        if (errors.stream().anyMatch(error -> error == null))
+            save();
+        return errors;
+    }
+
+    @Override
+    public void setEpicParent(int epicId, Integer parentEpicId) {
+        super.setEpicParent(epicId, parentEpicId);
+        save();
+    }
+
+    @Override
+    public void addDependency(int blockerId, int dependentId) {
+        super.addDependency(blockerId, dependentId);
+        save();
+    }
+
+    @Override
+    public void removeDependency(int blockerId, int dependentId) {
+        super.removeDependency(blockerId, dependentId);
+        save();
+    }
+
+    @Override
+    public boolean undo() {
+        boolean undone = super.undo();
+        if (undone)
+            save();
+        return undone;
+    }
+
+    @Override
+    public boolean redo() {
+        boolean redone = super.redo();
+        if (redone)
+            save();
+        return redone;
+    }
+
     protected void save() {
+        // Внутри транзакции и пакета файл записывается один раз при их завершении
+        if (isInTransaction() || inBatch)
+            return;
+
         List<String> lines = new ArrayList<>();
-        lines.add("id,type,name,status,description,epic");
+        lines.add(HEADER);
         try {
-            for (Task task : getAllTasks()) {
+            for (Task task : tasks.values()) {
                 lines.add(toString(task));
             }
 
-            for (Epic epic : getAllEpics()) {
+            for (Epic epic : epics.values()) {
                 lines.add(toString(epic));
             }
 
-            for (Subtask subtask : getAllSubtasks()) {
+            for (Subtask subtask : subtasks.values()) {
                 lines.add(toString(subtask));
             }
 
+            var edges = getDependencyEdges();
+            if (!edges.isEmpty()) {
+                lines.add("");
+                lines.add(DEPENDENCIES_HEADER);
+                for (int[] edge : edges) {
+                    lines.add(edge[0] + "," + edge[1]);
+                }
+            }
+
             Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
         } catch (IOException managerSaveException) {
             throw new ManagerSaveException("Ошибка сохранения в файл: " + managerSaveException.getMessage());
@@ -181,9 +300,20 @@ public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCl
 
     private String toString(Task task) {
         TaskType type = task.getType();
+        // Для подзадачи — её эпик, для вложенного эпика — родительский эпик
         String epicId = "";
         if (type == TaskType.SUBTASK) {
             epicId = String.valueOf(((Subtask) task).getEpicId());
+        } else if (type == TaskType.EPIC && ((Epic) task).getParentEpicId() != null) {
+            epicId = String.valueOf(((Epic) task).getParentEpicId());
+        }
+
+        // Время эпика вычисляется из подзадач, поэтому не сохраняется
+        String startTime = "";
+        String duration = "";
+        if (type != TaskType.EPIC) {
+            startTime = task.getStartTime() == null ? "" : task.getStartTime().toString();
+            duration = task.getDuration() == null ? "" : task.getDuration().toString();
         }
 
         return String.join(",",
@@ -192,7 +322,10 @@ public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCl
                 task.getName(),
                 task.getStatus().name(),
                 task.getDescription(),
-                epicId
+                epicId,
+                startTime,
+                duration,
+                String.valueOf(task.getVersion())
         );
     }
 
@@ -208,24 +341,39 @@ public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCl
         Status status = Status.valueOf(parts[3]);
         String description = parts[4];
         String epicIdStr = parts[5];
-
-        switch (type) {
-            case TASK:
-                return new Task(id, name, description, status);
-            case EPIC:
-                Epic epic = new Epic(id, name, description);
+        // Старый формат файла не содержит колонок времени и версии
+        LocalDateTime startTime = parts.length > 6 && !parts[6].isEmpty() ? LocalDateTime.parse(parts[6]) : null;
+        Duration duration = parts.length > 7 && !parts[7].isEmpty() ? Duration.parse(parts[7]) : null;
+        int version = parts.length > 8 && !parts[8].isEmpty() ? Integer.parseInt(parts[8]) : 0;
+
+        Task task = switch (type) {
+            case TASK -> new Task(id, name, description, status, startTime, duration);
+            case EPIC -> {
+                Integer parentEpicId = epicIdStr.isEmpty() ? null : Integer.parseInt(epicIdStr);
+                Epic epic = new Epic(id, name, description, parentEpicId);
                 epic.setStatus(status);
-                return epic;
-            case SUBTASK:
+                yield epic;
+            }
+            case SUBTASK -> {
                 int epicId = Integer.parseInt(epicIdStr);
-                return new Subtask(epicId, id, name, description, status);
-            default:
-                throw new IllegalArgumentException("Неизвестный тип задачи: " + type);
-        }
+                yield new Subtask(epicId, id, name, description, status, startTime, duration);
+            }
+        };
+        task.setVersion(version);
+        return task;
+    }
+
+    private Task findStored(int id) {
+        if (tasks.containsKey(id))
+            return tasks.get(id);
+        if (subtasks.containsKey(id))
+            return subtasks.get(id);
+        return epics.get(id);
     }
 
     @Override
     public void close() {
         save();
+        historyLog.close();
     }
 }
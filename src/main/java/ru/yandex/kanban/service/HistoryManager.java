@@ -2,6 +2,8 @@ package ru.yandex.kanban.service;
 
 import ru.yandex.kanban.issue.Task;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -13,7 +15,51 @@ import java.util.List;
 public interface HistoryManager {
     void add(Task task);
 
+    // Просмотр копии, которую вызывающий код больше не изменяет: реализация может хранить её
+    // без ещё одного копирования
+    default void addSnapshot(Task snapshot) {
+        add(snapshot);
+    }
+
     void remove(int id);
 
     List<Task> getHistory();
+
+    // Окна истории. Реализации по умолчанию копируют всю историю, InMemoryHistoryManager
+    // обходит только запрошенную часть списка
+
+    default int size() {
+        return getHistory().size();
+    }
+
+    // Последние count просмотров, от давних к последним
+    default List<Task> getLastHistory(int count) {
+        checkWindow(0, count);
+        var history = getHistory();
+        return new ArrayList<>(history.subList(Math.max(0, history.size() - count), history.size()));
+    }
+
+    // Часть истории getHistory() с позиции offset длиной не больше limit
+    default List<Task> getHistoryPage(int offset, int limit) {
+        checkWindow(offset, limit);
+        var history = getHistory();
+        int from = Math.min(offset, history.size());
+        return new ArrayList<>(history.subList(from, Math.min(history.size(), from + limit)));
+    }
+
+    // От давних просмотров к последним
+    default Iterator<Task> historyIterator() {
+        return getHistory().iterator();
+    }
+
+    // От последних просмотров к давним
+    default Iterator<Task> descendingHistoryIterator() {
+        return getHistory().reversed().iterator();
+    }
+
+    static void checkWindow(int offset, int limit) {
+        if (offset < 0 || limit < 0)
+            throw new IllegalArgumentException("Смещение и размер окна истории не могут быть отрицательными: "
+                    + offset + ", " + limit);
+    }
 }
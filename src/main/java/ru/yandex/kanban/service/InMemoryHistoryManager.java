@@ -1,61 +1,285 @@
 package ru.yandex.kanban.service;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import ru.yandex.kanban.issue.Epic;
+import ru.yandex.kanban.issue.Subtask;
 import ru.yandex.kanban.issue.Task;
 
 /**
  * Объявите класс InMemoryHistoryManager и перенесите в него часть кода для работы с
  * историей из класса InMemoryTaskManager. Новый класс InMemoryHistoryManager должен
  * реализовывать интерфейс HistoryManager.
+ * <p>
+ * По умолчанию история не ограничена. В ограниченном режиме хранится не больше capacity
+ * задач: при переполнении вытесняется давно не просматривавшаяся (LRU), а при заданном
+ * времени жизни — ещё и просмотренные раньше, чем ttl назад. Узлы списка выделяются заранее
+ * и переиспользуются, поэтому память истории не растёт со временем работы.
  */
 
 public class InMemoryHistoryManager implements HistoryManager {
+    // Грубые оценки размеров объектов для отчёта о памяти (64-битная JVM со сжатыми ссылками)
+    private static final int NODE_BYTES = 32;
+    private static final int MAP_ENTRY_BYTES = 48;
+    private static final int TASK_BYTES = 64;
+    private static final int STRING_BYTES = 40;
+
     private static class Node {
         protected Task task;
         protected Node prev;
         protected Node next;
+        protected long viewedAt;
+
+        Node() {
+        }
 
         Node(Task task) {
             this.task = task;
         }
     }
 
-    private final Map<Integer, Node> nodeMap = new HashMap<>();
+    /**
+     * Отчёт о занимаемой историей памяти. capacity равен -1 для неограниченной истории.
+     */
+    public record MemoryUsage(int entries, int capacity, int pooledNodes, long estimatedBytes) {
+    }
+
+    private final Map<Integer, Node> nodeMap;
     private Node head;
     private Node tail;
+    // Счётчик изменений списка для итераторов
+    private int modCount;
+
+    private final int capacity;
+    private final long ttlMillis;
+    private final Clock clock;
+    // Свободные узлы ограниченной истории, связанные через next
+    private Node freeNodes;
+    private int freeCount;
+
+    public InMemoryHistoryManager() {
+        this.nodeMap = new HashMap<>();
+        this.capacity = -1;
+        this.ttlMillis = 0;
+        this.clock = null;
+    }
+
+    public InMemoryHistoryManager(int capacity) {
+        this(capacity, null, Clock.systemUTC());
+    }
+
+    /**
+     * @param ttl время жизни записи после последнего просмотра, null — без ограничения по времени
+     */
+    public InMemoryHistoryManager(int capacity, Duration ttl, Clock clock) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Размер истории должен быть положительным: " + capacity);
+        if (ttl != null && (ttl.isNegative() || ttl.isZero()))
+            throw new IllegalArgumentException("Время жизни записи истории должно быть положительным: " + ttl);
+        if (clock == null)
+            throw new IllegalArgumentException("Clock не должен быть null.");
+
+        this.capacity = capacity;
+        this.ttlMillis = ttl == null ? 0 : ttl.toMillis();
+        this.clock = clock;
+        // Таблица сразу рассчитана на полную историю и не перестраивается при росте
+        this.nodeMap = HashMap.newHashMap(capacity);
+        for (int i = 0; i < capacity; i++) {
+            Node node = new Node();
+            node.next = freeNodes;
+            freeNodes = node;
+        }
+        this.freeCount = capacity;
+    }
 
     @Override
     public void add(Task task) {
+        addSnapshot(task.clone());
+    }
+
+    @Override
+    public void addSnapshot(Task task) {
         Integer id = task.getId();
         if (id == null)
             throw new IllegalArgumentException("Task id не должен быть null.");
 
+        long now = isBounded() ? clock.millis() : 0;
+        expire(now);
+
         // Если задача уже есть в истории, удаляем её
         if (nodeMap.containsKey(id)) {
             removeNode(nodeMap.get(id));
+        } else if (isBounded() && nodeMap.size() == capacity) {
+            // Вытесняем задачу, которую дольше всех не просматривали
+            removeNode(head);
         }
 
         // Добавляем задачу в конец списка
-        linkLast(task.clone());
+        linkLast(task, now);
     }
 
     @Override
     public void remove(int id) {
-        Node node = nodeMap.remove(id);
+        Node node = nodeMap.get(id);
         if (node != null)
             removeNode(node);
     }
 
     @Override
     public List<Task> getHistory() {
+        expire();
         return getTasks();
     }
 
-    private void linkLast(Task task) {
-        Node newNode = new Node(task);
+    @Override
+    public int size() {
+        expire();
+        return nodeMap.size();
+    }
+
+    @Override
+    public List<Task> getLastHistory(int count) {
+        HistoryManager.checkWindow(0, count);
+        expire();
+
+        int length = Math.min(count, nodeMap.size());
+        Task[] window = new Task[length];
+        Node current = tail;
+        for (int i = length - 1; i >= 0; i--) {
+            window[i] = current.task;
+            current = current.prev;
+        }
+        return new ArrayList<>(Arrays.asList(window));
+    }
+
+    // Окно обходится с ближайшего конца списка, поэтому свежие страницы читаются быстро
+    @Override
+    public List<Task> getHistoryPage(int offset, int limit) {
+        HistoryManager.checkWindow(offset, limit);
+        expire();
+
+        int size = nodeMap.size();
+        if (offset >= size || limit == 0)
+            return new ArrayList<>();
+
+        int end = (int) Math.min(size, (long) offset + limit);
+        Task[] window = new Task[end - offset];
+        if (offset <= size - end) {
+            Node current = head;
+            for (int i = 0; i < offset; i++) {
+                current = current.next;
+            }
+            for (int i = 0; i < window.length; i++) {
+                window[i] = current.task;
+                current = current.next;
+            }
+        } else {
+            Node current = tail;
+            for (int i = size; i > end; i--) {
+                current = current.prev;
+            }
+            for (int i = window.length - 1; i >= 0; i--) {
+                window[i] = current.task;
+                current = current.prev;
+            }
+        }
+        return new ArrayList<>(Arrays.asList(window));
+    }
+
+    @Override
+    public Iterator<Task> historyIterator() {
+        expire();
+        return new HistoryIterator(head, false);
+    }
+
+    @Override
+    public Iterator<Task> descendingHistoryIterator() {
+        expire();
+        return new HistoryIterator(tail, true);
+    }
+
+    // Ленивый обход списка; изменение истории во время обхода — ConcurrentModificationException
+    private class HistoryIterator implements Iterator<Task> {
+        private Node next;
+        private final boolean descending;
+        private final int expectedModCount = modCount;
+
+        HistoryIterator(Node first, boolean descending) {
+            this.next = first;
+            this.descending = descending;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Task next() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (next == null)
+                throw new NoSuchElementException();
+
+            Task task = next.task;
+            next = descending ? next.prev : next.next;
+            return task;
+        }
+    }
+
+    public boolean isBounded() {
+        return capacity > 0;
+    }
+
+    public MemoryUsage getMemoryUsage() {
+        long bytes = 0;
+        for (Node current = head; current != null; current = current.next) {
+            bytes += NODE_BYTES + MAP_ENTRY_BYTES + estimateTaskBytes(current.task);
+        }
+        bytes += (long) freeCount * NODE_BYTES;
+
+        return new MemoryUsage(nodeMap.size(), capacity, freeCount, bytes);
+    }
+
+    private static long estimateTaskBytes(Task task) {
+        long bytes = TASK_BYTES + stringBytes(task.getName()) + stringBytes(task.getDescription());
+        if (task instanceof Epic epic)
+            bytes += (long) (epic.getDependentSubtaskIds().size() + epic.getChildEpicIds().size()) * MAP_ENTRY_BYTES;
+        else if (task instanceof Subtask)
+            bytes += Integer.BYTES;
+        return bytes;
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : STRING_BYTES + 2L * value.length();
+    }
+
+    private void expire() {
+        if (ttlMillis != 0)
+            expire(clock.millis());
+    }
+
+    // Записи упорядочены по времени просмотра, поэтому устаревшие всегда в начале списка
+    private void expire(long now) {
+        if (ttlMillis == 0)
+            return;
+
+        while (head != null && now - head.viewedAt >= ttlMillis) {
+            removeNode(head);
+        }
+    }
+
+    private void linkLast(Task task, long viewedAt) {
+        Node newNode = allocate(task);
+        newNode.viewedAt = viewedAt;
 
         if (tail == null) {
             head = tail = newNode;
@@ -66,6 +290,7 @@ public class InMemoryHistoryManager implements HistoryManager {
         }
 
         nodeMap.put(task.getId(), newNode);
+        modCount++;
     }
 
     private void removeNode(Node node) {
@@ -80,6 +305,31 @@ public class InMemoryHistoryManager implements HistoryManager {
             tail = node.prev;
 
         nodeMap.remove(node.task.getId());
+        modCount++;
+        release(node);
+    }
+
+    private Node allocate(Task task) {
+        if (!isBounded())
+            return new Node(task);
+
+        Node node = freeNodes;
+        freeNodes = node.next;
+        freeCount--;
+        node.task = task;
+        node.next = null;
+        return node;
+    }
+
+    private void release(Node node) {
+        if (!isBounded())
+            return;
+
+        node.task = null;
+        node.prev = null;
+        node.next = freeNodes;
+        freeNodes = node;
+        freeCount++;
     }
 
     // Собирает все задачи из связного списка в ArrayList
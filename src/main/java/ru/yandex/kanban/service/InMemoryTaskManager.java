@@ -1,13 +1,21 @@
 package ru.yandex.kanban.service;
 
+import ru.yandex.kanban.exception.TaskVersionConflictException;
 import ru.yandex.kanban.issue.Epic;
 import ru.yandex.kanban.issue.Status;
 import ru.yandex.kanban.issue.Subtask;
 import ru.yandex.kanban.issue.Task;
+import ru.yandex.kanban.issue.TaskType;
 import ru.yandex.kanban.utility.Managers;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -22,41 +30,212 @@ import java.util.stream.Collectors;
  */
 
 public class InMemoryTaskManager implements TaskManager {
+    private static final int DEFAULT_VERSION_RETENTION = 10_000;
+    private static final int DEFAULT_UNDO_OPERATIONS = 100;
+    private static final int DEFAULT_UNDO_CHANGES = 10_000;
+    private static final int REVISION_CHECKPOINT_INTERVAL = 16;
+    private static final int DEFAULT_SESSION_HISTORY_ENTRIES = 1_000_000;
+    private static final int DEFAULT_SESSION_HISTORY_SIZE = 100;
+    private static final Duration DEFAULT_SESSION_IDLE_TTL = Duration.ofHours(12);
+    // Статистика просмотров: 64 задачи, 12 корзин по 5 минут — окна до часа
+    private static final int VIEW_STATS_CAPACITY = 64;
+    private static final int VIEW_STATS_WIDTH = 1024;
+    private static final Duration VIEW_STATS_BUCKET = Duration.ofMinutes(5);
+    private static final int VIEW_STATS_BUCKETS = 12;
+    private static final int DEFAULT_FEED_CAPACITY = 10_000;
+
+    // Задача, изменённая текущей операцией: её вид и существовала ли она до операции
+    private record PendingChange(TaskType type, boolean existed) {
+    }
+
+    // Запись в историю версий доски и ревизий задачи. own == false — только пересчитанный статус эпика
+    private record VersionChange(int id, TaskType type, Task before, Task after, boolean own) {
+    }
+
     private final AtomicInteger uniqueId = new AtomicInteger();
-    protected final Map<Integer, Epic> epics = new HashMap<>();
-    protected final Map<Integer, Task> tasks = new HashMap<>();
-    protected final Map<Integer, Subtask> subtasks = new HashMap<>();
+    // Хранилища упорядочены по id: списки можно отдавать страницами от последнего полученного id
+    protected final NavigableMap<Integer, Epic> epics = new TreeMap<>();
+    protected final NavigableMap<Integer, Task> tasks = new TreeMap<>();
+    protected final NavigableMap<Integer, Subtask> subtasks = new TreeMap<>();
+
+    private final HistoryManager historyManager;
+    private final SessionHistories sessionHistories;
+    private final ViewFrequencySketch viewStats = new ViewFrequencySketch(VIEW_STATS_CAPACITY, VIEW_STATS_WIDTH,
+            VIEW_STATS_BUCKET, VIEW_STATS_BUCKETS, Clock.systemUTC());
+    private final BoardView board = new BoardView();
+    private final BoardVersions versions = new BoardVersions(Clock.systemUTC(), DEFAULT_VERSION_RETENTION);
+    private final RevisionHistory revisions = new RevisionHistory(REVISION_CHECKPOINT_INTERVAL);
+    private final DependencyGraph dependencies = new DependencyGraph();
+    private final UndoLog undoLog = new UndoLog(DEFAULT_UNDO_OPERATIONS, DEFAULT_UNDO_CHANGES);
+    // Ревизия последнего изменения каждого вида задач и каждого эпика вместе с его поддеревом
+    private final long[] typeRevisions = new long[TaskType.values().length];
+    private final Map<Integer, Long> epicRevisions = new HashMap<>();
+    private final ChangeFeed changeFeed = new ChangeFeed(DEFAULT_FEED_CAPACITY);
+    // Изменения, которые попадут в ленту после успешного завершения операции
+    private final Map<Integer, PendingChange> pendingChanges = new LinkedHashMap<>();
+    // Изменения выполняемой операции (или транзакции), null — операция не выполняется
+    private List<OperationChange> operationLog;
+    // Записи истории версий и ревизий выполняемой операции: попадают в историю только после её успешного завершения
+    private List<VersionChange> operationVersions;
+    // Что вернуть в объектах вызывающего кода при откате выполняемой операции
+    private List<Runnable> callerRollbacks;
 
-    private final HistoryManager historyManager = Managers.getDefaultHistory();
+    public InMemoryTaskManager() {
+        this(Managers.getDefaultHistory());
+    }
+
+    public InMemoryTaskManager(HistoryManager historyManager) {
+        this(historyManager, new SessionHistories(DEFAULT_SESSION_HISTORY_ENTRIES, DEFAULT_SESSION_HISTORY_SIZE,
+                DEFAULT_SESSION_IDLE_TTL, Clock.systemUTC()));
+    }
+
+    public InMemoryTaskManager(HistoryManager historyManager, SessionHistories sessionHistories) {
+        if (historyManager == null || sessionHistories == null)
+            throw new IllegalArgumentException("Менеджеры истории не должны быть null.");
+        this.historyManager = historyManager;
+        this.sessionHistories = sessionHistories;
+    }
 
     protected void refreshEpicStatusById(int epicId) {
         Epic epic = epics.get(epicId);
         if (epic == null)
             throw new RuntimeException("Ошибка refreshEpicStatusById: Epic не найден " + epicId);
 
-        var subtaskIds = epic.getDependentSubtaskIds();
-        if (subtaskIds == null || subtaskIds.isEmpty()) {
-            epic.setStatus(Status.NEW);
+        var status = epic.calculateStatus();
+        if (status == epic.getStatus())
             return;
+
+        // Смена статуса эпика — тоже изменение доски, оно попадает в историю версий.
+        // Для отката и отмены она не нужна: статус пересчитывается по подзадачам
+        epic.setStatus(status);
+        recordVersion(new VersionChange(epicId, TaskType.EPIC, null, epicHeader(epic), false));
+    }
+
+    // Пересчитывает статусы эпика и всех его предков: O(глубины)
+    private void refreshEpicPath(Integer epicId) {
+        var current = epicId;
+        while (current != null && epics.containsKey(current)) {
+            refreshEpicStatusById(current);
+            current = epics.get(current).getParentEpicId();
         }
+    }
 
-        var allDone = subtaskIds.stream()
-                .map(subtasks::get)
-                .allMatch(subtask -> subtask != null && subtask.getStatus() == Status.DONE);
-        if (allDone) {
-            epic.setStatus(Status.DONE);
+    // Меняет счётчики подзадач поддерева у эпика и всех его предков, статусы не пересчитываются
+    private void adjustEpicCounters(Integer epicId, int subtaskCount, int done, int inProgress) {
+        var current = epicId;
+        while (current != null) {
+            var epic = epics.get(current);
+            if (epic == null)
+                break;
+
+            epic.adjustSubtree(subtaskCount, done, inProgress);
+            current = epic.getParentEpicId();
+        }
+    }
+
+    private void adjustEpicCounters(Subtask subtask, int sign) {
+        adjustEpicCounters(subtask.getEpicId(), sign,
+                subtask.getStatus() == Status.DONE ? sign : 0,
+                subtask.getStatus() == Status.IN_PROGRESS ? sign : 0);
+    }
+
+    // Переносит эпик вместе с поддеревом под другого родителя (null — на верхний уровень)
+    private void reparentEpic(Epic epic, Integer parentEpicId) {
+        var previousParentId = epic.getParentEpicId();
+        if (Objects.equals(previousParentId, parentEpicId))
             return;
+
+        int subtaskCount = epic.getSubtreeSubtasks();
+        int done = epic.getSubtreeDone();
+        int inProgress = epic.getSubtreeInProgress();
+
+        if (previousParentId != null && epics.containsKey(previousParentId)) {
+            epics.get(previousParentId).getChildEpicIds().remove(epic.getId());
+            adjustEpicCounters(previousParentId, -subtaskCount, -done, -inProgress);
+            refreshEpicPath(previousParentId);
         }
 
-        var anyInProgress = subtaskIds.stream()
-                .map(subtasks::get)
-                .anyMatch(subtask -> subtask != null && subtask.getStatus() == Status.IN_PROGRESS);
-        if (anyInProgress) {
-            epic.setStatus(Status.IN_PROGRESS);
+        epic.setParentEpicId(parentEpicId);
+        if (parentEpicId != null) {
+            epics.get(parentEpicId).getChildEpicIds().add(epic.getId());
+            adjustEpicCounters(parentEpicId, subtaskCount, done, inProgress);
+            refreshEpicPath(parentEpicId);
+        }
+    }
+
+    private void checkEpicParent(int epicId, Integer parentEpicId, String operation) {
+        if (parentEpicId == null)
             return;
+        if (!epics.containsKey(parentEpicId))
+            throw new IllegalArgumentException("Ошибка " + operation + ": родительский Epic не найден " + parentEpicId);
+
+        // Родитель не может находиться внутри поддерева самого эпика
+        Integer current = parentEpicId;
+        while (current != null) {
+            if (current == epicId)
+                throw new IllegalArgumentException("Ошибка " + operation + ": вложение эпика " + epicId
+                        + " в " + parentEpicId + " образует цикл");
+            current = epics.get(current).getParentEpicId();
         }
+    }
+
+    /**
+     * Оптимистичная блокировка: обновление принимается, только если передана текущая версия задачи.
+     * Иначе задачу уже изменил кто-то другой, и обновление отклоняется без записи.
+     * Новая версия записывается и в хранимую копию, и в переданный объект, чтобы его можно было
+     * обновлять повторно; при откате операции переданный объект получает прежнюю версию.
+     */
+    private void checkAndIncrementVersion(Task update, Task stored, Task previous) {
+        if (previous == null)
+            return;
+
+        if (update.getVersion() != previous.getVersion())
+            throw new TaskVersionConflictException(previous.getId(), update.getVersion(), previous.getVersion());
+
+        stored.setVersion(previous.getVersion() + 1);
+        assignToCaller(update, update.getId(), stored.getVersion());
+    }
+
+    // Id и версия попадают в объект вызывающего кода сразу, чтобы его можно было передать снова в той же
+    // транзакции. Если операция откатится, объект вернётся к прежним значениям и его можно будет повторить
+    private void assignToCaller(Task issue, Integer id, int version) {
+        var previousId = issue.getId();
+        var previousVersion = issue.getVersion();
+        issue.setId(id);
+        issue.setVersion(version);
+        if (callerRollbacks != null)
+            callerRollbacks.add(() -> {
+                issue.setId(previousId);
+                issue.setVersion(previousVersion);
+            });
+    }
+
+    // Привязывает подзадачу к эпику: id, время и статусы эпика и его предков обновляются инкрементально
+    protected void linkSubtask(Subtask subtask) {
+        var epic = epics.get(subtask.getEpicId());
+        if (epic == null)
+            throw new RuntimeException("Ошибка linkSubtask: Epic не найден " + subtask.getEpicId());
+
+        epic.addSubtaskId(subtask.getId());
+        epic.addSubtaskTime(subtask);
+        adjustEpicCounters(subtask, 1);
+        refreshEpicPath(epic.getId());
+    }
 
-        epic.setStatus(Status.NEW);
+    protected void unlinkSubtask(Subtask subtask) {
+        if (detachSubtask(subtask))
+            refreshEpicPath(subtask.getEpicId());
+    }
+
+    // Отвязывает подзадачу без пересчёта статусов — для операций над многими подзадачами
+    private boolean detachSubtask(Subtask subtask) {
+        var epic = epics.get(subtask.getEpicId());
+        if (epic == null || !epic.getDependentSubtaskIds().remove(subtask.getId()))
+            return false;
+
+        epic.removeSubtaskTime(subtask);
+        adjustEpicCounters(subtask, -1);
+        return true;
     }
 
     private int generateUniqueId() {
@@ -71,80 +250,148 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void updateTask(Task task) {
-        if (task.getId() == null)
-            throw new IllegalArgumentException("Ошибка updateTask: Task не имеет идентификатора");
+        runOperation(() -> {
+            if (task.getId() == null)
+                throw new IllegalArgumentException("Ошибка updateTask: Task не имеет идентификатора");
 
-        tasks.put(task.getId(), task);
+            var stored = task.clone();
+            checkAndIncrementVersion(task, stored, tasks.get(task.getId()));
+            var previous = tasks.put(task.getId(), stored);
+            if (previous != null)
+                board.move(previous, stored);
+            else
+                board.add(stored);
+
+            recordChange(task.getId(), previous, stored);
+        });
     }
 
     @Override
     public void updateSubtask(Subtask subtask) {
-        var subtaskId = subtask.getId();
-        if (subtaskId == null)
-            throw new IllegalArgumentException("Ошибка updateSubtask: Subtask не имеет идентификатора");
+        runOperation(() -> {
+            var subtaskId = subtask.getId();
+            if (subtaskId == null)
+                throw new IllegalArgumentException("Ошибка updateSubtask: Subtask не имеет идентификатора");
 
-        var epicId = subtask.getEpicId();
-        if (epicId == null)
-            throw new IllegalArgumentException("Ошибка updateSubtask: Subtask не имеет идентификатора Epic");
-        if (!epics.containsKey(epicId))
-            throw new RuntimeException("Ошибка updateSubtask: Epic " + epicId +
-                    "не найден для Subtask " + subtaskId);
+            var epicId = subtask.getEpicId();
+            if (epicId == null)
+                throw new IllegalArgumentException("Ошибка updateSubtask: Subtask не имеет идентификатора Epic");
+            if (!epics.containsKey(epicId))
+                throw new RuntimeException("Ошибка updateSubtask: Epic " + epicId +
+                        "не найден для Subtask " + subtaskId);
 
-        subtasks.put(subtaskId, subtask);
-        refreshEpicStatusById(epicId);
+            var stored = subtask.clone();
+            checkAndIncrementVersion(subtask, stored, subtasks.get(subtaskId));
+            var previous = subtasks.put(subtaskId, stored);
+            if (previous != null) {
+                unlinkSubtask(previous);
+                board.move(previous, stored);
+            } else {
+                board.add(stored);
+            }
+
+            linkSubtask(stored);
+            recordChange(subtaskId, previous, stored);
+        });
     }
 
     @Override
     public void updateEpic(Epic epic) {
-        var epicId = epic.getId();
-        if (epicId == null)
-            throw new IllegalArgumentException("Ошибка updateEpic: Epic не имеет идентификатора");
+        runOperation(() -> {
+            var epicId = epic.getId();
+            if (epicId == null)
+                throw new IllegalArgumentException("Ошибка updateEpic: Epic не имеет идентификатора");
 
-        epics.put(epic.getId(), epic);
+            var stored = epic.clone();
+            var previous = epics.get(epicId);
+            checkAndIncrementVersion(epic, stored, previous);
+            // Подзадачи, вложенные эпики и родителя ведёт менеджер, из переданного объекта берём только
+            // поля эпика. Перенос в другой эпик — через setEpicParent
+            if (previous != null) {
+                stored.copySubtasksFrom(previous);
+                stored.setParentEpicId(previous.getParentEpicId());
+            } else {
+                checkEpicParent(epicId, stored.getParentEpicId(), "updateEpic");
+                if (stored.getParentEpicId() != null)
+                    epics.get(stored.getParentEpicId()).getChildEpicIds().add(epicId);
+            }
+
+            epics.put(epicId, stored);
+            recordChange(epicId, previous == null ? null : epicHeader(previous), epicHeader(stored));
+        });
     }
 
     @Override
     public void removeTaskById(int taskId) {
-        var task = tasks.remove(taskId);
-        if (task == null)
-            throw new IllegalArgumentException("Ошибка removeTask: Task не найден " + taskId);
-
-        historyManager.remove(taskId);
+        runOperation(() -> {
+            var task = tasks.remove(taskId);
+            if (task == null)
+                throw new IllegalArgumentException("Ошибка removeTask: Task не найден " + taskId);
 
+            board.remove(task);
+            forgetViews(taskId);
+            recordChange(taskId, task, null);
+        });
     }
 
     public void removeSubtaskById(int subtaskId) {
-        var subtask = subtasks.remove(subtaskId);
-        if (subtask == null)
-            throw new IllegalArgumentException("Ошибка removeSubtask: Subtask не найден " + subtaskId);
-
-        var epicId = subtask.getEpicId();
-        var epic = epics.get(epicId);
-        if (epic == null)
-            throw new RuntimeException("Ошибка removeSubtask: Epic не найден для подзадачи " + subtaskId);
+        runOperation(() -> {
+            var subtask = subtasks.remove(subtaskId);
+            if (subtask == null)
+                throw new IllegalArgumentException("Ошибка removeSubtask: Subtask не найден " + subtaskId);
 
-        epic.removeSubtaskId(subtaskId);
-        refreshEpicStatusById(epicId);
+            var epicId = subtask.getEpicId();
+            var epic = epics.get(epicId);
+            if (epic == null)
+                throw new RuntimeException("Ошибка removeSubtask: Epic не найден для подзадачи " + subtaskId);
 
-        historyManager.remove(subtaskId);
+            unlinkSubtask(subtask);
 
+            board.remove(subtask);
+            forgetViews(subtaskId);
+            recordChange(subtaskId, subtask, null);
+        });
     }
 
     @Override
     public void removeEpicById(int epicId) {
-        var epic = epics.remove(epicId);
-        if (epic == null)
-            throw new IllegalArgumentException("Ошибка removeEpic: Epic не найден " + epicId);
+        runOperation(() -> {
+            var epic = epics.get(epicId);
+            if (epic == null)
+                throw new IllegalArgumentException("Ошибка removeEpic: Epic не найден " + epicId);
+
+            // Заголовок берётся до отвязки от родителя, чтобы отмена вернула эпик на прежнее место.
+            // Поддерево удаляется целиком, у предков вычитаются его подзадачи
+            var header = epicHeader(epic);
+            reparentEpic(epic, null);
+            removeEpicTree(epic, header);
+        });
+    }
+
+    // Удаляет эпик, вложенные эпики и все их подзадачи. Изменения записываются так,
+    // чтобы при отмене сначала восстанавливался эпик, затем его подзадачи и вложенные эпики
+    private void removeEpicTree(Epic epic, Epic header) {
+        var epicId = epic.getId();
+        for (Integer childId : List.copyOf(epic.getChildEpicIds())) {
+            var child = epics.get(childId);
+            removeEpicTree(child, epicHeader(child));
+        }
 
         // Удаляем связанные подзадачи из хранилища и истории
         epic.getDependentSubtaskIds().forEach(id -> {
-            subtasks.remove(id);
-            historyManager.remove(id);
+            var subtask = subtasks.remove(id);
+            if (subtask != null) {
+                board.remove(subtask);
+                recordChange(id, subtask, null);
+            }
+            forgetViews(id);
         });
+        board.removeEpic(epicId);
+        epics.remove(epicId);
 
         // Удаляем сам эпик из истории
-        historyManager.remove(epicId);
-
+        forgetViews(epicId);
+        recordChange(epicId, header, null);
     }
 
     @Override
@@ -153,9 +400,10 @@ public class InMemoryTaskManager implements TaskManager {
         if (task == null)
             throw new IllegalArgumentException("Ошибка getTask: Task не найден " + taskId);
 
-        historyManager.add(task.clone());
+        historyManager.addSnapshot(task.clone());
+        viewStats.record(taskId);
 
-        return task;
+        return task.clone();
     }
 
     @Override
@@ -164,107 +412,184 @@ public class InMemoryTaskManager implements TaskManager {
         if (subtask == null)
             throw new IllegalArgumentException("Ошибка getSubtask: Subtask не найден " + subtaskId);
 
-        historyManager.add(subtask.clone());
+        historyManager.addSnapshot(subtask.clone());
+        viewStats.record(subtaskId);
 
-        return subtask;
+        return subtask.clone();
     }
 
     @Override
     public Epic getEpicById(int id) {
         Epic epic = epics.get(id);
-        if (epic != null && epic.getId() != null) {
-            historyManager.add(epic);
+        if (epic == null)
+            return null;
+
+        if (epic.getId() != null) {
+            historyManager.addSnapshot(epic.clone());
+            viewStats.record(id);
         }
-        return epic;
+        return epic.clone();
     }
 
     @Override
     public int createTask(Task task) {
-        var taskId = task.getId();
-        if (taskId != null)
-            throw new IllegalArgumentException("Ошибка createTask: Task уже имеет идентификатор");
+        return runOperation(() -> {
+            var taskId = task.getId();
+            if (taskId != null)
+                throw new IllegalArgumentException("Ошибка createTask: Task уже имеет идентификатор");
 
-        var newId = generateUniqueId();
-        task.setId(newId);
-        tasks.put(newId, task.clone());
+            var newId = generateUniqueId();
+            assignToCaller(task, newId, 0);
+            var stored = task.clone();
+            tasks.put(newId, stored);
+            board.add(stored);
+            recordChange(newId, null, stored);
 
-        return newId;
+            return newId;
+        });
     }
 
     @Override
     public int createSubtask(Subtask subtask) {
-        var subtaskId = subtask.getId();
-        if (subtaskId != null)
-            throw new IllegalArgumentException("Ошибка createSubtask: Subtask уже имеет идентификатор");
+        return runOperation(() -> {
+            var subtaskId = subtask.getId();
+            if (subtaskId != null)
+                throw new IllegalArgumentException("Ошибка createSubtask: Subtask уже имеет идентификатор");
 
-        var epicId = subtask.getEpicId();
-        if (epicId == null)
-            throw new IllegalArgumentException("Ошибка createSubtask: Subtask не имеет идентификатора Epic");
-        if (!epics.containsKey(subtask.getEpicId()))
-            throw new IllegalArgumentException("Ошибка createSubtask: Epic не найден " + epicId);
+            var epicId = subtask.getEpicId();
+            if (epicId == null)
+                throw new IllegalArgumentException("Ошибка createSubtask: Subtask не имеет идентификатора Epic");
+            if (!epics.containsKey(subtask.getEpicId()))
+                throw new IllegalArgumentException("Ошибка createSubtask: Epic не найден " + epicId);
 
-        var newId = generateUniqueId();
-        subtask.setId(newId);
-        subtasks.put(newId, subtask);
-        epics.get(epicId).addSubtaskId(newId);
-        refreshEpicStatusById(epicId);
+            var newId = generateUniqueId();
+            assignToCaller(subtask, newId, 0);
+            var stored = subtask.clone();
+            subtasks.put(newId, stored);
+            linkSubtask(stored);
+            board.add(stored);
+            recordChange(newId, null, stored);
 
-        return newId;
+            return newId;
+        });
     }
 
     @Override
     public int createEpic(Epic epic) {
-        var epicId = epic.getId();
-        if (epicId != null)
-            throw new IllegalArgumentException("Ошибка createEpic: Epic уже имеет идентификатор");
+        return runOperation(() -> {
+            var epicId = epic.getId();
+            if (epicId != null)
+                throw new IllegalArgumentException("Ошибка createEpic: Epic уже имеет идентификатор");
+
+            var parentEpicId = epic.getParentEpicId();
+            if (parentEpicId != null && !epics.containsKey(parentEpicId))
+                throw new IllegalArgumentException("Ошибка createEpic: родительский Epic не найден " + parentEpicId);
 
-        var newId = generateUniqueId();
-        epic.setId(newId);
-        epics.put(newId, epic);
+            var newId = generateUniqueId();
+            assignToCaller(epic, newId, 0);
+            var stored = epic.clone();
+            // Новый эпик пуст: связи и счётчики заполняются менеджером
+            stored.getDependentSubtaskIds().clear();
+            stored.getChildEpicIds().clear();
+            stored.clearSubtree();
+            stored.setStatus(Status.NEW);
+            epics.put(newId, stored);
+            if (parentEpicId != null)
+                epics.get(parentEpicId).getChildEpicIds().add(newId);
+            recordChange(newId, null, epicHeader(stored));
 
-        return newId;
+            return newId;
+        });
     }
 
     public void removeAllTasks() {
-        // Удаляем все задачи и их просмотры из истории
-        tasks.keySet().forEach(historyManager::remove);
-        tasks.clear();
+        runOperation(() -> {
+            // Удаляем все задачи и их просмотры из истории
+            tasks.keySet().forEach(this::forgetViews);
+            tasks.values().forEach(board::remove);
+            tasks.values().forEach(task -> recordChange(task.getId(), task, null));
+            tasks.clear();
+        });
     }
 
     public void removeAllSubtasks() {
-        // Удаляем подзадачи из истории
-        subtasks.keySet().forEach(historyManager::remove);
+        runOperation(() -> {
+            // Удаляем подзадачи из истории
+            subtasks.keySet().forEach(this::forgetViews);
+            subtasks.values().forEach(board::remove);
+            subtasks.values().forEach(subtask -> recordChange(subtask.getId(), subtask, null));
 
-        subtasks.clear();
-        epics.values().forEach(epic -> {
-            epic.getDependentSubtaskIds().clear();
-            epic.setStatus(Status.NEW);
+            subtasks.clear();
+            epics.values().forEach(epic -> {
+                board.removeEpic(epic.getId());
+                epic.getDependentSubtaskIds().clear();
+                epic.clearSubtaskTimes();
+                epic.clearSubtree();
+                refreshEpicStatusById(epic.getId());
+            });
         });
     }
 
     @Override
     public void removeAllEpics() {
-        // Удаляем все подзадачи и эпики из истории
-        subtasks.keySet().forEach(historyManager::remove);
-        epics.keySet().forEach(historyManager::remove);
-
-        subtasks.clear();
-        epics.clear();
+        runOperation(() -> {
+            // Удаляем деревья от корней: при отмене и откате родитель восстанавливается раньше вложенных эпиков
+            for (Epic epic : List.copyOf(epics.values())) {
+                if (epic.getParentEpicId() == null)
+                    removeEpicTree(epic, epicHeader(epic));
+            }
+        });
     }
 
     @Override
     public List<Task> getAllTasks() {
-        return new ArrayList<>(tasks.values());
+        return tasks.values().stream()
+                .map(Task::clone)
+                .collect(Collectors.toList());
     }
 
     @Override
     public List<Subtask> getAllSubtasks() {
-        return new ArrayList<>(subtasks.values());
+        return subtasks.values().stream()
+                .map(Subtask::clone)
+                .collect(Collectors.toList());
     }
 
     @Override
     public List<Epic> getAllEpics() {
-        return new ArrayList<>(epics.values());
+        return epics.values().stream()
+                .map(Epic::clone)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Task> getTasksPage(int afterId, int limit) {
+        return page(tasks, afterId, limit);
+    }
+
+    @Override
+    public List<Epic> getEpicsPage(int afterId, int limit) {
+        return page(epics, afterId, limit);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksPage(int afterId, int limit) {
+        return page(subtasks, afterId, limit);
+    }
+
+    // Не больше limit копий с id больше afterId: O(log n + limit) независимо от размера хранилища
+    @SuppressWarnings("unchecked")
+    private static <T extends Task> List<T> page(NavigableMap<Integer, T> storage, int afterId, int limit) {
+        if (limit <= 0)
+            throw new IllegalArgumentException("Размер страницы должен быть положительным: " + limit);
+
+        List<T> page = new ArrayList<>(Math.min(limit, storage.size()));
+        for (T issue : storage.tailMap(afterId, false).values()) {
+            if (page.size() == limit)
+                break;
+            page.add((T) issue.clone());
+        }
+        return page;
     }
 
     @Override
@@ -288,4 +613,697 @@ public class InMemoryTaskManager implements TaskManager {
     public List<Task> getHistory() {
         return historyManager.getHistory();
     }
+
+    @Override
+    public List<Task> getLastHistory(int count) {
+        return historyManager.getLastHistory(count);
+    }
+
+    @Override
+    public List<Task> getHistoryPage(int offset, int limit) {
+        return historyManager.getHistoryPage(offset, limit);
+    }
+
+    @Override
+    public Task getTaskById(int taskId, String userId) {
+        var task = getTaskById(taskId);
+        sessionHistories.record(userId, taskId);
+        return task;
+    }
+
+    @Override
+    public Subtask getSubtaskById(int subtaskId, String userId) {
+        var subtask = getSubtaskById(subtaskId);
+        sessionHistories.record(userId, subtaskId);
+        return subtask;
+    }
+
+    @Override
+    public Epic getEpicById(int epicId, String userId) {
+        var epic = getEpicById(epicId);
+        if (epic != null)
+            sessionHistories.record(userId, epicId);
+        return epic;
+    }
+
+    // История пользователя хранит id, задачи отдаются в текущем состоянии
+    @Override
+    public List<Task> getHistory(String userId) {
+        return issuesByIds(sessionHistories.getTaskIds(userId));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return issuesByIds(board.getPrioritized());
+    }
+
+    @Override
+    public List<Task> getMostViewed(int count) {
+        return issuesByIds(viewStats.getTop(count));
+    }
+
+    @Override
+    public List<Task> getMostViewed(int count, Duration window) {
+        return issuesByIds(viewStats.getTop(count, window));
+    }
+
+    // Задачи по id в текущем состоянии, удалённые пропускаются
+    private List<Task> issuesByIds(List<Integer> ids) {
+        List<Task> issues = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Task task = findIssue(id);
+            if (task != null)
+                issues.add(task.clone());
+        }
+        return issues;
+    }
+
+    // Удаляет задачу из общей истории, из историй всех пользователей и из статистики просмотров
+    private void forgetViews(int id) {
+        historyManager.remove(id);
+        sessionHistories.remove(id);
+        viewStats.remove(id);
+    }
+
+    @Override
+    public List<Integer> getBoardColumn(Status status, int limit) {
+        return board.getColumn(status, limit);
+    }
+
+    @Override
+    public Map<Status, Integer> getBoardCounts() {
+        return board.getCounts();
+    }
+
+    @Override
+    public List<Integer> getEpicBoardColumn(int epicId, Status status, int limit) {
+        if (!epics.containsKey(epicId))
+            throw new IllegalArgumentException("Ошибка getEpicBoardColumn: Epic не найден " + epicId);
+
+        return board.getEpicColumn(epicId, status, limit);
+    }
+
+    @Override
+    public Map<Status, Integer> getEpicBoardCounts(int epicId) {
+        if (!epics.containsKey(epicId))
+            throw new IllegalArgumentException("Ошибка getEpicBoardCounts: Epic не найден " + epicId);
+
+        return board.getEpicCounts(epicId);
+    }
+
+    @Override
+    public int updateSubtasksStatusByEpicId(int epicId, Predicate<Subtask> filter, Status status) {
+        return runOperation(() -> {
+            var epic = epics.get(epicId);
+            if (epic == null)
+                throw new IllegalArgumentException("Ошибка updateSubtasksStatusByEpicId: Epic не найден " + epicId);
+            if (status == null)
+                throw new IllegalArgumentException("Ошибка updateSubtasksStatusByEpicId: Status не может быть null");
+            if (filter == null)
+                throw new IllegalArgumentException("Ошибка updateSubtasksStatusByEpicId: условие не может быть null");
+
+            int updated = 0;
+            for (Integer subtaskId : epic.getDependentSubtaskIds()) {
+                var previous = subtasks.get(subtaskId);
+                if (previous == null || previous.getStatus() == status || !filter.test(previous.clone()))
+                    continue;
+
+                var stored = previous.clone();
+                stored.setStatus(status);
+                stored.setVersion(previous.getVersion() + 1);
+                subtasks.put(subtaskId, stored);
+                adjustEpicCounters(previous, -1);
+                adjustEpicCounters(stored, 1);
+                board.move(previous, stored);
+                recordChange(subtaskId, previous, stored);
+                updated++;
+            }
+
+            // Статусы эпика и его предков пересчитываются один раз на всю операцию
+            if (updated > 0)
+                refreshEpicPath(epicId);
+
+            return updated;
+        });
+    }
+
+    @Override
+    public int removeAllByStatus(Status status) {
+        return runOperation(() -> {
+            if (status == null)
+                throw new IllegalArgumentException("Ошибка removeAllByStatus: Status не может быть null");
+
+            Set<Integer> affectedEpicIds = new HashSet<>();
+            // Кандидаты берутся из колонки доски, а не из полного перебора хранилищ
+            var ids = board.getColumn(status, Integer.MAX_VALUE);
+            for (Integer id : ids) {
+                var task = tasks.remove(id);
+                if (task != null) {
+                    board.remove(task);
+                    forgetViews(id);
+                    recordChange(id, task, null);
+                    continue;
+                }
+
+                var subtask = subtasks.remove(id);
+                if (subtask == null)
+                    continue;
+
+                if (detachSubtask(subtask))
+                    affectedEpicIds.add(subtask.getEpicId());
+                board.remove(subtask);
+                forgetViews(id);
+                recordChange(id, subtask, null);
+            }
+
+            affectedEpicIds.forEach(this::refreshEpicPath);
+            return ids.size();
+        });
+    }
+
+    /**
+     * Выполняет группу операций как одну транзакцию: если любая операция завершилась ошибкой,
+     * все уже выполненные изменения откатываются в обратном порядке и ошибка пробрасывается дальше.
+     * Вложенный вызов становится частью внешней транзакции.
+     */
+    @Override
+    public void runInTransaction(Consumer<TaskManager> operations) {
+        runOperation(() -> operations.accept(this));
+    }
+
+    /**
+     * Выполняет операции по порядку, каждую как отдельную операцию со своей записью в журнале отмены.
+     * Внутри транзакции пакет становится её частью, и первая ошибка прерывает транзакцию.
+     */
+    @Override
+    public List<RuntimeException> runBatch(List<Consumer<TaskManager>> operations) {
+        List<RuntimeException> errors = new ArrayList<>(operations.size());
+        for (Consumer<TaskManager> operation : operations) {
+            if (isInTransaction()) {
+                operation.accept(this);
+                errors.add(null);
+                continue;
+            }
+
+            try {
+                runOperation(() -> operation.accept(this));
+                errors.add(null);
+            } catch (RuntimeException operationException) {
+                errors.add(operationException);
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Отменяет последнюю операцию (транзакция отменяется целиком). Подзадачи удалённого эпика
+     * восстанавливаются вместе с ним, просмотры в истории не восстанавливаются.
+     * Отмена атомарна: если она не удалась, уже восстановленное откатывается, а операция остаётся
+     * в журнале. Возвращает false, если отменять нечего.
+     */
+    @Override
+    public boolean undo() {
+        checkNotInTransaction("undo");
+        var operation = undoLog.popUndo();
+        if (operation == null)
+            return false;
+
+        try {
+            runAtomically(() -> {
+                for (int i = operation.size() - 1; i >= 0; i--) {
+                    revert(operation.get(i), true);
+                }
+                return null;
+            }, replay -> undoLog.pushRedo(operation));
+        } catch (RuntimeException undoException) {
+            undoLog.pushUndo(operation);
+            throw undoException;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean redo() {
+        checkNotInTransaction("redo");
+        var operation = undoLog.popRedo();
+        if (operation == null)
+            return false;
+
+        try {
+            runAtomically(() -> {
+                for (var change : operation) {
+                    switch (change) {
+                        case IssueChange issue -> applyIssueState(issue.id(), nextVersionOf(issue.id(), issue.after()));
+                        case DependencyChange edge -> applyDependency(edge.blockerId(), edge.dependentId(), edge.added());
+                    }
+                }
+                return null;
+            }, replay -> undoLog.pushUndo(operation));
+        } catch (RuntimeException redoException) {
+            undoLog.pushRedo(operation);
+            throw redoException;
+        }
+        return true;
+    }
+
+    // Отмена внутри транзакции разошлась бы с журналом при её откате
+    private void checkNotInTransaction(String operation) {
+        if (isInTransaction())
+            throw new IllegalStateException("Ошибка " + operation + ": недоступно внутри транзакции");
+    }
+
+    // Ограничения журнала отмены: число операций и общее число хранимых изменений
+    public void setUndoLimits(int operations, int changes) {
+        undoLog.setLimits(operations, changes);
+    }
+
+    /**
+     * Выполняет тело как одну операцию: её изменения попадают в журнал отмены одной записью,
+     * а при ошибке уже сделанные изменения откатываются. Вложенные вызовы входят во внешнюю операцию.
+     */
+    protected void runOperation(Runnable body) {
+        runOperation(() -> {
+            body.run();
+            return null;
+        });
+    }
+
+    protected <T> T runOperation(Supplier<T> body) {
+        if (operationLog != null)
+            return body.get();
+
+        return runAtomically(body, undoLog::record);
+    }
+
+    // Выполняет тело с откатом при ошибке. После успешного завершения изменения передаются в commit
+    private <T> T runAtomically(Supplier<T> body, Consumer<List<OperationChange>> commit) {
+        operationLog = new ArrayList<>();
+        operationVersions = new ArrayList<>();
+        callerRollbacks = new ArrayList<>();
+        try {
+            T result = body.get();
+            var committed = operationVersions;
+            operationVersions = null;
+            committed.forEach(this::applyVersion);
+            commit.accept(operationLog);
+            publishChanges();
+            return result;
+        } catch (RuntimeException operationException) {
+            var log = operationLog;
+            operationLog = null;
+            // Откат возвращает прежнее состояние: ни изменения операции, ни сам откат в историю версий не попадают
+            operationVersions = new ArrayList<>();
+            for (int i = log.size() - 1; i >= 0; i--) {
+                revert(log.get(i), false);
+            }
+            for (int i = callerRollbacks.size() - 1; i >= 0; i--) {
+                callerRollbacks.get(i).run();
+            }
+            // Откаченная операция в ленту не попадает
+            pendingChanges.clear();
+            throw operationException;
+        } finally {
+            operationLog = null;
+            operationVersions = null;
+            callerRollbacks = null;
+        }
+    }
+
+    protected boolean isInTransaction() {
+        return operationLog != null;
+    }
+
+    // Обратное изменение: отмена продолжает версии восстановленных задач, откат возвращает их как были
+    private void revert(OperationChange change, boolean nextVersion) {
+        switch (change) {
+            case IssueChange issue -> applyIssueState(issue.id(),
+                    nextVersion ? nextVersionOf(issue.id(), issue.before()) : issue.before());
+            case DependencyChange edge -> applyDependency(edge.blockerId(), edge.dependentId(), !edge.added());
+        }
+    }
+
+    // Задача любого типа по id или null
+    private Task findIssue(int id) {
+        Task issue = tasks.get(id);
+        if (issue == null)
+            issue = subtasks.get(id);
+        if (issue == null)
+            issue = epics.get(id);
+        return issue;
+    }
+
+    // Отмена и повтор — новые изменения, поэтому версия восстановленного объекта продолжает расти
+    private Task nextVersionOf(int id, Task target) {
+        if (target == null)
+            return null;
+
+        var current = findIssue(id);
+        int currentVersion = current == null ? target.getVersion() : current.getVersion();
+
+        var restored = target.clone();
+        restored.setVersion(Math.max(currentVersion, target.getVersion()) + 1);
+        return restored;
+    }
+
+    protected void recordChange(int id, Task before, Task after) {
+        var type = after != null ? after.getType() : before.getType();
+        // Рёбра удаляемой задачи записываются до неё: отмена сначала вернёт задачу, затем её рёбра
+        if (type != TaskType.EPIC && after == null && operationLog != null) {
+            dependencies.getBlockers(id).forEach(blockerId ->
+                    operationLog.add(new DependencyChange(blockerId, id, false)));
+            dependencies.getDependents(id).forEach(dependentId ->
+                    operationLog.add(new DependencyChange(id, dependentId, false)));
+        }
+        if (operationLog != null)
+            operationLog.add(new IssueChange(id, before, after));
+
+        pendingChanges.putIfAbsent(id, new PendingChange(type, before != null));
+        recordVersion(new VersionChange(id, type, before, after, true));
+
+        // В графе зависимостей участвуют только задачи и подзадачи
+        if (type != TaskType.EPIC) {
+            if (after == null)
+                dependencies.removeNode(id);
+            else
+                dependencies.addNode(id, after.getStatus());
+        }
+    }
+
+    private void recordVersion(VersionChange change) {
+        if (operationVersions != null)
+            operationVersions.add(change);
+        else
+            applyVersion(change);
+    }
+
+    private void applyVersion(VersionChange change) {
+        versions.record(change.id(), change.type(), change.after());
+        if (!change.own())
+            return;
+
+        touchModificationVersions(change.id(), change.type(), change.before(), change.after());
+        if (change.after() != null)
+            revisions.record(change.after());
+        else
+            revisions.remove(change.id());
+    }
+
+    /**
+     * Отмечает текущей ревизией изменённые коллекции и эпики. Статус и время эпика вычисляются
+     * по подзадачам всего поддерева, поэтому изменение подзадачи меняет и коллекцию эпиков,
+     * и её эпик со всеми предками.
+     */
+    private void touchModificationVersions(int id, TaskType type, Task before, Task after) {
+        long revision = versions.getCurrentRevision();
+        typeRevisions[type.ordinal()] = revision;
+
+        if (type == TaskType.SUBTASK) {
+            typeRevisions[TaskType.EPIC.ordinal()] = revision;
+            if (before != null)
+                touchEpicPath(((Subtask) before).getEpicId(), revision);
+            if (after != null)
+                touchEpicPath(((Subtask) after).getEpicId(), revision);
+        } else if (type == TaskType.EPIC) {
+            if (after == null)
+                epicRevisions.remove(id);
+            else
+                touchEpicPath(id, revision);
+            // При переносе эпика меняются счётчики и старых, и новых предков
+            if (before != null)
+                touchEpicPath(((Epic) before).getParentEpicId(), revision);
+        }
+    }
+
+    private void touchEpicPath(Integer epicId, long revision) {
+        while (epicId != null) {
+            var epic = epics.get(epicId);
+            if (epic == null)
+                return;
+
+            epicRevisions.put(epicId, revision);
+            pendingChanges.putIfAbsent(epicId, new PendingChange(TaskType.EPIC, true));
+            epicId = epic.getParentEpicId();
+        }
+    }
+
+    /**
+     * Публикует в ленту по одному событию на задачу, изменённую операцией, с её итоговым состоянием.
+     * Эпики, у которых изменились подзадачи или вложенные эпики, попадают в ленту как обновлённые.
+     * Задача, созданная и удалённая в одной операции, не публикуется.
+     */
+    private void publishChanges() {
+        pendingChanges.forEach((id, change) -> {
+            var current = findIssue(id);
+            if (current != null)
+                changeFeed.publish(change.existed() ? ChangeFeed.Kind.UPDATED : ChangeFeed.Kind.CREATED,
+                        change.type(), id, current.clone());
+            else if (change.existed())
+                changeFeed.publish(ChangeFeed.Kind.DELETED, change.type(), id, null);
+        });
+        pendingChanges.clear();
+    }
+
+    // Заголовок эпика: поля самого эпика без подзадач и вычисляемого времени
+    protected static Epic epicHeader(Epic epic) {
+        var header = new Epic(epic.getId(), epic.getName(), epic.getDescription(), epic.getParentEpicId());
+        header.setStatus(epic.getStatus());
+        header.setVersion(epic.getVersion());
+        return header;
+    }
+
+    /**
+     * Приводит объект с указанным id к состоянию target (null — объект удаляется),
+     * поддерживая связи эпиков, доску и историю. Используется для отката изменений.
+     */
+    protected void applyIssueState(int id, Task target) {
+        Task current = tasks.get(id);
+        if (current == null)
+            current = subtasks.get(id);
+        if (current == null && epics.containsKey(id))
+            current = epicHeader(epics.get(id));
+        if (current == null && target == null)
+            return;
+
+        recordChange(id, current, target);
+
+        var currentTask = tasks.remove(id);
+        if (currentTask != null)
+            board.remove(currentTask);
+
+        var currentSubtask = subtasks.remove(id);
+        if (currentSubtask != null) {
+            unlinkSubtask(currentSubtask);
+            board.remove(currentSubtask);
+        }
+
+        var currentEpic = epics.get(id);
+        if (target == null) {
+            if (currentEpic != null) {
+                reparentEpic(currentEpic, null);
+                epics.remove(id);
+                board.removeEpic(id);
+            }
+            forgetViews(id);
+            return;
+        }
+
+        switch (target.getType()) {
+            case TASK -> {
+                var stored = target.clone();
+                tasks.put(id, stored);
+                board.add(stored);
+            }
+            case SUBTASK -> {
+                var stored = (Subtask) target.clone();
+                subtasks.put(id, stored);
+                linkSubtask(stored);
+                board.add(stored);
+            }
+            case EPIC -> {
+                var stored = (Epic) target.clone();
+                var parentEpicId = stored.getParentEpicId();
+                if (currentEpic != null) {
+                    stored.copySubtasksFrom(currentEpic);
+                    stored.setParentEpicId(currentEpic.getParentEpicId());
+                } else {
+                    stored.setParentEpicId(null);
+                }
+                epics.put(id, stored);
+                reparentEpic(stored, parentEpicId);
+                refreshEpicStatusById(id);
+            }
+        }
+    }
+
+    // Пересчитывает связи эпиков и доску по содержимому хранилищ (после загрузки из файла)
+    protected void rebuildIndexes() {
+        board.clear();
+        epics.values().forEach(epic -> {
+            epic.getDependentSubtaskIds().clear();
+            epic.getChildEpicIds().clear();
+            epic.clearSubtaskTimes();
+            epic.clearSubtree();
+        });
+        for (Epic epic : epics.values()) {
+            var parent = epic.getParentEpicId() == null ? null : epics.get(epic.getParentEpicId());
+            if (parent != null)
+                parent.getChildEpicIds().add(epic.getId());
+            else
+                epic.setParentEpicId(null);
+        }
+
+        tasks.values().forEach(board::add);
+        for (Subtask subtask : subtasks.values()) {
+            var epic = epics.get(subtask.getEpicId());
+            if (epic == null)
+                continue;
+
+            epic.addSubtaskId(subtask.getId());
+            epic.addSubtaskTime(subtask);
+            adjustEpicCounters(subtask, 1);
+            board.add(subtask);
+        }
+        epics.keySet().forEach(this::refreshEpicStatusById);
+
+        // Загруженное состояние становится первой версией доски
+        tasks.values().forEach(task -> recordChange(task.getId(), null, task));
+        epics.values().forEach(epic -> recordChange(epic.getId(), null, epicHeader(epic)));
+        subtasks.values().forEach(subtask -> recordChange(subtask.getId(), null, subtask));
+        // Загруженное состояние — исходное для ленты, клиенты получают его списками
+        pendingChanges.clear();
+    }
+
+    @Override
+    public void setEpicParent(int epicId, Integer parentEpicId) {
+        runOperation(() -> {
+            var epic = epics.get(epicId);
+            if (epic == null)
+                throw new IllegalArgumentException("Ошибка setEpicParent: Epic не найден " + epicId);
+            checkEpicParent(epicId, parentEpicId, "setEpicParent");
+
+            var before = epicHeader(epic);
+            reparentEpic(epic, parentEpicId);
+            recordChange(epicId, before, epicHeader(epic));
+        });
+    }
+
+    @Override
+    public int getEpicProgress(int epicId) {
+        var epic = epics.get(epicId);
+        if (epic == null)
+            throw new IllegalArgumentException("Ошибка getEpicProgress: Epic не найден " + epicId);
+
+        return epic.getProgress();
+    }
+
+    @Override
+    public void addDependency(int blockerId, int dependentId) {
+        runOperation(() -> putDependency(blockerId, dependentId));
+    }
+
+    @Override
+    public void removeDependency(int blockerId, int dependentId) {
+        runOperation(() -> applyDependency(blockerId, dependentId, false));
+    }
+
+    @Override
+    public Set<Integer> getBlockerIds(int id) {
+        return new HashSet<>(dependencies.getBlockers(id));
+    }
+
+    @Override
+    public List<Integer> getReadyTaskIds() {
+        return dependencies.getReady();
+    }
+
+    @Override
+    public List<Integer> getTopologicalOrder() {
+        return dependencies.getTopologicalOrder();
+    }
+
+    protected void putDependency(int blockerId, int dependentId) {
+        applyDependency(blockerId, dependentId, true);
+    }
+
+    // Добавляет или удаляет ребро; внутри операции изменение попадает в журнал отмены
+    private void applyDependency(int blockerId, int dependentId, boolean added) {
+        boolean changed = added ? dependencies.addEdge(blockerId, dependentId)
+                : dependencies.removeEdge(blockerId, dependentId);
+        if (changed && operationLog != null)
+            operationLog.add(new DependencyChange(blockerId, dependentId, added));
+    }
+
+    protected List<int[]> getDependencyEdges() {
+        return dependencies.getEdges();
+    }
+
+    @Override
+    public int getRevisionCount(int id) {
+        return revisions.getRevisionCount(id);
+    }
+
+    @Override
+    public Task getTaskRevision(int id, int revision) {
+        return revisions.get(id, revision);
+    }
+
+    // Количество хранимых ревизий для запросов состояния доски в прошлом
+    public void setVersionRetention(int revisions) {
+        versions.setRetention(revisions);
+    }
+
+    @Override
+    public long getCurrentRevision() {
+        return versions.getCurrentRevision();
+    }
+
+    @Override
+    public ChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+
+    @Override
+    public long getModificationVersion(TaskType type) {
+        if (type == null)
+            throw new IllegalArgumentException("Ошибка getModificationVersion: TaskType не может быть null");
+
+        return typeRevisions[type.ordinal()];
+    }
+
+    @Override
+    public long getEpicModificationVersion(int epicId) {
+        if (!epics.containsKey(epicId))
+            throw new IllegalArgumentException("Ошибка getEpicModificationVersion: Epic не найден " + epicId);
+
+        return epicRevisions.getOrDefault(epicId, 0L);
+    }
+
+    @Override
+    public long getRevisionAt(Instant time) {
+        return versions.getRevisionAt(time);
+    }
+
+    @Override
+    public Task getIssueByIdAt(int id, long revision) {
+        return versions.get(id, revision);
+    }
+
+    @Override
+    public List<Task> getAllTasksAt(long revision) {
+        return versions.getAll(TaskType.TASK, revision);
+    }
+
+    @Override
+    public List<Epic> getAllEpicsAt(long revision) {
+        return versions.getAll(TaskType.EPIC, revision).stream()
+                .map(Epic.class::cast)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasksAt(long revision) {
+        return versions.getAll(TaskType.SUBTASK, revision).stream()
+                .map(Subtask.class::cast)
+                .collect(Collectors.toList());
+    }
 }
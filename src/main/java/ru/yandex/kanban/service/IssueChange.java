@@ -0,0 +1,13 @@
+package ru.yandex.kanban.service;
+
+import ru.yandex.kanban.issue.Task;
+
+/**
+ * Изменение одной задачи, эпика или подзадачи: состояние до и после операции.
+ * before == null — объект был создан, after == null — объект был удалён.
+ * Для эпиков хранится только заголовок (без подзадач и вычисляемых полей),
+ * связи восстанавливаются изменениями самих подзадач.
+ */
+
+record IssueChange(int id, Task before, Task after) implements OperationChange {
+}
@@ -0,0 +1,9 @@
+package ru.yandex.kanban.service;
+
+/**
+ * Изменение, входящее в операцию менеджера. Журнал отмены хранит изменения в порядке
+ * выполнения: отмена и откат применяют их в обратном порядке, повтор — в прямом.
+ */
+
+sealed interface OperationChange permits IssueChange, DependencyChange {
+}
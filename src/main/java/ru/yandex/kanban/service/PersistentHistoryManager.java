@@ -0,0 +1,292 @@
+package ru.yandex.kanban.service;
+
+import ru.yandex.kanban.exception.ManagerSaveException;
+import ru.yandex.kanban.issue.Task;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+
+/**
+ * История просмотров, сохраняемая в журнал: строка "V,id" — просмотр, "R,id" — удаление.
+ * <p>
+ * Вызывающий поток только кладёт событие в очередь, запись на диск выполняет фоновый поток.
+ * Он же ведёт список id текущей истории и, когда журнал становится заметно длиннее истории,
+ * переписывает его одним просмотром на задачу. Поэтому при восстановлении журнал короткий.
+ * <p>
+ * Ошибка записи останавливает фоновый поток и пробрасывается ManagerSaveException из следующего
+ * add или remove. Сам просмотр при этом не теряется: новый поток начинает с того, что
+ * переписывает журнал по текущей истории, и продолжает запись.
+ */
+
+class PersistentHistoryManager implements HistoryManager, AutoCloseable {
+    private static final int MIN_COMPACTION_LINES = 1_000;
+    private static final String VIEW = "V";
+    private static final String REMOVE = "R";
+
+    // Событие журнала, stop — сигнал завершения фонового потока
+    private record Event(String kind, int id, boolean stop) {
+    }
+
+    private static final Event STOP = new Event(null, 0, true);
+
+    private final HistoryManager delegate;
+    private final Path path;
+    private final BlockingQueue<Event> queue = new LinkedBlockingQueue<>();
+    // Данные ниже использует только фоновый поток (и restore до его запуска)
+    private final LinkedHashSet<Integer> ids = new LinkedHashSet<>();
+    private int lineCount;
+    private BufferedWriter writer;
+    // Запуск и остановка фонового потока — под workerLock (ReentrantLock, как в BaseHttpHandler)
+    private final ReentrantLock workerLock = new ReentrantLock();
+    private Thread worker;
+    // Журнал мог остаться неполным после ошибки: новый поток сначала переписывает его
+    private boolean compactOnStart;
+    private volatile IOException failure;
+
+    PersistentHistoryManager(HistoryManager delegate, Path path) {
+        this.delegate = delegate;
+        this.path = path;
+    }
+
+    @Override
+    public void add(Task task) {
+        delegate.add(task);
+        publish(new Event(VIEW, task.getId(), false));
+    }
+
+    @Override
+    public void addSnapshot(Task snapshot) {
+        delegate.addSnapshot(snapshot);
+        publish(new Event(VIEW, snapshot.getId(), false));
+    }
+
+    @Override
+    public void remove(int id) {
+        delegate.remove(id);
+        publish(new Event(REMOVE, id, false));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return delegate.getHistory();
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public List<Task> getLastHistory(int count) {
+        return delegate.getLastHistory(count);
+    }
+
+    @Override
+    public List<Task> getHistoryPage(int offset, int limit) {
+        return delegate.getHistoryPage(offset, limit);
+    }
+
+    @Override
+    public Iterator<Task> historyIterator() {
+        return delegate.historyIterator();
+    }
+
+    @Override
+    public Iterator<Task> descendingHistoryIterator() {
+        return delegate.descendingHistoryIterator();
+    }
+
+    // Читает журнал и заполняет историю задачами, которые ещё существуют. Вызывается до первых просмотров
+    void restore(IntFunction<Task> lookup) {
+        if (Files.exists(path)) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank())
+                        continue;
+
+                    String[] parts = line.split(",");
+                    apply(parts[0], Integer.parseInt(parts[1]));
+                    lineCount++;
+                }
+            } catch (IOException | RuntimeException historyReadException) {
+                throw new ManagerSaveException("Ошибка чтения истории просмотров: "
+                        + historyReadException.getMessage(), historyReadException);
+            }
+        }
+
+        // В историю попадает только итоговый порядок, а не все записи журнала
+        ids.removeIf(id -> lookup.apply(id) == null);
+        ids.forEach(id -> delegate.add(lookup.apply(id)));
+        try {
+            compact();
+        } catch (IOException historyWriteException) {
+            throw new ManagerSaveException("Ошибка сжатия истории просмотров: "
+                    + historyWriteException.getMessage(), historyWriteException);
+        }
+    }
+
+    // Начинает историю заново, старый журнал удаляется
+    void reset() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException historyWriteException) {
+            throw new ManagerSaveException("Ошибка удаления истории просмотров: "
+                    + historyWriteException.getMessage(), historyWriteException);
+        }
+    }
+
+    @Override
+    public void close() {
+        IOException error;
+        workerLock.lock();
+        try {
+            if (worker != null) {
+                queue.add(STOP);
+                join(worker);
+                // Поток, остановленный ошибкой, сигнал не забрал
+                queue.remove(STOP);
+                worker = null;
+            }
+            error = failure;
+            failure = null;
+            compactOnStart |= error != null;
+        } finally {
+            workerLock.unlock();
+        }
+
+        if (error != null)
+            throw new ManagerSaveException("Ошибка записи истории просмотров: " + error.getMessage(), error);
+    }
+
+    private void publish(Event event) {
+        queue.add(event);
+        var error = startWorker();
+        if (error != null)
+            throw new ManagerSaveException("Ошибка записи истории просмотров: " + error.getMessage(), error);
+    }
+
+    // Запускает фоновый поток, если он не работает. Возвращает ошибку, на которой остановился прежний поток
+    private IOException startWorker() {
+        workerLock.lock();
+        try {
+            var error = failure;
+            if (worker != null && error == null)
+                return null;
+
+            if (worker != null)
+                join(worker);
+            failure = null;
+            boolean compact = compactOnStart || error != null;
+            compactOnStart = false;
+            worker = Thread.ofVirtual().name("history-log").start(() -> writeLoop(compact));
+            return error;
+        } finally {
+            workerLock.unlock();
+        }
+    }
+
+    private static void join(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop(boolean compactFirst) {
+        try {
+            if (compactFirst)
+                compact();
+            boolean stopped = false;
+            while (!stopped) {
+                Event event = queue.take();
+                // Всё, что накопилось, пишется одной пачкой с одним сбросом на диск
+                do {
+                    if (event.stop()) {
+                        stopped = true;
+                        break;
+                    }
+                    write(event);
+                } while ((event = queue.poll()) != null);
+
+                if (writer != null)
+                    writer.flush();
+                if (lineCount >= MIN_COMPACTION_LINES && lineCount > 2 * ids.size())
+                    compact();
+            }
+        } catch (IOException historyWriteException) {
+            failure = historyWriteException;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeWriter();
+        }
+    }
+
+    private void write(Event event) throws IOException {
+        // Удаление задачи, которой нет в истории, в журнал не пишется
+        if (!apply(event.kind(), event.id()))
+            return;
+
+        if (writer == null)
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        writer.write(event.kind() + "," + event.id());
+        writer.newLine();
+        lineCount++;
+    }
+
+    private boolean apply(String kind, int id) {
+        if (VIEW.equals(kind)) {
+            ids.remove(id);
+            ids.add(id);
+            return true;
+        }
+        if (REMOVE.equals(kind))
+            return ids.remove(id);
+
+        throw new IllegalArgumentException("Неизвестная запись истории: " + kind);
+    }
+
+    // Переписывает журнал по текущей истории: сначала во временный файл, затем заменяет журнал
+    private void compact() throws IOException {
+        closeWriter();
+
+        Path compacted = path.resolveSibling(path.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+            for (Integer id : ids) {
+                out.write(VIEW + "," + id);
+                out.newLine();
+            }
+        }
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        lineCount = ids.size();
+    }
+
+    private void closeWriter() {
+        if (writer == null)
+            return;
+
+        try {
+            writer.close();
+        } catch (IOException historyWriteException) {
+            if (failure == null)
+                failure = historyWriteException;
+        }
+        writer = null;
+    }
+}
@@ -0,0 +1,159 @@
+package ru.yandex.kanban.service;
+
+import ru.yandex.kanban.issue.Epic;
+import ru.yandex.kanban.issue.Status;
+import ru.yandex.kanban.issue.Subtask;
+import ru.yandex.kanban.issue.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * История ревизий каждой задачи. Ревизия хранится как набор изменившихся полей относительно
+ * предыдущей, и только каждая checkpointInterval-я ревизия — полной копией задачи.
+ * Поэтому сотни правок одной задачи не умножают память, а чтение ревизии по номеру
+ * стоит не больше checkpointInterval применений изменений от ближайшей полной копии.
+ */
+
+class RevisionHistory {
+    private static final int NAME = 1;
+    private static final int DESCRIPTION = 1 << 1;
+    private static final int STATUS = 1 << 2;
+    private static final int START_TIME = 1 << 3;
+    private static final int DURATION = 1 << 4;
+    private static final int VERSION = 1 << 5;
+
+    // Изменённые поля: маска и значения в порядке битов маски
+    private record Delta(int mask, Object[] values) {
+    }
+
+    private static class Revisions {
+        // Полная копия (Task) или Delta
+        private final List<Object> entries = new ArrayList<>();
+        // Последнее состояние — база для вычисления следующего изменения
+        private Task last;
+    }
+
+    private final Map<Integer, Revisions> revisionsById = new HashMap<>();
+    private final int checkpointInterval;
+
+    RevisionHistory(int checkpointInterval) {
+        if (checkpointInterval < 1)
+            throw new IllegalArgumentException("Интервал полных копий должен быть положительным: "
+                    + checkpointInterval);
+
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    void record(Task state) {
+        var revisions = revisionsById.computeIfAbsent(state.getId(), id -> new Revisions());
+        var entries = revisions.entries;
+        var copy = state.clone();
+
+        if (entries.size() % checkpointInterval == 0 || !sameShape(revisions.last, copy))
+            entries.add(copy);
+        else
+            entries.add(diff(revisions.last, copy));
+
+        revisions.last = copy;
+    }
+
+    void remove(int id) {
+        revisionsById.remove(id);
+    }
+
+    int getRevisionCount(int id) {
+        var revisions = revisionsById.get(id);
+        return revisions == null ? 0 : revisions.entries.size();
+    }
+
+    Task get(int id, int revision) {
+        var revisions = revisionsById.get(id);
+        if (revisions == null || revision < 0 || revision >= revisions.entries.size())
+            throw new IllegalArgumentException("Ревизия " + revision + " не найдена для задачи " + id);
+
+        // Ближайшая полная копия не дальше checkpointInterval ревизий назад
+        int base = revision;
+        while (!(revisions.entries.get(base) instanceof Task)) {
+            base--;
+        }
+
+        var state = ((Task) revisions.entries.get(base)).clone();
+        for (int i = base + 1; i <= revision; i++) {
+            apply(state, (Delta) revisions.entries.get(i));
+        }
+        return state;
+    }
+
+    // Подзадача или эпик, перенесённые в другой эпик, записываются полной копией
+    private static boolean sameShape(Task previous, Task current) {
+        if (previous == null || previous.getClass() != current.getClass())
+            return false;
+        if (previous instanceof Subtask previousSubtask)
+            return Objects.equals(previousSubtask.getEpicId(), ((Subtask) current).getEpicId());
+        if (previous instanceof Epic previousEpic)
+            return Objects.equals(previousEpic.getParentEpicId(), ((Epic) current).getParentEpicId());
+        return true;
+    }
+
+    private static Delta diff(Task previous, Task current) {
+        int mask = 0;
+        List<Object> values = new ArrayList<>(2);
+        if (!Objects.equals(previous.getName(), current.getName())) {
+            mask |= NAME;
+            values.add(current.getName());
+        }
+        if (!Objects.equals(previous.getDescription(), current.getDescription())) {
+            mask |= DESCRIPTION;
+            values.add(current.getDescription());
+        }
+        if (previous.getStatus() != current.getStatus()) {
+            mask |= STATUS;
+            values.add(current.getStatus());
+        }
+        if (!Objects.equals(ownStartTime(previous), ownStartTime(current))) {
+            mask |= START_TIME;
+            values.add(ownStartTime(current));
+        }
+        if (!Objects.equals(ownDuration(previous), ownDuration(current))) {
+            mask |= DURATION;
+            values.add(ownDuration(current));
+        }
+        if (previous.getVersion() != current.getVersion()) {
+            mask |= VERSION;
+            values.add(current.getVersion());
+        }
+        return new Delta(mask, values.toArray());
+    }
+
+    private static void apply(Task state, Delta delta) {
+        int index = 0;
+        var values = delta.values();
+        if ((delta.mask() & NAME) != 0)
+            state.setName((String) values[index++]);
+        if ((delta.mask() & DESCRIPTION) != 0)
+            state.setDescription((String) values[index++]);
+        if ((delta.mask() & STATUS) != 0)
+            state.setStatus((Status) values[index++]);
+        if ((delta.mask() & START_TIME) != 0)
+            state.setStartTime((LocalDateTime) values[index++]);
+        if ((delta.mask() & DURATION) != 0)
+            state.setDuration((Duration) values[index++]);
+        if ((delta.mask() & VERSION) != 0)
+            state.setVersion((Integer) values[index]);
+    }
+
+    // У эпика время вычисляется из подзадач и в ревизии не входит
+    private static LocalDateTime ownStartTime(Task task) {
+        return task instanceof Epic ? null : task.getStartTime();
+    }
+
+    private static Duration ownDuration(Task task) {
+        return task instanceof Epic ? null : task.getDuration();
+    }
+}
@@ -0,0 +1,211 @@
+package ru.yandex.kanban.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Истории просмотров отдельных пользователей (сессий).
+ * <p>
+ * Хранятся только id задач, поэтому запись истории занимает несколько десятков байт.
+ * У всех историй общий лимит записей: при его превышении удаляются самые старые просмотры
+ * сессии, которая дольше всех была неактивна. Сессии без обращений дольше idleTtl удаляются
+ * целиком. Обратный индекс id задачи → сессии позволяет убрать удалённую задачу только из тех
+ * историй, где она есть.
+ */
+
+public class SessionHistories {
+
+    private static class Session {
+        private final String userId;
+        // Порядок вставки — порядок просмотров, повторный просмотр переносит id в конец
+        private final LinkedHashSet<Integer> taskIds = new LinkedHashSet<>();
+        private long lastAccess;
+
+        Session(String userId) {
+            this.userId = userId;
+        }
+    }
+
+    private final int maxEntries;
+    private final int maxEntriesPerSession;
+    private final long idleTtlMillis;
+    private final Clock clock;
+
+    // Порядок доступа: в начале сессии, к которым дольше всех не обращались
+    private final LinkedHashMap<String, Session> sessions = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Integer, Set<Session>> sessionsByTaskId = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private int entryCount;
+
+    public SessionHistories(int maxEntries, int maxEntriesPerSession, Duration idleTtl, Clock clock) {
+        if (maxEntries <= 0 || maxEntriesPerSession <= 0)
+            throw new IllegalArgumentException("Лимиты истории должны быть положительными: "
+                    + maxEntries + ", " + maxEntriesPerSession);
+        if (idleTtl == null || idleTtl.isNegative() || idleTtl.isZero())
+            throw new IllegalArgumentException("Время жизни сессии должно быть положительным: " + idleTtl);
+        if (clock == null)
+            throw new IllegalArgumentException("Clock не должен быть null.");
+
+        this.maxEntries = maxEntries;
+        this.maxEntriesPerSession = maxEntriesPerSession;
+        this.idleTtlMillis = idleTtl.toMillis();
+        this.clock = clock;
+    }
+
+    public void record(String userId, int taskId) {
+        checkUserId(userId);
+
+        lock.lock();
+        try {
+            long now = clock.millis();
+            evictIdle(now);
+
+            var session = sessions.computeIfAbsent(userId, Session::new);
+            session.lastAccess = now;
+            if (session.taskIds.remove(taskId)) {
+                session.taskIds.add(taskId);
+                return;
+            }
+
+            if (session.taskIds.size() == maxEntriesPerSession)
+                removeOldest(session);
+            session.taskIds.add(taskId);
+            sessionsByTaskId.computeIfAbsent(taskId, id -> new HashSet<>()).add(session);
+            entryCount++;
+
+            // Общий лимит: освобождаем место за счёт самой неактивной сессии. Пустых сессий
+            // в таблице нет: remove и это вытеснение удаляют их сразу
+            while (entryCount > maxEntries) {
+                var oldest = sessions.values().iterator().next();
+                removeOldest(oldest);
+                if (oldest.taskIds.isEmpty())
+                    sessions.remove(oldest.userId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Удаляет задачу из всех историй, где она есть. Опустевшие сессии удаляются
+    public void remove(int taskId) {
+        lock.lock();
+        try {
+            var holders = sessionsByTaskId.remove(taskId);
+            if (holders == null)
+                return;
+
+            for (Session session : holders) {
+                session.taskIds.remove(taskId);
+                entryCount--;
+                if (session.taskIds.isEmpty())
+                    sessions.remove(session.userId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Id просмотренных задач от давних к последним
+    public List<Integer> getTaskIds(String userId) {
+        checkUserId(userId);
+
+        lock.lock();
+        try {
+            long now = clock.millis();
+            evictIdle(now);
+
+            var session = sessions.get(userId);
+            if (session == null)
+                return Collections.emptyList();
+
+            session.lastAccess = now;
+            return new ArrayList<>(session.taskIds);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void removeSession(String userId) {
+        lock.lock();
+        try {
+            var session = sessions.remove(userId);
+            if (session != null)
+                dropSession(session);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getSessionCount() {
+        lock.lock();
+        try {
+            return sessions.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getEntryCount() {
+        lock.lock();
+        try {
+            return entryCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void checkUserId(String userId) {
+        if (userId == null || userId.isBlank())
+            throw new IllegalArgumentException("Id пользователя не должен быть пустым.");
+    }
+
+    // Сессии упорядочены по обращениям, поэтому неактивные всегда в начале
+    private void evictIdle(long now) {
+        Iterator<Session> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            var session = iterator.next();
+            if (now - session.lastAccess < idleTtlMillis)
+                break;
+
+            iterator.remove();
+            dropSession(session);
+        }
+    }
+
+    private void dropSession(Session session) {
+        for (Integer taskId : session.taskIds) {
+            unindex(taskId, session);
+        }
+        entryCount -= session.taskIds.size();
+        session.taskIds.clear();
+    }
+
+    private void removeOldest(Session session) {
+        Iterator<Integer> iterator = session.taskIds.iterator();
+        var taskId = iterator.next();
+        iterator.remove();
+        unindex(taskId, session);
+        entryCount--;
+    }
+
+    private void unindex(Integer taskId, Session session) {
+        var holders = sessionsByTaskId.get(taskId);
+        if (holders == null)
+            return;
+
+        holders.remove(session);
+        if (holders.isEmpty())
+            sessionsByTaskId.remove(taskId);
+    }
+}
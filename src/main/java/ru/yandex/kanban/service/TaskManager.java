@@ -1,10 +1,28 @@
 package ru.yandex.kanban.service;
 
 import ru.yandex.kanban.issue.Epic;
+import ru.yandex.kanban.issue.Status;
 import ru.yandex.kanban.issue.Subtask;
 import ru.yandex.kanban.issue.Task;
+import ru.yandex.kanban.issue.TaskType;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Менеджер задач. Реализации не потокобезопасны: если менеджер используют несколько потоков,
+ * все вызовы выполняются под одной общей блокировкой, как в HttpTaskServer, BinaryTaskServer
+ * и AsyncTaskManager.
+ * <p>
+ * Версии задач в update-методах — оптимистичная блокировка между клиентами, а не замена этой
+ * блокировке. Они не дают клиенту, который прочитал задачу раньше, затереть чужое изменение.
+ * Одновременные вызовы менеджера из разных потоков версии не защищают.
+ */
 
 public interface TaskManager {
     /**
@@ -28,6 +46,7 @@ public interface TaskManager {
     int createTask(Task task);
 
     // e. Обновление. Новая версия объекта с верным идентификатором передаётся в виде параметра.
+    // Версия объекта должна совпадать с текущей, иначе TaskVersionConflictException.
     void updateTask(Task task);
 
     // f. Удаление по идентификатору.
@@ -46,6 +65,7 @@ public interface TaskManager {
     int createEpic(Epic epic);
 
     // e. Обновление. Новая версия объекта с верным идентификатором передаётся в виде параметра.
+    // Версия объекта должна совпадать с текущей, иначе TaskVersionConflictException.
     void updateEpic(Epic epic);
 
     // f. Удаление по идентификатору.
@@ -64,6 +84,7 @@ public interface TaskManager {
     int createSubtask(Subtask subtask);
 
     // e. Обновление. Новая версия объекта с верным идентификатором передаётся в виде параметра.
+    // Версия объекта должна совпадать с текущей, иначе TaskVersionConflictException.
     void updateSubtask(Subtask subtask);
 
     // f. Удаление по идентификатору.
@@ -73,6 +94,120 @@ public interface TaskManager {
     // a. Получение списка всех подзадач определённого эпика.
     List<Subtask> getAllSubtasksByEpicId(int epicId);
 
+    // Страницы списков в порядке возрастания id: не больше limit задач с id больше afterId.
+    // Следующая страница запрашивается от id последней задачи
+    List<Task> getTasksPage(int afterId, int limit);
+
+    List<Epic> getEpicsPage(int afterId, int limit);
+
+    List<Subtask> getSubtasksPage(int afterId, int limit);
+
     // Получение списка последних просмотренных задач
     List<Task> getHistory();
+
+    // Последние count просмотренных задач и страница истории: читается только запрошенная часть
+    List<Task> getLastHistory(int count);
+
+    List<Task> getHistoryPage(int offset, int limit);
+
+    // Просмотры конкретного пользователя: попадают и в общую историю, и в историю пользователя
+    Task getTaskById(int taskId, String userId);
+
+    Epic getEpicById(int epicId, String userId);
+
+    Subtask getSubtaskById(int subtaskId, String userId);
+
+    // История просмотров пользователя, задачи в текущем состоянии
+    List<Task> getHistory(String userId);
+
+    // Задачи и подзадачи с заданным временем начала в порядке его возрастания
+    List<Task> getPrioritizedTasks();
+
+    // Приблизительно самые просматриваемые задачи за всё время и за последнее окно (до часа),
+    // например для прогрева кэша
+    List<Task> getMostViewed(int count);
+
+    List<Task> getMostViewed(int count, Duration window);
+
+    // Массовые операции: один проход по индексам, один пересчёт эпика и одно сохранение
+    // Установка статуса всем подзадачам эпика, подходящим под условие. Возвращает число изменённых подзадач.
+    // Условие и статус обязательны, иначе IllegalArgumentException
+    int updateSubtasksStatusByEpicId(int epicId, Predicate<Subtask> filter, Status status);
+
+    // Удаление всех задач и подзадач с указанным статусом. Возвращает число удалённых
+    int removeAllByStatus(Status status);
+
+    // Транзакция: операции выполняются атомарно, при ошибке все изменения откатываются
+    void runInTransaction(Consumer<TaskManager> operations);
+
+    // Пакет независимых операций: каждая выполняется и откатывается отдельно, ошибка одной не отменяет
+    // остальные, а сохранение — одно на весь пакет. Возвращает ошибки по позициям операций (null — успех)
+    List<RuntimeException> runBatch(List<Consumer<TaskManager>> operations);
+
+    // Состояние доски в прошлом. Ревизия — номер последнего изменения, её достаточно запомнить как снимок
+    long getCurrentRevision();
+
+    // Лента изменений задач, эпиков и подзадач: одно событие на задачу за операцию
+    ChangeFeed getChangeFeed();
+
+    // Версии для кеширования ответов: ревизия последнего изменения задач данного вида и эпика
+    // (включая подзадачи и вложенные эпики). Просмотры версии не меняют, общая версия — getCurrentRevision
+    long getModificationVersion(TaskType type);
+
+    long getEpicModificationVersion(int epicId);
+
+    // Ревизия, действовавшая в указанный момент времени
+    long getRevisionAt(Instant time);
+
+    // Задача, эпик или подзадача на момент ревизии (null — ещё не создана или уже удалена)
+    Task getIssueByIdAt(int id, long revision);
+
+    List<Task> getAllTasksAt(long revision);
+
+    // Эпики возвращаются без списка подзадач: состав эпика восстанавливается по getAllSubtasksAt
+    List<Epic> getAllEpicsAt(long revision);
+
+    List<Subtask> getAllSubtasksAt(long revision);
+
+    // Отмена последней операции и её повтор. false — отменять (повторять) нечего
+    boolean undo();
+
+    boolean redo();
+
+    // История правок задачи: ревизии нумеруются с 0 (создание), удаление задачи очищает её историю
+    int getRevisionCount(int id);
+
+    Task getTaskRevision(int id, int revision);
+
+    // Вложенные эпики: перенос эпика вместе с поддеревом под другой эпик (null — на верхний уровень)
+    void setEpicParent(int epicId, Integer parentEpicId);
+
+    // Процент завершённых подзадач во всём поддереве эпика
+    int getEpicProgress(int epicId);
+
+    // Зависимости между задачами и подзадачами: blocker должен быть завершён раньше dependent.
+    // Зависимость, образующая цикл, отклоняется с IllegalArgumentException
+    void addDependency(int blockerId, int dependentId);
+
+    void removeDependency(int blockerId, int dependentId);
+
+    Set<Integer> getBlockerIds(int id);
+
+    // Задачи в статусе NEW, у которых все блокеры завершены
+    List<Integer> getReadyTaskIds();
+
+    // Все задачи и подзадачи в порядке, совместимом с зависимостями
+    List<Integer> getTopologicalOrder();
+
+    // Канбан-доска: id задач и подзадач колонки статуса в порядке попадания в неё (не более limit)
+    List<Integer> getBoardColumn(Status status, int limit);
+
+    // Количество карточек в каждой колонке доски
+    Map<Status, Integer> getBoardCounts();
+
+    // Колонка доски, ограниченная подзадачами эпика
+    List<Integer> getEpicBoardColumn(int epicId, Status status, int limit);
+
+    // Количество подзадач эпика в каждой колонке доски
+    Map<Status, Integer> getEpicBoardCounts(int epicId);
 }
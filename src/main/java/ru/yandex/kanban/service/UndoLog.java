@@ -0,0 +1,94 @@
+package ru.yandex.kanban.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Журнал отмены и повтора операций менеджера. Каждая операция хранится как список изменений
+ * (состояние до и после, рёбра зависимостей), обратная операция — это применение состояний "до"
+ * в обратном порядке.
+ * <p>
+ * Журнал ограничен числом операций и общим числом хранимых изменений: при переполнении
+ * вытесняются самые старые операции. Запись операции стоит O(1), вытеснение — амортизированно O(1).
+ * Ограничение считает изменения, а не байты: изменение задачи хранит её полные копии до и после,
+ * вместе с названием и описанием, поэтому память журнала растёт и с размером задач.
+ */
+
+class UndoLog {
+    private final Deque<List<OperationChange>> undo = new ArrayDeque<>();
+    private final Deque<List<OperationChange>> redo = new ArrayDeque<>();
+    private int maxOperations;
+    private int maxChanges;
+    // Сколько изменений хранится в обоих стеках
+    private int recordedChanges;
+
+    UndoLog(int maxOperations, int maxChanges) {
+        setLimits(maxOperations, maxChanges);
+    }
+
+    void setLimits(int maxOperations, int maxChanges) {
+        if (maxOperations < 0 || maxChanges < 0)
+            throw new IllegalArgumentException("Ограничения журнала отмены не могут быть отрицательными");
+
+        this.maxOperations = maxOperations;
+        this.maxChanges = maxChanges;
+        evict();
+    }
+
+    // Новая операция: ветка повтора становится неактуальной
+    void record(List<OperationChange> operation) {
+        if (operation.isEmpty())
+            return;
+
+        redo.forEach(undone -> recordedChanges -= undone.size());
+        redo.clear();
+        pushUndo(operation);
+    }
+
+    List<OperationChange> popUndo() {
+        var operation = undo.pollLast();
+        if (operation != null)
+            recordedChanges -= operation.size();
+        return operation;
+    }
+
+    List<OperationChange> popRedo() {
+        var operation = redo.pollLast();
+        if (operation != null)
+            recordedChanges -= operation.size();
+        return operation;
+    }
+
+    void pushUndo(List<OperationChange> operation) {
+        undo.addLast(operation);
+        recordedChanges += operation.size();
+        evict();
+    }
+
+    void pushRedo(List<OperationChange> operation) {
+        redo.addLast(operation);
+        recordedChanges += operation.size();
+    }
+
+    int getUndoSize() {
+        return undo.size();
+    }
+
+    int getRedoSize() {
+        return redo.size();
+    }
+
+    int getRecordedChanges() {
+        return recordedChanges;
+    }
+
+    private void evict() {
+        while (!undo.isEmpty() && (undo.size() > maxOperations || recordedChanges > maxChanges)) {
+            recordedChanges -= undo.pollFirst().size();
+        }
+        while (!redo.isEmpty() && recordedChanges > maxChanges) {
+            recordedChanges -= redo.pollFirst().size();
+        }
+    }
+}
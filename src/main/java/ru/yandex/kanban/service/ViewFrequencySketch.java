@@ -0,0 +1,230 @@
+package ru.yandex.kanban.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Приблизительная статистика просмотров задач в фиксированном объёме памяти.
+ * <p>
+ * Частоты считаются count-min sketch: несколько строк счётчиков, в каждой задача попадает
+ * в одну ячейку, оценка — минимум по строкам (может быть только завышена). Рядом хранится
+ * не больше capacity кандидатов в самые просматриваемые задачи с их оценками: новая задача
+ * вытесняет кандидата с наименьшей оценкой, если её оценка больше.
+ * <p>
+ * Кроме общей статистики ведётся кольцо корзин по bucketDuration. Корзина, время которой
+ * прошло, обнуляется и переиспользуется, поэтому память не зависит от времени работы.
+ */
+
+public class ViewFrequencySketch {
+    private static final int DEPTH = 4;
+
+    // Счётчики и кандидаты одного промежутка времени (или всего времени работы)
+    private static class Sketch {
+        private final int[][] counters;
+        private final int mask;
+        private final int capacity;
+        private final Map<Integer, Long> candidates;
+        private long epoch = -1;
+
+        Sketch(int width, int capacity) {
+            this.counters = new int[DEPTH][width];
+            this.mask = width - 1;
+            this.capacity = capacity;
+            this.candidates = HashMap.newHashMap(capacity + 1);
+        }
+
+        void record(int id) {
+            long hash = id * 0x9E3779B97F4A7C15L;
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            long estimate = Long.MAX_VALUE;
+            for (int row = 0; row < DEPTH; row++) {
+                int[] counts = counters[row];
+                int cell = (h1 + row * h2) & mask;
+                if (counts[cell] != Integer.MAX_VALUE)
+                    counts[cell]++;
+                estimate = Math.min(estimate, counts[cell]);
+            }
+            offer(id, estimate);
+        }
+
+        long estimate(int id) {
+            long hash = id * 0x9E3779B97F4A7C15L;
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            long estimate = Long.MAX_VALUE;
+            for (int row = 0; row < DEPTH; row++) {
+                estimate = Math.min(estimate, counters[row][(h1 + row * h2) & mask]);
+            }
+            return estimate;
+        }
+
+        private void offer(int id, long estimate) {
+            if (candidates.containsKey(id) || candidates.size() < capacity) {
+                candidates.put(id, estimate);
+                return;
+            }
+
+            // Кандидатов немного, поэтому минимум ищется простым проходом
+            Integer weakest = null;
+            long weakestEstimate = Long.MAX_VALUE;
+            for (var entry : candidates.entrySet()) {
+                if (entry.getValue() < weakestEstimate) {
+                    weakest = entry.getKey();
+                    weakestEstimate = entry.getValue();
+                }
+            }
+            if (estimate > weakestEstimate) {
+                candidates.remove(weakest);
+                candidates.put(id, estimate);
+            }
+        }
+
+        void reset(long epoch) {
+            for (int[] counts : counters) {
+                Arrays.fill(counts, 0);
+            }
+            candidates.clear();
+            this.epoch = epoch;
+        }
+    }
+
+    private final Sketch total;
+    private final Sketch[] buckets;
+    private final long bucketMillis;
+    private final Clock clock;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * @param capacity       сколько самых просматриваемых задач отслеживается
+     * @param width          ширина строки счётчиков, округляется вверх до степени двойки
+     * @param bucketDuration длительность корзины окна
+     * @param bucketCount    число корзин: самое длинное окно — bucketDuration * bucketCount
+     */
+    public ViewFrequencySketch(int capacity, int width, Duration bucketDuration, int bucketCount, Clock clock) {
+        if (capacity <= 0 || width <= 0 || bucketCount <= 0)
+            throw new IllegalArgumentException("Размеры статистики просмотров должны быть положительными: "
+                    + capacity + ", " + width + ", " + bucketCount);
+        if (bucketDuration == null || bucketDuration.toMillis() <= 0)
+            throw new IllegalArgumentException("Длительность корзины должна быть положительной: " + bucketDuration);
+        if (clock == null)
+            throw new IllegalArgumentException("Clock не должен быть null.");
+
+        int roundedWidth = Integer.highestOneBit(Math.max(width - 1, 1)) << 1;
+        this.total = new Sketch(roundedWidth, capacity);
+        this.buckets = new Sketch[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new Sketch(roundedWidth, capacity);
+        }
+        this.bucketMillis = bucketDuration.toMillis();
+        this.clock = clock;
+    }
+
+    public void record(int id) {
+        lock.lock();
+        try {
+            total.record(id);
+            currentBucket().record(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Удалённая задача больше не предлагается в самые просматриваемые, счётчики не уменьшаются
+    public void remove(int id) {
+        lock.lock();
+        try {
+            total.candidates.remove(id);
+            for (Sketch bucket : buckets) {
+                bucket.candidates.remove(id);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long estimate(int id) {
+        lock.lock();
+        try {
+            return total.estimate(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Id самых просматриваемых задач за всё время, по убыванию оценки
+    public List<Integer> getTop(int count) {
+        lock.lock();
+        try {
+            return top(count, total.candidates.keySet(), List.of(total));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Id самых просматриваемых задач за последнее окно, округлённое вверх до целых корзин
+    public List<Integer> getTop(int count, Duration window) {
+        if (window == null || window.isNegative())
+            throw new IllegalArgumentException("Окно статистики не может быть отрицательным: " + window);
+
+        lock.lock();
+        try {
+            long currentEpoch = clock.millis() / bucketMillis;
+            long bucketsInWindow = Math.min(buckets.length, Math.max(1, Math.ceilDiv(window.toMillis(), bucketMillis)));
+
+            List<Sketch> recent = new ArrayList<>();
+            Set<Integer> candidates = new HashSet<>();
+            for (Sketch bucket : buckets) {
+                if (bucket.epoch > currentEpoch - bucketsInWindow && bucket.epoch <= currentEpoch) {
+                    recent.add(bucket);
+                    candidates.addAll(bucket.candidates.keySet());
+                }
+            }
+            return top(count, candidates, recent);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getMemoryBytes() {
+        long rowBytes = (long) total.counters[0].length * Integer.BYTES;
+        return (buckets.length + 1L) * DEPTH * rowBytes;
+    }
+
+    private Sketch currentBucket() {
+        long epoch = clock.millis() / bucketMillis;
+        Sketch bucket = buckets[Math.floorMod(epoch, buckets.length)];
+        if (bucket.epoch != epoch)
+            bucket.reset(epoch);
+        return bucket;
+    }
+
+    private static List<Integer> top(int count, Set<Integer> candidates, List<Sketch> sketches) {
+        if (count < 0)
+            throw new IllegalArgumentException("Размер выборки не может быть отрицательным: " + count);
+
+        Map<Integer, Long> estimates = HashMap.newHashMap(candidates.size());
+        for (Integer id : candidates) {
+            long sum = 0;
+            for (Sketch sketch : sketches) {
+                sum += sketch.estimate(id);
+            }
+            estimates.put(id, sum);
+        }
+
+        return estimates.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(count)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+}
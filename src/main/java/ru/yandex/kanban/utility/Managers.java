@@ -1,10 +1,15 @@
 package ru.yandex.kanban.utility;
 
+import ru.yandex.kanban.service.AsyncHistoryManager;
+import ru.yandex.kanban.service.AsyncTaskManager;
+import ru.yandex.kanban.service.ConcurrentHistoryManager;
 import ru.yandex.kanban.service.HistoryManager;
 import ru.yandex.kanban.service.InMemoryHistoryManager;
 import ru.yandex.kanban.service.InMemoryTaskManager;
 import ru.yandex.kanban.service.TaskManager;
 
+import java.time.Clock;
+import java.time.Duration;
 
 public final class Managers {
     private Managers() {
@@ -21,4 +26,32 @@ public final class Managers {
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
+
+    /**
+     * История с ограниченным размером (LRU) и, если ttl не null, временем жизни записей.
+     */
+    public static HistoryManager getBoundedHistory(int capacity, Duration ttl) {
+        return new InMemoryHistoryManager(capacity, ttl, Clock.systemUTC());
+    }
+
+    /**
+     * Потокобезопасная история: просмотры из разных потоков не блокируют друг друга.
+     */
+    public static HistoryManager getConcurrentHistory() {
+        return new ConcurrentHistoryManager(new InMemoryHistoryManager());
+    }
+
+    /**
+     * История с записью просмотров в фоновом потоке. После использования её нужно закрыть.
+     */
+    public static AsyncHistoryManager getAsyncHistory() {
+        return new AsyncHistoryManager(new InMemoryHistoryManager());
+    }
+
+    /**
+     * Асинхронный фасад менеджера на виртуальных потоках. После использования его нужно закрыть.
+     */
+    public static AsyncTaskManager getAsync(TaskManager manager) {
+        return new AsyncTaskManager(manager);
+    }
 }
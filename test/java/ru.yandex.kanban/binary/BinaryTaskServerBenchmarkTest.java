@@ -0,0 +1,110 @@
+package ru.yandex.kanban.binary;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import ru.yandex.kanban.http.HttpTaskServer;
+import ru.yandex.kanban.issue.Status;
+import ru.yandex.kanban.issue.Task;
+import ru.yandex.kanban.issue.TaskType;
+import ru.yandex.kanban.service.TaskManager;
+import ru.yandex.kanban.utility.Managers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сравнение пропускной способности двоичного протокола и HTTP API на чтении задач по id.
+ * Оба сервера обслуживают один менеджер с общей блокировкой.
+ * Запуск: mvn test -Dtest=BinaryTaskServerBenchmarkTest -Dbenchmark=true
+ */
+
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BinaryTaskServerBenchmarkTest {
+    private static final int TASKS = 100;
+    private static final int REQUESTS = 200_000;
+    private static final int HTTP_CLIENTS = 64;
+
+    @Test
+    void binaryAgainstHttp() throws Exception {
+        TaskManager manager = Managers.getDefault();
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            ids.add(manager.createTask(new Task("Задача " + i, "Описание", Status.NEW)));
+        }
+
+        ReentrantLock lock = new ReentrantLock();
+        HttpTaskServer http = new HttpTaskServer(manager, 0, lock);
+        BinaryTaskServer binary = new BinaryTaskServer(manager, 0, lock);
+        http.start();
+        binary.start();
+        try {
+            // Прогрев обоих серверов
+            runBinary(binary.getPort(), ids, REQUESTS / 10);
+            runHttp(http.getPort(), ids, REQUESTS / 100);
+
+            double binarySeconds = runBinary(binary.getPort(), ids, REQUESTS);
+            double httpSeconds = runHttp(http.getPort(), ids, REQUESTS / 10);
+            System.out.printf("Двоичный протокол: %d запросов по одному соединению за %.2f с — %.0f запросов/с%n",
+                    REQUESTS, binarySeconds, REQUESTS / binarySeconds);
+            System.out.printf("HTTP: %d запросов, %d клиентов за %.2f с — %.0f запросов/с%n",
+                    REQUESTS / 10, HTTP_CLIENTS, httpSeconds, REQUESTS / 10 / httpSeconds);
+        } finally {
+            binary.stop();
+            http.stop();
+        }
+    }
+
+    // Все запросы отправляются подряд, ответы собираются в конце
+    private static double runBinary(int port, List<Integer> ids, int requests) throws Exception {
+        try (BinaryTaskClient client = new BinaryTaskClient("localhost", port)) {
+            long start = System.nanoTime();
+            List<CompletableFuture<Task>> futures = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                futures.add(client.get(TaskType.TASK, ids.get(i % ids.size())));
+            }
+            for (CompletableFuture<Task> future : futures) {
+                assertNotNull(future.get());
+            }
+            return (System.nanoTime() - start) / 1e9;
+        }
+    }
+
+    private static double runHttp(int port, List<Integer> ids, int requests) throws Exception {
+        AtomicInteger failures = new AtomicInteger();
+        long start;
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < HTTP_CLIENTS; c++) {
+                int clientId = c;
+                futures.add(clients.submit(() -> {
+                    for (int r = clientId; r < requests; r += HTTP_CLIENTS) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(
+                                "http://localhost:" + port + "/tasks/" + ids.get(r % ids.size()))).build();
+                        if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200)
+                            failures.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        assertEquals(0, failures.get());
+        return (System.nanoTime() - start) / 1e9;
+    }
+}
@@ -0,0 +1,204 @@
+package ru.yandex.kanban.binary;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.kanban.exception.TaskVersionConflictException;
+import ru.yandex.kanban.issue.Epic;
+import ru.yandex.kanban.issue.Status;
+import ru.yandex.kanban.issue.Subtask;
+import ru.yandex.kanban.issue.Task;
+import ru.yandex.kanban.issue.TaskType;
+import ru.yandex.kanban.service.TaskManager;
+import ru.yandex.kanban.utility.Managers;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryTaskServerTest {
+    private TaskManager manager;
+    private BinaryTaskServer server;
+    private BinaryTaskClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        manager = Managers.getDefault();
+        server = new BinaryTaskServer(manager, 0, new ReentrantLock());
+        server.start();
+        client = new BinaryTaskClient("localhost", server.getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.stop();
+    }
+
+    @Test
+    void taskLifecycle() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 10, 0, 0, 500);
+        int id = client.create(new Task("Задача", "Описание", Status.NEW, start, Duration.ofMinutes(30))).get();
+        assertEquals("Задача", manager.getTaskById(id).getName());
+
+        Task found = client.get(TaskType.TASK, id).get();
+        assertEquals(id, found.getId());
+        assertEquals("Описание", found.getDescription());
+        assertEquals(start, found.getStartTime());
+        assertEquals(Duration.ofMinutes(30), found.getDuration());
+
+        Task changed = new Task(id, "Новое", null, Status.DONE, null, null);
+        changed.setVersion(found.getVersion());
+        int version = client.update(changed).get();
+        assertEquals(manager.getTaskById(id).getVersion(), version);
+        assertEquals(Status.DONE, manager.getTaskById(id).getStatus());
+        assertNull(manager.getTaskById(id).getDescription());
+
+        // Повтор с устаревшей версией — конфликт
+        ExecutionException conflict = assertThrows(ExecutionException.class, () -> client.update(changed).get());
+        assertInstanceOf(TaskVersionConflictException.class, conflict.getCause());
+
+        client.remove(TaskType.TASK, id).get();
+        assertTrue(manager.getAllTasks().isEmpty());
+        ExecutionException missing = assertThrows(ExecutionException.class,
+                () -> client.get(TaskType.TASK, id).get());
+        assertInstanceOf(IllegalArgumentException.class, missing.getCause());
+    }
+
+    @Test
+    void epicWithSubtasks() throws Exception {
+        int epicId = client.create(new Epic("Эпик", "Описание")).get();
+        int first = client.create(new Subtask(epicId, "Подзадача 1", "", Status.NEW)).get();
+        int second = client.create(new Subtask(epicId, "Подзадача 2", "", Status.DONE)).get();
+
+        Epic epic = (Epic) client.get(TaskType.EPIC, epicId).get();
+        assertEquals(Set.of(first, second), epic.getDependentSubtaskIds());
+
+        List<Task> subtasks = client.getEpicSubtasks(epicId).get();
+        assertEquals(2, subtasks.size());
+        assertEquals(epicId, ((Subtask) subtasks.getFirst()).getEpicId());
+        assertEquals(List.of(first), client.getPage(TaskType.SUBTASK, 0, 1).get().stream()
+                .map(Task::getId).toList());
+        assertEquals(epicId, client.getHistory().get().getFirst().getId());
+
+        client.removeAll(TaskType.EPIC).get();
+        assertTrue(manager.getAllSubtasks().isEmpty());
+        assertTrue(client.undo().get());
+        assertEquals(2, client.getAll(TaskType.SUBTASK).get().size());
+    }
+
+    @Test
+    void pipelinedRequestsComeBackInOrder() throws Exception {
+        List<CompletableFuture<Integer>> created = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            created.add(client.create(new Task("Задача " + i, "Описание", Status.NEW)));
+        }
+
+        List<CompletableFuture<Task>> found = new ArrayList<>();
+        for (CompletableFuture<Integer> id : created) {
+            found.add(client.get(TaskType.TASK, id.get()));
+        }
+        for (int i = 0; i < found.size(); i++) {
+            assertEquals("Задача " + i, found.get(i).get().getName());
+        }
+        assertEquals(5_000, client.getAll(TaskType.TASK).get().size());
+    }
+
+    @Test
+    void failedEncodingDoesNotBreakConnection() throws Exception {
+        // Задача без статуса не кодируется: вызов падает, а недописанный кадр не уходит на сервер
+        assertThrows(NullPointerException.class, () -> client.create(new Task("x", "d", null)));
+
+        int id = client.create(new Task("Задача", "Описание", Status.NEW)).get();
+        assertEquals("Задача", client.get(TaskType.TASK, id).get().getName());
+        assertEquals(1, manager.getAllTasks().size());
+    }
+
+    @Test
+    void pipelinedLargeResponsesAreAllAnswered() throws Exception {
+        String description = "Описание ".repeat(100);
+        for (int i = 0; i < 200; i++) {
+            manager.createTask(new Task("Задача " + i, description, Status.NEW));
+        }
+
+        // Все запросы приходят одним чтением, а ответы на них много больше OUTPUT_LIMIT
+        List<CompletableFuture<List<Task>>> lists = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            lists.add(client.getAll(TaskType.TASK));
+        }
+        int id = client.create(new Task("Последняя", "Описание", Status.NEW)).get();
+        for (CompletableFuture<List<Task>> list : lists) {
+            assertEquals(200, list.get().size());
+        }
+        assertEquals("Последняя", client.get(TaskType.TASK, id).get().getName());
+    }
+
+    @Test
+    void stringLargerThanBuffers() throws Exception {
+        String description = "Ж".repeat(200_000);
+        int id = client.create(new Task("Большая", description, Status.NEW)).get();
+
+        assertEquals(description, manager.getTaskById(id).getDescription());
+        assertEquals(description, client.get(TaskType.TASK, id).get().getDescription());
+    }
+
+    @Test
+    void responseLargerThanFrameLimitIsRejectedWithError() throws Exception {
+        String description = "x".repeat(1024 * 1024);
+        for (int i = 0; i < 17; i++) {
+            manager.createTask(new Task("Задача " + i, description, Status.NEW));
+        }
+
+        CompletableFuture<List<Task>> all = client.getAll(TaskType.TASK);
+        CompletableFuture<List<Task>> page = client.getPage(TaskType.TASK, Integer.MIN_VALUE, 4);
+        ExecutionException tooLarge = assertThrows(ExecutionException.class, all::get);
+        assertInstanceOf(IllegalStateException.class, tooLarge.getCause());
+        assertTrue(tooLarge.getCause().getMessage().contains("GET_PAGE"));
+
+        // Соединение не закрыто: следующий запрос в конвейере получает ответ
+        assertEquals(4, page.get().size());
+    }
+
+    @Test
+    void unknownTaskTypeIsBadRequest() throws Exception {
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.getPort()))) {
+            ByteBuffer request = ByteBuffer.allocate(Integer.BYTES + BinaryProtocol.HEADER_SIZE + 1 + Integer.BYTES);
+            request.putInt(BinaryProtocol.HEADER_SIZE + 1 + Integer.BYTES).putInt(7).put(BinaryProtocol.GET)
+                    .put((byte) 9).putInt(0).flip();
+            channel.write(request);
+
+            ByteBuffer response = ByteBuffer.allocate(Integer.BYTES + BinaryProtocol.HEADER_SIZE);
+            while (response.hasRemaining() && channel.read(response) >= 0) {
+                // Читаем длину, id запроса и статус
+            }
+            assertEquals(7, response.getInt(Integer.BYTES));
+            assertEquals(BinaryProtocol.BAD_REQUEST, response.get(Integer.BYTES * 2));
+        }
+
+        ExecutionException missing = assertThrows(ExecutionException.class,
+                () -> client.remove(TaskType.TASK, 999).get());
+        assertInstanceOf(IllegalArgumentException.class, missing.getCause());
+    }
+
+    @Test
+    void malformedFrameClosesOnlyItsConnection() throws Exception {
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.getPort()))) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, -1));
+            assertEquals(-1, channel.read(ByteBuffer.allocate(16)));
+        }
+
+        int id = client.create(new Task("Задача", "Описание", Status.NEW)).get();
+        assertEquals(id, client.get(TaskType.TASK, id).get().getId());
+    }
+}
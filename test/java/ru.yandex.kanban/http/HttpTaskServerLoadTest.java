@@ -0,0 +1,75 @@
+package ru.yandex.kanban.http;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import ru.yandex.kanban.issue.Status;
+import ru.yandex.kanban.issue.Task;
+import ru.yandex.kanban.service.TaskManager;
+import ru.yandex.kanban.utility.Managers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Нагрузочный тест: тысячи клиентов одновременно читают задачи.
+ * Запуск: mvn test -Dtest=HttpTaskServerLoadTest -Dbenchmark=true
+ */
+
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class HttpTaskServerLoadTest {
+    private static final int CLIENTS = 2_000;
+    private static final int REQUESTS_PER_CLIENT = 20;
+
+    @Test
+    void thousandsOfConcurrentClients() throws Exception {
+        TaskManager manager = Managers.getDefault();
+        for (int i = 0; i < 100; i++) {
+            manager.createTask(new Task("Задача " + i, "Описание", Status.NEW));
+        }
+
+        HttpTaskServer server = new HttpTaskServer(manager, 0);
+        server.start();
+        AtomicInteger failures = new AtomicInteger();
+        // HTTP/1.1 клиент открывает отдельное соединение на каждый одновременный запрос
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                int clientId = c;
+                futures.add(clients.submit(() -> {
+                    for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                        String path = r % 2 == 0 ? "/tasks/" + (clientId + r) % 100 : "/tasks";
+                        HttpRequest request = HttpRequest.newBuilder(
+                                URI.create("http://localhost:" + server.getPort() + path)).build();
+                        if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200)
+                            failures.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            double seconds = (System.nanoTime() - start) / 1e9;
+            int total = CLIENTS * REQUESTS_PER_CLIENT;
+            System.out.printf("HTTP: %d клиентов, %d запросов за %.2f с — %.0f запросов/с%n",
+                    CLIENTS, total, seconds, total / seconds);
+        } finally {
+            server.stop();
+        }
+
+        assertEquals(0, failures.get());
+    }
+}
@@ -0,0 +1,263 @@
+package ru.yandex.kanban.http;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.kanban.issue.Epic;
+import ru.yandex.kanban.issue.Status;
+import ru.yandex.kanban.issue.Subtask;
+import ru.yandex.kanban.issue.Task;
+import ru.yandex.kanban.service.TaskManager;
+import ru.yandex.kanban.utility.Managers;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpTaskServerTest {
+    private TaskManager manager;
+    private HttpTaskServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        manager = Managers.getDefault();
+        server = new HttpTaskServer(manager, 0);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    void taskLifecycle() throws Exception {
+        var created = send("POST", "/tasks", """
+                {"name":"Задача \\"1\\"","description":"Описание","status":"NEW",
+                 "startTime":"2025-01-01T10:00:00","duration":30}""");
+        assertEquals(201, created.statusCode());
+        int id = manager.getAllTasks().getFirst().getId();
+        assertEquals("{\"id\":" + id + "}", created.body());
+        assertEquals("Задача \"1\"", manager.getAllTasks().getFirst().getName());
+
+        var found = send("GET", "/tasks/" + id, null);
+        assertEquals(200, found.statusCode());
+        assertTrue(found.body().contains("\"endTime\":\"2025-01-01T10:30:00\""));
+
+        var updated = send("POST", "/tasks", "{\"id\":" + id + ",\"name\":\"Новое\",\"description\":\"\","
+                + "\"status\":\"DONE\",\"version\":0}");
+        assertEquals(200, updated.statusCode());
+        assertEquals(Status.DONE, manager.getTaskById(id).getStatus());
+
+        // Устаревшая версия
+        var stale = send("POST", "/tasks", "{\"id\":" + id + ",\"name\":\"Старое\",\"version\":0}");
+        assertEquals(409, stale.statusCode());
+
+        assertEquals(200, send("DELETE", "/tasks/" + id, null).statusCode());
+        assertEquals(404, send("GET", "/tasks/" + id, null).statusCode());
+        assertEquals(404, send("DELETE", "/tasks/" + id, null).statusCode());
+    }
+
+    @Test
+    void epicsSubtasksHistoryAndPrioritized() throws Exception {
+        int epicId = manager.createEpic(new Epic("Эпик", "Описание"));
+        int lateId = manager.createSubtask(new Subtask(epicId, "Поздняя", "Описание", Status.NEW,
+                LocalDateTime.of(2025, 1, 2, 10, 0), Duration.ofMinutes(15)));
+        int earlyId = manager.createTask(new Task("Ранняя", "Описание", Status.NEW,
+                LocalDateTime.of(2025, 1, 1, 10, 0), Duration.ofMinutes(15)));
+
+        var subtasks = send("GET", "/epics/" + epicId + "/subtasks", null);
+        assertEquals(200, subtasks.statusCode());
+        assertTrue(subtasks.body().startsWith("[{\"id\":" + lateId));
+
+        send("GET", "/epics/" + epicId, null);
+        var history = send("GET", "/history", null);
+        assertTrue(history.body().contains("\"type\":\"EPIC\""));
+
+        var prioritized = send("GET", "/prioritized", null);
+        assertTrue(prioritized.body().indexOf("\"id\":" + earlyId) < prioritized.body().indexOf("\"id\":" + lateId));
+
+        assertEquals(404, send("GET", "/epics/999", null).statusCode());
+        assertEquals(400, send("POST", "/subtasks", "{\"name\":\"Без эпика\"}").statusCode());
+        assertEquals(400, send("POST", "/tasks", "{not json}").statusCode());
+        assertEquals(405, send("PUT", "/history", "").statusCode());
+    }
+
+    @Test
+    void listsAreRevalidatedWithETags() throws Exception {
+        int epicId = manager.createEpic(new Epic("Эпик", "Описание"));
+        manager.createTask(new Task("Задача", "Описание", Status.NEW));
+
+        var first = send("GET", "/tasks", null);
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+        var notModified = get("/tasks", etag);
+        assertEquals(304, notModified.statusCode());
+        assertEquals(etag, notModified.headers().firstValue("ETag").orElseThrow());
+        assertEquals("", notModified.body());
+
+        // Изменение другой коллекции не делает список задач устаревшим
+        String subtasksTag = send("GET", "/epics/" + epicId + "/subtasks", null).headers().firstValue("ETag").orElseThrow();
+        String epicsTag = send("GET", "/epics", null).headers().firstValue("ETag").orElseThrow();
+        int subtaskId = manager.createSubtask(new Subtask(epicId, "Подзадача", "Описание", Status.NEW));
+        assertEquals(304, get("/tasks", etag).statusCode());
+
+        var subtasks = get("/epics/" + epicId + "/subtasks", subtasksTag);
+        assertEquals(200, subtasks.statusCode());
+        assertTrue(subtasks.body().contains("\"id\":" + subtaskId));
+        assertEquals(200, get("/epics", epicsTag).statusCode());
+
+        manager.createTask(new Task("Вторая", "Описание", Status.NEW));
+        var changed = get("/tasks", etag);
+        assertEquals(200, changed.statusCode());
+        assertNotEquals(etag, changed.headers().firstValue("ETag").orElseThrow());
+        assertTrue(changed.body().contains("Вторая"));
+        assertEquals(404, get("/epics/999/subtasks", null).statusCode());
+    }
+
+    @Test
+    void etagsFromAnotherServerInstanceDoNotMatch() throws Exception {
+        manager.createTask(new Task("Задача", "Описание", Status.NEW));
+        String etag = send("GET", "/tasks", null).headers().firstValue("ETag").orElseThrow();
+        assertTrue(etag.startsWith("W/\""));
+
+        // Перезапуск с новым менеджером: версия данных снова та же, но тег другой
+        server.stop();
+        manager = Managers.getDefault();
+        manager.createTask(new Task("Другая", "Описание", Status.NEW));
+        server = new HttpTaskServer(manager, 0);
+        server.start();
+
+        var restarted = get("/tasks", etag);
+        assertEquals(200, restarted.statusCode());
+        assertTrue(restarted.body().contains("Другая"));
+        assertNotEquals(etag, restarted.headers().firstValue("ETag").orElseThrow());
+    }
+
+    @Test
+    void changesAreStreamedAndPolled() throws Exception {
+        long start = manager.getChangeFeed().getLastEventId();
+        int taskId = manager.createTask(new Task("Задача", "Описание", Status.NEW));
+
+        var polled = send("GET", "/events?after=" + start + "&timeout=0", null);
+        assertEquals(200, polled.statusCode());
+        assertTrue(polled.body().startsWith("{\"lastEventId\":" + (start + 1) + ",\"missed\":false,\"events\":[{"));
+        assertTrue(polled.body().contains("\"kind\":\"CREATED\",\"type\":\"TASK\",\"issueId\":" + taskId));
+        assertEquals(400, send("GET", "/events?timeout=600", null).statusCode());
+
+        // Клиент переподключается с Last-Event-ID и сначала получает пропущенное удаление
+        manager.removeTaskById(taskId);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/events"))
+                .header("Accept", "text/event-stream")
+                .header("Last-Event-ID", String.valueOf(start + 1))
+                .build();
+        var stream = client.send(request, HttpResponse.BodyHandlers.ofLines());
+        assertEquals(200, stream.statusCode());
+        var lines = stream.body().iterator();
+        assertEquals("id: " + (start + 2), lines.next());
+        assertEquals("event: deleted", lines.next());
+        assertTrue(lines.next().contains("\"issue\":null"));
+        assertEquals("", lines.next());
+
+        // Новые события приходят в уже открытый поток
+        manager.createTask(new Task("Новая", "Описание", Status.NEW));
+        assertEquals("id: " + (start + 3), lines.next());
+        assertEquals("event: created", lines.next());
+        assertTrue(lines.next().contains("Новая"));
+        stream.body().close();
+    }
+
+    @Test
+    void batchRunsOperationsInOrderWithSeparateResults() throws Exception {
+        int epicId = manager.createEpic(new Epic("Эпик", "Описание"));
+        int taskId = manager.createTask(new Task("Задача", "Описание", Status.NEW));
+
+        var response = send("POST", "/batch", """
+                [{"op":"create","type":"SUBTASK","issue":{"epicId":%d,"name":"Подзадача","status":"DONE"}},
+                 {"op":"update","type":"TASK","issue":{"id":%d,"name":"Новое имя","version":5}},
+                 {"op":"delete","type":"TASK","id":999},
+                 {"op":"update","type":"TASK","issue":{"id":%d,"name":"Новое имя","version":0}},
+                 {"op":"delete","type":"EPIC","id":%d}]""".formatted(epicId, taskId, taskId, epicId));
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().matches("\\[\\{\"status\":201,\"id\":\\d+},\\{\"status\":409,\"error\":.*},"
+                + "\\{\"status\":404,\"error\":.*},\\{\"status\":200},\\{\"status\":200}]"), response.body());
+        assertEquals("Новое имя", manager.getTaskById(taskId).getName());
+        assertTrue(manager.getAllEpics().isEmpty());
+        assertTrue(manager.getAllSubtasks().isEmpty());
+
+        // Некорректный пакет не выполняется совсем
+        assertEquals(400, send("POST", "/batch", "[{\"op\":\"delete\",\"type\":\"TASK\",\"id\":" + taskId
+                + "},{\"op\":\"move\",\"type\":\"TASK\"}]").statusCode());
+        assertEquals(1, manager.getAllTasks().size());
+    }
+
+    @Test
+    void largeListsAreCompressedAndPaged() throws Exception {
+        // Около 2 МБ JSON: больше порога кеша, поэтому ответ пишется в сокет по мере кодирования
+        for (int i = 0; i < 10_000; i++) {
+            manager.createTask(new Task("Задача " + i, "Описание задачи номер " + i, Status.NEW));
+        }
+
+        var plain = client.send(request("/tasks").build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, plain.statusCode());
+        assertTrue(plain.headers().firstValue("Content-Encoding").isEmpty());
+        String json = new String(plain.body(), StandardCharsets.UTF_8);
+        assertEquals(10_000, json.split("\"type\":\"TASK\"").length - 1);
+
+        var gzip = client.send(request("/tasks").header("Accept-Encoding", "deflate;q=0.5, gzip").build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals("gzip", gzip.headers().firstValue("Content-Encoding").orElseThrow());
+        assertTrue(gzip.body().length < plain.body().length / 4);
+        assertArrayEquals(plain.body(), new GZIPInputStream(new ByteArrayInputStream(gzip.body())).readAllBytes());
+
+        var deflate = client.send(request("/tasks?limit=100").header("Accept-Encoding", "gzip;q=0, deflate").build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals("deflate", deflate.headers().firstValue("Content-Encoding").orElseThrow());
+        String page = new String(new InflaterInputStream(new ByteArrayInputStream(deflate.body())).readAllBytes(),
+                StandardCharsets.UTF_8);
+        assertEquals(100, page.split("\"type\":\"TASK\"").length - 1);
+
+        // Следующая страница — по ссылке из заголовка Link
+        String link = deflate.headers().firstValue("Link").orElseThrow();
+        String next = link.substring(1, link.indexOf('>'));
+        var second = send("GET", next, null);
+        int lastOfFirst = manager.getTasksPage(Integer.MIN_VALUE, 100).getLast().getId();
+        assertTrue(second.body().startsWith("[{\"id\":" + (lastOfFirst + 1) + ","));
+        assertEquals(400, send("GET", "/tasks?limit=0", null).statusCode());
+
+        // Маленький ответ не сжимается
+        var small = client.send(request("/subtasks").header("Accept-Encoding", "gzip").build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals("[]", small.body());
+        assertTrue(small.headers().firstValue("Content-Encoding").isEmpty());
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path));
+    }
+
+    private HttpResponse<String> get(String path, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path));
+        if (ifNoneMatch != null)
+            request.header("If-None-Match", ifNoneMatch);
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
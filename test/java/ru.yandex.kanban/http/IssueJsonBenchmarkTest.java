@@ -0,0 +1,97 @@
+package ru.yandex.kanban.http;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import ru.yandex.kanban.issue.Status;
+import ru.yandex.kanban.issue.Task;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сравнение потоковой записи списка задач с наивной сборкой JSON через строки.
+ * Запуск: mvn test -Dtest=IssueJsonBenchmarkTest -Dbenchmark=true
+ */
+
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class IssueJsonBenchmarkTest {
+    private static final int TASKS = 10_000;
+    private static final int ROUNDS = 50;
+
+    @Test
+    void streamingEncoderAllocatesLessThanStringConcatenation() throws Exception {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            tasks.add(new Task(i, "Задача " + i, "Описание \"" + i + "\"", Status.IN_PROGRESS,
+                    LocalDateTime.of(2025, 1, 1, 10, 0).plusMinutes(i), Duration.ofMinutes(30)));
+        }
+
+        // Прогрев обоих вариантов
+        for (int i = 0; i < 5; i++) {
+            IssueJson.writeArray(OutputStream.nullOutputStream(), tasks);
+            OutputStream.nullOutputStream().write(naiveArray(tasks));
+        }
+
+        long streamingBytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            IssueJson.writeArray(OutputStream.nullOutputStream(), tasks);
+        }
+        long streamingNanos = System.nanoTime() - start;
+        streamingBytes = allocatedBytes() - streamingBytes;
+
+        long naiveBytes = allocatedBytes();
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            OutputStream.nullOutputStream().write(naiveArray(tasks));
+        }
+        long naiveNanos = System.nanoTime() - start;
+        naiveBytes = allocatedBytes() - naiveBytes;
+
+        System.out.printf("Потоковая запись: %d мс, %d КБ на список%n",
+                streamingNanos / 1_000_000 / ROUNDS, streamingBytes / 1024 / ROUNDS);
+        System.out.printf("Сборка строк:     %d мс, %d КБ на список%n",
+                naiveNanos / 1_000_000 / ROUNDS, naiveBytes / 1024 / ROUNDS);
+
+        assertTrue(streamingBytes < naiveBytes, "Потоковая запись должна выделять меньше памяти");
+    }
+
+    private static long allocatedBytes() {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threads.getCurrentThreadAllocatedBytes();
+    }
+
+    // Так JSON собирался раньше: строка на задачу, затем общий StringBuilder и перевод в байты
+    private static byte[] naiveArray(List<Task> tasks) {
+        StringBuilder json = new StringBuilder("[");
+        for (Task task : tasks) {
+            if (json.length() > 1)
+                json.append(',');
+            json.append(naive(task));
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String naive(Task task) {
+        return "{\"id\":" + task.getId()
+                + ",\"type\":\"" + task.getType().name() + "\""
+                + ",\"name\":" + quote(task.getName())
+                + ",\"description\":" + quote(task.getDescription())
+                + ",\"status\":\"" + task.getStatus().name() + "\""
+                + ",\"startTime\":" + quote(String.valueOf(task.getStartTime()))
+                + ",\"duration\":" + task.getDuration().toMinutes()
+                + ",\"endTime\":" + quote(String.valueOf(task.getEndTime()))
+                + ",\"version\":" + task.getVersion() + "}";
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
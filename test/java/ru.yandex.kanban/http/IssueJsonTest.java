@@ -0,0 +1,84 @@
+package ru.yandex.kanban.http;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.kanban.issue.Epic;
+import ru.yandex.kanban.issue.Status;
+import ru.yandex.kanban.issue.Subtask;
+import ru.yandex.kanban.issue.Task;
+import ru.yandex.kanban.issue.TaskType;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IssueJsonTest {
+
+    @Test
+    void taskRoundTripKeepsAllFields() {
+        Task task = new Task(7, "Имя \"в кавычках\"\n\t😀", "C:\\путь\u0001", Status.IN_PROGRESS,
+                LocalDateTime.of(2025, 3, 4, 5, 6, 7), Duration.ofMinutes(90));
+        task.setVersion(3);
+
+        String json = IssueJson.toJson(task);
+        assertTrue(json.contains("\"endTime\":\"2025-03-04T06:36:07\""));
+        assertTrue(json.contains("\\u0001"));
+
+        Task parsed = IssueJson.fromJson(json, TaskType.TASK);
+        assertEquals(task.getId(), parsed.getId());
+        assertEquals(task.getName(), parsed.getName());
+        assertEquals(task.getDescription(), parsed.getDescription());
+        assertEquals(task.getStatus(), parsed.getStatus());
+        assertEquals(task.getStartTime(), parsed.getStartTime());
+        assertEquals(task.getDuration(), parsed.getDuration());
+        assertEquals(3, parsed.getVersion());
+    }
+
+    @Test
+    void listIsStreamedAsArray() throws Exception {
+        Epic epic = new Epic(1, "Эпик", "Описание", null);
+        epic.addSubtaskId(2);
+        Subtask subtask = new Subtask(1, 2, "Подзадача", null, Status.DONE);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IssueJson.writeArray(out, List.of(epic, subtask));
+        String json = out.toString(StandardCharsets.UTF_8);
+
+        assertTrue(json.startsWith("[{\"id\":1,\"type\":\"EPIC\""));
+        assertTrue(json.contains("\"subtasks\":[2]"));
+        assertTrue(json.contains("\"epicId\":1"));
+        assertTrue(json.contains("\"description\":null"));
+        assertTrue(json.endsWith("}]"));
+    }
+
+    @Test
+    void unknownFieldsAreSkippedAndErrorsReported() {
+        Subtask parsed = (Subtask) IssueJson.fromJson("""
+                { "extra": {"a": [1, true, null, "x"]}, "epicId": 5, "name": "Подзадача", "status": "DONE" }""",
+                TaskType.SUBTASK);
+        assertEquals(5, parsed.getEpicId());
+        assertEquals(Status.DONE, parsed.getStatus());
+        assertNull(parsed.getId());
+
+        assertThrows(IllegalArgumentException.class, () -> IssueJson.fromJson("{\"name\":\"a\" \"b\":1}", TaskType.TASK));
+        assertThrows(IllegalArgumentException.class, () -> IssueJson.fromJson("{\"id\":\"1\"}", TaskType.TASK));
+        assertThrows(IllegalArgumentException.class, () -> IssueJson.fromJson("{} []", TaskType.TASK));
+        assertThrows(IllegalArgumentException.class, () -> IssueJson.fromJson("{\"name\":\"x}", TaskType.TASK));
+    }
+
+    @Test
+    void unknownNumbersOfAnyFormAreSkipped() {
+        Task parsed = IssueJson.fromJson("""
+                {"progress": 12.5, "score": -1e3, "ratio": 0.25E-2, "big": 123456789012345678901234567890,
+                 "list": [0, -0.0, 2E+10], "name": "Задача"}""", TaskType.TASK);
+        assertEquals("Задача", parsed.getName());
+
+        assertThrows(IllegalArgumentException.class, () -> IssueJson.fromJson("{\"x\": 1.}", TaskType.TASK));
+        assertThrows(IllegalArgumentException.class, () -> IssueJson.fromJson("{\"x\": 1e}", TaskType.TASK));
+        assertThrows(IllegalArgumentException.class, () -> IssueJson.fromJson("{\"x\": -}", TaskType.TASK));
+        assertThrows(IllegalArgumentException.class, () -> IssueJson.fromJson("{\"x\": +1}", TaskType.TASK));
+    }
+}
@@ -2,8 +2,10 @@ package ru.yandex.kanban.issue;
 
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 class EpicTest {
 
@@ -28,4 +30,35 @@ class EpicTest {
         epic.setId(1);
         assertThrows(IllegalArgumentException.class, () -> epic.addSubtaskId(1));
     }
+
+    @Test
+    void epicTimeAggregatesFollowSubtasks() {
+        Epic epic = new Epic(1, "Epic-1", "Epic-1");
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 10, 0);
+        Subtask first = new Subtask(1, 2, "Sub-1", "Sub-1", Status.NEW, start, Duration.ofMinutes(30));
+        Subtask second = new Subtask(1, 3, "Sub-2", "Sub-2", Status.NEW,
+                start.plusHours(2), Duration.ofMinutes(45));
+        Subtask sameStart = new Subtask(1, 4, "Sub-3", "Sub-3", Status.NEW, start, Duration.ofMinutes(15));
+
+        epic.addSubtaskTime(first);
+        epic.addSubtaskTime(second);
+        epic.addSubtaskTime(sameStart);
+
+        assertEquals(start, epic.getStartTime());
+        assertEquals(start.plusHours(2).plusMinutes(45), epic.getEndTime());
+        assertEquals(Duration.ofMinutes(90), epic.getDuration());
+
+        // Одинаковое время начала у двух подзадач: после удаления одной начало не меняется
+        epic.removeSubtaskTime(first);
+        assertEquals(start, epic.getStartTime());
+
+        epic.removeSubtaskTime(second);
+        assertEquals(start.plusMinutes(15), epic.getEndTime());
+        assertEquals(Duration.ofMinutes(15), epic.getDuration());
+
+        epic.removeSubtaskTime(sameStart);
+        assertNull(epic.getStartTime());
+        assertNull(epic.getEndTime());
+        assertEquals(Duration.ZERO, epic.getDuration());
+    }
 }
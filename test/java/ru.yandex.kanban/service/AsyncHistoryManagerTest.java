@@ -0,0 +1,76 @@
+package ru.yandex.kanban.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.kanban.issue.Status;
+import ru.yandex.kanban.issue.Task;
+import ru.yandex.kanban.utility.Managers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncHistoryManagerTest {
+    private final AsyncHistoryManager history = Managers.getAsyncHistory();
+
+    @AfterEach
+    void tearDown() {
+        history.close();
+    }
+
+    @Test
+    void historyReadsOwnWrites() {
+        history.add(new Task(1, "task1", "desc", Status.NEW));
+        history.add(new Task(2, "task2", "desc", Status.NEW));
+        history.remove(1);
+        history.add(new Task(3, "task3", "desc", Status.NEW));
+
+        assertEquals(List.of(2, 3), history.getHistory().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void viewsFromManyThreadsAreApplied() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t * 1_000;
+            threads.add(Thread.ofVirtual().start(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    history.add(new Task(offset + i, "task", "desc", Status.NEW));
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(4_000, history.getHistory().size());
+    }
+
+    @Test
+    void snapshotIsLinkedWithoutCopy() {
+        Task snapshot = new Task(1, "task1", "desc", Status.NEW);
+        history.addSnapshot(snapshot);
+
+        assertSame(snapshot, history.getHistory().getFirst());
+    }
+
+    @Test
+    void idleConsumerWakesUpForNewViews() throws InterruptedException {
+        history.add(new Task(1, "task1", "desc", Status.NEW));
+        // Потребитель успевает уснуть на пустой очереди и должен проснуться от следующего события
+        Thread.sleep(100);
+        history.add(new Task(2, "task2", "desc", Status.NEW));
+
+        assertEquals(List.of(1, 2), history.getHistory().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void closedHistoryRejectsViews() {
+        history.add(new Task(1, "task1", "desc", Status.NEW));
+        history.close();
+
+        assertEquals(1, history.getHistory().size());
+        assertThrows(IllegalStateException.class, () -> history.add(new Task(2, "task2", "desc", Status.NEW)));
+    }
+}
@@ -0,0 +1,143 @@
+package ru.yandex.kanban.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.kanban.exception.TaskVersionConflictException;
+import ru.yandex.kanban.issue.Epic;
+import ru.yandex.kanban.issue.Status;
+import ru.yandex.kanban.issue.Subtask;
+import ru.yandex.kanban.issue.Task;
+import ru.yandex.kanban.utility.Managers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncTaskManagerTest {
+    // Считает пачки: каждая у FileBackedTaskManager — одно сохранение
+    private static class CountingManager extends InMemoryTaskManager {
+        final AtomicInteger batches = new AtomicInteger();
+
+        @Override
+        public List<RuntimeException> runBatch(List<Consumer<TaskManager>> operations) {
+            batches.incrementAndGet();
+            return super.runBatch(operations);
+        }
+    }
+
+    private final CountingManager manager = new CountingManager();
+    private final AsyncTaskManager async = Managers.getAsync(manager);
+
+    @AfterEach
+    void tearDown() {
+        async.close();
+    }
+
+    @Test
+    void operationsCompleteWithManagerResults() throws Exception {
+        int epicId = async.createEpic(new Epic("Эпик", "Описание")).get();
+        int subtaskId = async.createSubtask(new Subtask(epicId, "Подзадача", "", Status.DONE)).get();
+
+        assertEquals(Status.DONE, async.getEpicById(epicId).get().getStatus());
+        assertEquals(List.of(subtaskId), async.getAllSubtasksByEpicId(epicId).get().stream()
+                .map(Task::getId).toList());
+
+        async.removeEpicById(epicId).get();
+        assertTrue(async.getAllSubtasks().get().isEmpty());
+        assertNull(async.getEpicById(epicId).get());
+    }
+
+    @Test
+    void readSeesEarlierWritesWithoutWaiting() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            async.createTask(new Task("Задача " + i, "Описание", Status.NEW));
+        }
+
+        assertEquals(100, async.getAllTasks().get().size());
+    }
+
+    @Test
+    void updatesOfOneTaskKeepSubmissionOrder() throws Exception {
+        int id = async.createTask(new Task("Задача", "Описание", Status.NEW)).get();
+
+        // Каждое обновление ожидает версию предыдущего: обгон дал бы конфликт версий
+        List<CompletableFuture<Void>> updates = new ArrayList<>();
+        for (int version = 0; version < 500; version++) {
+            Task update = new Task(id, "Версия " + version, "Описание", Status.IN_PROGRESS);
+            update.setVersion(version);
+            updates.add(async.updateTask(update));
+        }
+        CompletableFuture.allOf(updates.toArray(CompletableFuture[]::new)).get();
+
+        Task task = async.getTaskById(id).get();
+        assertEquals("Версия 499", task.getName());
+        assertEquals(500, task.getVersion());
+    }
+
+    @Test
+    void concurrentWritesShareBatches() throws Exception {
+        // Пока блокировка занята, как при долгом сохранении, записи из разных потоков копятся в очереди
+        ReentrantLock lock = new ReentrantLock();
+        List<CompletableFuture<Integer>> created = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            AsyncTaskManager shared = new AsyncTaskManager(manager, executor, lock);
+            lock.lock();
+            try {
+                List<CompletableFuture<CompletableFuture<Integer>>> submitted = new ArrayList<>();
+                for (int i = 0; i < 2_000; i++) {
+                    int number = i;
+                    submitted.add(CompletableFuture.supplyAsync(
+                            () -> shared.createTask(new Task("Задача " + number, "", Status.NEW)), executor));
+                }
+                for (CompletableFuture<CompletableFuture<Integer>> future : submitted) {
+                    created.add(future.get());
+                }
+            } finally {
+                lock.unlock();
+            }
+            for (CompletableFuture<Integer> future : created) {
+                assertNotNull(future.get());
+            }
+            shared.close();
+        }
+
+        assertEquals(2_000, manager.getAllTasks().size());
+        assertTrue(manager.batches.get() < 10, "Пачек: " + manager.batches.get());
+    }
+
+    @Test
+    void failedWriteDoesNotCancelOthers() throws Exception {
+        int id = async.createTask(new Task("Задача", "Описание", Status.NEW)).get();
+        Task stale = new Task(id, "Устаревшая", "Описание", Status.NEW);
+        stale.setVersion(5);
+
+        CompletableFuture<Void> conflict = async.updateTask(stale);
+        CompletableFuture<Integer> created = async.createTask(new Task("Другая", "Описание", Status.NEW));
+
+        ExecutionException error = assertThrows(ExecutionException.class, conflict::get);
+        assertInstanceOf(TaskVersionConflictException.class, error.getCause());
+        assertNotNull(created.get());
+        assertEquals(2, manager.getAllTasks().size());
+    }
+
+    @Test
+    void customExecutorAndClose() throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            AsyncTaskManager custom = new AsyncTaskManager(manager, executor, new ReentrantLock());
+            assertNotNull(custom.write(m -> m.createTask(new Task("Задача", "", Status.NEW))).get());
+            custom.close();
+
+            ExecutionException closed = assertThrows(ExecutionException.class, () -> custom.getAllTasks().get());
+            assertInstanceOf(IllegalStateException.class, closed.getCause());
+            assertFalse(executor.isShutdown());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ru.yandex.kanban.service;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.kanban.issue.Status;
+import ru.yandex.kanban.issue.Task;
+import ru.yandex.kanban.issue.TaskType;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardVersionsTest {
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T10:00:00Z"));
+
+    @Test
+    void queriesReturnStateAsOfRevision() {
+        BoardVersions versions = new BoardVersions(clock, 100);
+
+        versions.record(1, TaskType.TASK, new Task(1, "v1", "desc", Status.NEW));
+        long afterCreate = versions.getCurrentRevision();
+        clock.advanceSeconds(60);
+        versions.record(1, TaskType.TASK, new Task(1, "v2", "desc", Status.DONE));
+        versions.record(2, TaskType.TASK, new Task(2, "other", "desc", Status.NEW));
+        clock.advanceSeconds(60);
+        versions.record(1, TaskType.TASK, null);
+
+        assertEquals("v1", versions.get(1, afterCreate).getName());
+        assertEquals(1, versions.getAll(TaskType.TASK, afterCreate).size());
+        assertEquals(2, versions.getAll(TaskType.TASK, 3).size());
+        assertNull(versions.get(1, versions.getCurrentRevision()));
+
+        long revision = versions.getRevisionAt(Instant.parse("2025-01-01T10:01:30Z"));
+        assertEquals(3, revision);
+        assertEquals("v2", versions.get(1, revision).getName());
+    }
+
+    @Test
+    void oldRevisionsAreDroppedAfterRetention() {
+        BoardVersions versions = new BoardVersions(clock, 2);
+
+        versions.record(1, TaskType.TASK, new Task(1, "v1", "desc", Status.NEW));
+        versions.record(1, TaskType.TASK, new Task(1, "v2", "desc", Status.NEW));
+        versions.record(1, TaskType.TASK, new Task(1, "v3", "desc", Status.NEW));
+        versions.record(1, TaskType.TASK, new Task(1, "v4", "desc", Status.NEW));
+
+        assertThrows(IllegalArgumentException.class, () -> versions.get(1, 1));
+        // Граница окна: состояние на ней сохранено как база
+        assertEquals("v2", versions.get(1, 2).getName());
+        assertEquals("v4", versions.get(1, 4).getName());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advanceSeconds(long seconds) {
+            now = now.plusSeconds(seconds);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
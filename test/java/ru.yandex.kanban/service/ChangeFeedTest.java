@@ -0,0 +1,90 @@
+package ru.yandex.kanban.service;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.kanban.issue.Epic;
+import ru.yandex.kanban.issue.Status;
+import ru.yandex.kanban.issue.Subtask;
+import ru.yandex.kanban.issue.Task;
+import ru.yandex.kanban.issue.TaskType;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeFeedTest {
+
+    @Test
+    void readerResumesFromCursorAndDetectsGaps() {
+        ChangeFeed feed = new ChangeFeed(3);
+        for (int i = 1; i <= 5; i++) {
+            feed.publish(ChangeFeed.Kind.CREATED, TaskType.TASK, i, null);
+        }
+
+        var batch = feed.read(3, 10);
+        assertFalse(batch.missed());
+        assertEquals(List.of(4L, 5L), batch.events().stream().map(ChangeFeed.Event::id).toList());
+        assertEquals(5, batch.lastEventId());
+
+        assertEquals(List.of(3L), feed.read(2, 1).events().stream().map(ChangeFeed.Event::id).toList());
+
+        // События 1 и 2 уже вытеснены, id 9 не существовал
+        assertTrue(feed.read(1, 10).missed());
+        assertTrue(feed.read(9, 10).missed());
+        assertEquals(5, feed.read(9, 10).lastEventId());
+    }
+
+    @Test
+    void awaitWakesUpOnPublish() throws Exception {
+        ChangeFeed feed = new ChangeFeed(10);
+        assertTrue(feed.await(0, 10, Duration.ofMillis(10)).events().isEmpty());
+
+        var waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return feed.await(0, 10, Duration.ofSeconds(10));
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        feed.publish(ChangeFeed.Kind.DELETED, TaskType.EPIC, 7, null);
+        assertEquals(7, waiting.get().events().getFirst().issueId());
+    }
+
+    @Test
+    void managerPublishesOneEventPerIssueAndOperation() {
+        TaskManager manager = new InMemoryTaskManager();
+        ChangeFeed feed = manager.getChangeFeed();
+
+        int epicId = manager.createEpic(new Epic("Эпик", "Описание"));
+        long cursor = feed.getLastEventId();
+        int subtaskId = manager.createSubtask(new Subtask(epicId, "Подзадача", "Описание", Status.IN_PROGRESS));
+
+        // Подзадача создана, её эпик обновлён и несёт пересчитанный статус
+        var events = feed.read(cursor, 10).events();
+        assertEquals(2, events.size());
+        assertEquals(ChangeFeed.Kind.CREATED, events.get(0).kind());
+        assertEquals(subtaskId, events.get(0).issueId());
+        assertEquals(ChangeFeed.Kind.UPDATED, events.get(1).kind());
+        assertEquals(Status.IN_PROGRESS, events.get(1).issue().getStatus());
+
+        // Создание и удаление внутри одной транзакции в ленту не попадает, откаченная операция тоже
+        cursor = feed.getLastEventId();
+        manager.runInTransaction(m -> m.removeTaskById(m.createTask(new Task("Временная", "Описание", Status.NEW))));
+        assertThrows(IllegalArgumentException.class, () -> manager.runInTransaction(m -> {
+            m.createTask(new Task("Откат", "Описание", Status.NEW));
+            m.removeTaskById(999);
+        }));
+        assertTrue(feed.read(cursor, 10).events().isEmpty());
+
+        manager.removeEpicById(epicId);
+        events = feed.read(cursor, 10).events();
+        assertEquals(List.of(ChangeFeed.Kind.DELETED, ChangeFeed.Kind.DELETED),
+                events.stream().map(ChangeFeed.Event::kind).toList());
+        assertNull(events.getFirst().issue());
+
+        cursor = feed.getLastEventId();
+        manager.undo();
+        assertEquals(2, feed.read(cursor, 10).events().size());
+    }
+}
@@ -0,0 +1,103 @@
+package ru.yandex.kanban.service;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.kanban.issue.Status;
+import ru.yandex.kanban.issue.Task;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentHistoryManagerTest {
+
+    @Test
+    void keepsViewOrderOfSingleThread() {
+        HistoryManager history = new ConcurrentHistoryManager(new InMemoryHistoryManager(), 4, 2);
+        for (int i = 1; i <= 5; i++) {
+            history.add(new Task(i, "task" + i, "desc", Status.NEW));
+        }
+        history.add(new Task(2, "task2", "desc", Status.DONE));
+        history.remove(4);
+
+        assertEquals(List.of(1, 3, 5, 2), history.getHistory().stream().map(Task::getId).toList());
+        assertEquals(Status.DONE, history.getHistory().getLast().getStatus());
+    }
+
+    @Test
+    void concurrentViewsAreAllRecorded() throws InterruptedException {
+        HistoryManager history = new ConcurrentHistoryManager(new InMemoryHistoryManager(), 8, 16);
+        int threadCount = 8;
+        int viewsPerThread = 5_000;
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            int offset = t * 100;
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < viewsPerThread; i++) {
+                    history.add(new Task(offset + i % 100, "task", "desc", Status.NEW));
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        var ids = history.getHistory().stream().map(Task::getId).toList();
+        assertEquals(threadCount * 100, ids.size());
+        assertEquals(threadCount * 100, new HashSet<>(ids).size());
+    }
+
+    @Test
+    void laterViewIsNotReplacedByEarlierOneWrittenAfterIt() throws InterruptedException {
+        CountDownLatch numbered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread[] slow = new Thread[1];
+        // Медленный поток останавливается после получения номера, до записи в буфер
+        Runnable onNumbered = () -> {
+            if (Thread.currentThread() != slow[0])
+                return;
+            numbered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        HistoryManager history = new ConcurrentHistoryManager(new InMemoryHistoryManager(), 64, 1, onNumbered);
+
+        slow[0] = Thread.ofPlatform().unstarted(() -> history.add(new Task(1, "старый", "desc", Status.NEW)));
+        slow[0].start();
+        assertTrue(numbered.await(5, TimeUnit.SECONDS));
+
+        Thread fast = Thread.ofPlatform().start(() -> history.add(new Task(1, "новый", "desc", Status.DONE)));
+        // Быстрый поток может ждать медленного, если они делят буфер или слив
+        fast.join(200);
+        release.countDown();
+        slow[0].join();
+        fast.join();
+
+        assertEquals(List.of("новый"), history.getHistory().stream().map(Task::getName).toList());
+    }
+
+    @Test
+    void removedTaskDoesNotReappear() {
+        HistoryManager history = new ConcurrentHistoryManager(new InMemoryHistoryManager(), 2, 1_000);
+        history.add(new Task(1, "task1", "desc", Status.NEW));
+        history.remove(1);
+        history.add(new Task(2, "task2", "desc", Status.NEW));
+
+        assertEquals(List.of(2), history.getHistory().stream().map(Task::getId).toList());
+    }
+}
@@ -0,0 +1,101 @@
+package ru.yandex.kanban.service;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.kanban.issue.Status;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DependencyGraphTest {
+
+    @Test
+    void cycleIsRejected() {
+        DependencyGraph graph = new DependencyGraph();
+        for (int id = 1; id <= 3; id++) {
+            graph.addNode(id, Status.NEW);
+        }
+
+        graph.addEdge(1, 2);
+        graph.addEdge(2, 3);
+
+        assertThrows(IllegalArgumentException.class, () -> graph.addEdge(3, 1));
+        assertThrows(IllegalArgumentException.class, () -> graph.addEdge(2, 2));
+        // Отклонённое ребро не меняет граф
+        assertTrue(graph.getBlockers(1).isEmpty());
+        assertEquals(List.of(1, 2, 3), graph.getTopologicalOrder());
+    }
+
+    @Test
+    void edgesAgainstOrderAreReordered() {
+        DependencyGraph graph = new DependencyGraph();
+        for (int id = 1; id <= 4; id++) {
+            graph.addNode(id, Status.NEW);
+        }
+
+        graph.addEdge(4, 3);
+        graph.addEdge(3, 1);
+        graph.addEdge(2, 4);
+
+        assertTopological(graph);
+    }
+
+    @Test
+    void randomEdgesKeepTopologicalOrder() {
+        DependencyGraph graph = new DependencyGraph();
+        Random random = new Random(42);
+        for (int id = 0; id < 200; id++) {
+            graph.addNode(id, Status.NEW);
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            int blocker = random.nextInt(200);
+            int dependent = random.nextInt(200);
+            try {
+                graph.addEdge(blocker, dependent);
+            } catch (IllegalArgumentException cycle) {
+                // Рёбра, образующие цикл, пропускаются
+            }
+        }
+
+        assertTopological(graph);
+    }
+
+    @Test
+    void readySetFollowsBlockerStatus() {
+        DependencyGraph graph = new DependencyGraph();
+        graph.addNode(1, Status.NEW);
+        graph.addNode(2, Status.NEW);
+        graph.addNode(3, Status.IN_PROGRESS);
+        graph.addEdge(1, 2);
+
+        assertEquals(List.of(1), graph.getReady());
+
+        graph.updateStatus(1, Status.DONE);
+        assertEquals(List.of(2), graph.getReady());
+
+        graph.updateStatus(1, Status.IN_PROGRESS);
+        assertTrue(graph.getReady().isEmpty());
+
+        graph.removeNode(1);
+        assertEquals(List.of(2), graph.getReady());
+    }
+
+    private static void assertTopological(DependencyGraph graph) {
+        Map<Integer, Integer> position = new HashMap<>();
+        var order = graph.getTopologicalOrder();
+        for (int i = 0; i < order.size(); i++) {
+            position.put(order.get(i), i);
+        }
+
+        for (Integer id : order) {
+            for (Integer dependent : graph.getDependents(id)) {
+                assertTrue(position.get(id) < position.get(dependent),
+                        "Блокер " + id + " должен стоять раньше " + dependent);
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package ru.yandex.kanban.service;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import ru.yandex.kanban.exception.ManagerSaveException;
 import ru.yandex.kanban.issue.Epic;
 import ru.yandex.kanban.issue.Status;
 import ru.yandex.kanban.issue.Subtask;
@@ -9,10 +10,15 @@ import ru.yandex.kanban.issue.Task;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -57,4 +63,183 @@ class FileBackedTaskManagerTest {
             assertEquals(1, subIds.size(), "Эпик должен иметь одну подзадачу");
         }
     }
+
+    @Test
+    void saveAndLoadTime() throws Exception {
+        File file = newTempFile();
+        LocalDateTime start = LocalDateTime.of(2025, 5, 10, 12, 30);
+
+        int epicId;
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(file)) {
+            manager.createTask(new Task("Task0", "Desc0", Status.NEW, start, Duration.ofMinutes(20)));
+            epicId = manager.createEpic(new Epic("Epic1", "Desc1"));
+            manager.createSubtask(new Subtask(epicId, "Sub2", "Desc2", Status.NEW,
+                    start.plusDays(1), Duration.ofMinutes(40)));
+        }
+
+        try (FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file)) {
+            Task task = loaded.getAllTasks().getFirst();
+            assertEquals(start, task.getStartTime());
+            assertEquals(Duration.ofMinutes(20), task.getDuration());
+
+            Epic epic = loaded.getEpicById(epicId);
+            assertEquals(start.plusDays(1), epic.getStartTime());
+            assertEquals(start.plusDays(1).plusMinutes(40), epic.getEndTime());
+        }
+    }
+
+    @Test
+    void batchIsSavedOnceAndKeepsSuccessfulOperations() throws Exception {
+        File file = newTempFile();
+
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(file)) {
+            List<RuntimeException> errors = manager.runBatch(List.of(
+                    batch -> batch.createTask(new Task("Task1", "Desc1", Status.NEW)),
+                    batch -> {
+                        batch.createTask(new Task("Откат", "Desc", Status.NEW));
+                        batch.removeTaskById(999);
+                    },
+                    batch -> {
+                        // До завершения пакета файл не переписывается
+                        assertEquals(1, readLines(file).size());
+                        batch.createEpic(new Epic("Epic2", "Desc2"));
+                    }));
+
+            assertNull(errors.get(0));
+            assertInstanceOf(IllegalArgumentException.class, errors.get(1));
+            assertNull(errors.get(2));
+            assertEquals(3, readLines(file).size());
+            // Каждая операция пакета отменяется отдельно
+            assertTrue(manager.undo());
+            assertEquals(2, readLines(file).size());
+        }
+    }
+
+    @Test
+    void transactionIsSavedOnce() throws Exception {
+        File file = newTempFile();
+
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(file)) {
+            manager.runInTransaction(transaction -> {
+                int epicId = transaction.createEpic(new Epic("Epic1", "Desc1"));
+                transaction.createSubtask(new Subtask(epicId, "Sub2", "Desc2", Status.NEW));
+                // До завершения транзакции файл не переписывается
+                assertEquals(1, readLines(file).size());
+            });
+            assertEquals(3, readLines(file).size());
+        }
+    }
+
+    @Test
+    void dependenciesAreSavedAndLoaded() throws Exception {
+        File file = newTempFile();
+
+        int firstId;
+        int secondId;
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(file)) {
+            firstId = manager.createTask(new Task("Task0", "Desc0", Status.NEW));
+            secondId = manager.createTask(new Task("Task1", "Desc1", Status.NEW));
+            manager.addDependency(firstId, secondId);
+        }
+
+        try (FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file)) {
+            assertEquals(Set.of(firstId), loaded.getBlockerIds(secondId));
+            assertEquals(List.of(firstId), loaded.getReadyTaskIds());
+            assertThrows(IllegalArgumentException.class, () -> loaded.addDependency(secondId, firstId));
+        }
+    }
+
+    @Test
+    void nestedEpicsAreSavedAndLoaded() throws Exception {
+        File file = newTempFile();
+
+        int rootId;
+        int childId;
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(file)) {
+            rootId = manager.createEpic(new Epic("Epic0", "Desc0"));
+            childId = manager.createEpic(new Epic(null, "Epic1", "Desc1", rootId));
+            manager.createSubtask(new Subtask(childId, "Subtask0", "Desc", Status.DONE));
+        }
+
+        try (FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file)) {
+            assertEquals(rootId, loaded.getEpicById(childId).getParentEpicId());
+            assertEquals(Set.of(childId), loaded.getEpicById(rootId).getChildEpicIds());
+            assertEquals(Status.DONE, loaded.getEpicById(rootId).getStatus());
+            assertEquals(100, loaded.getEpicProgress(rootId));
+        }
+    }
+
+    @Test
+    void historyIsRestoredAfterReload() throws Exception {
+        File file = newTempFile();
+
+        int firstId;
+        int secondId;
+        int epicId;
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(file)) {
+            firstId = manager.createTask(new Task("Task0", "Desc0", Status.NEW));
+            secondId = manager.createTask(new Task("Task1", "Desc1", Status.NEW));
+            epicId = manager.createEpic(new Epic("Epic0", "Desc0"));
+            for (int i = 0; i < 2_000; i++) {
+                manager.getTaskById(i % 2 == 0 ? firstId : secondId);
+            }
+            manager.getEpicById(epicId);
+            manager.getTaskById(firstId);
+            manager.removeEpicById(epicId);
+        }
+
+        // Журнал сжат: по строке на задачу вместо тысяч просмотров
+        assertTrue(readLines(new File(file.getPath() + ".history")).size() < 1_000);
+
+        try (FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file)) {
+            assertEquals(List.of(secondId, firstId), loaded.getHistory().stream().map(Task::getId).toList());
+        }
+    }
+
+    @Test
+    void historyWriteFailureIsReportedAndLogRecovers() throws Exception {
+        Path directory = Files.createTempDirectory("history-");
+        Path missing = directory.resolve("missing");
+        Path log = missing.resolve("history.log");
+        PersistentHistoryManager history = new PersistentHistoryManager(new InMemoryHistoryManager(), log);
+
+        // Каталога журнала нет: ошибка записи приходит из одного из следующих просмотров
+        history.add(new Task(1, "Task1", "Desc", Status.NEW));
+        ManagerSaveException failure = null;
+        for (int i = 0; i < 200 && failure == null; i++) {
+            try {
+                history.add(new Task(2, "Task2", "Desc", Status.NEW));
+                Thread.sleep(10);
+            } catch (ManagerSaveException e) {
+                failure = e;
+            }
+        }
+        assertNotNull(failure);
+
+        // После ошибки журнал переписывается по текущей истории, просмотры не теряются
+        Files.createDirectories(missing);
+        try {
+            history.add(new Task(3, "Task3", "Desc", Status.NEW));
+        } catch (ManagerSaveException e) {
+            // Повторная попытка до создания каталога тоже могла завершиться ошибкой; просмотр всё равно в очереди
+        }
+        history.close();
+
+        PersistentHistoryManager restored = new PersistentHistoryManager(new InMemoryHistoryManager(), log);
+        restored.restore(id -> new Task(id, "Task" + id, "Desc", Status.NEW));
+        assertEquals(List.of(1, 2, 3), restored.getHistory().stream().map(Task::getId).toList());
+        restored.close();
+
+        Files.delete(log);
+        Files.delete(missing);
+        Files.delete(directory);
+    }
+
+    private static List<String> readLines(File file) {
+        try {
+            return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        } catch (IOException readException) {
+            throw new UncheckedIOException(readException);
+        }
+    }
 }
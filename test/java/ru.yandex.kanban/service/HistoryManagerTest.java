@@ -6,6 +6,12 @@ import ru.yandex.kanban.issue.Status;
 import ru.yandex.kanban.issue.Task;
 import ru.yandex.kanban.utility.Managers;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ConcurrentModificationException;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -183,4 +189,102 @@ class HistoryManagerTest {
 
         assertEquals("Task id не должен быть null.", exception.getMessage());
     }
+
+    @Test
+    void boundedHistoryEvictsLeastRecentlyViewed() {
+        InMemoryHistoryManager bounded = new InMemoryHistoryManager(2);
+        bounded.add(new Task(1, "task1", "desc", Status.NEW));
+        bounded.add(new Task(2, "task2", "desc", Status.NEW));
+        bounded.add(new Task(1, "task1", "desc", Status.NEW));
+        bounded.add(new Task(3, "task3", "desc", Status.NEW));
+
+        assertEquals(List.of(1, 3), bounded.getHistory().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void boundedHistoryExpiresOldViews() {
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-01T10:00:00Z"));
+        InMemoryHistoryManager bounded = new InMemoryHistoryManager(10, Duration.ofMinutes(5), clock);
+        bounded.add(new Task(1, "task1", "desc", Status.NEW));
+        clock.advance(Duration.ofMinutes(3));
+        bounded.add(new Task(2, "task2", "desc", Status.NEW));
+        clock.advance(Duration.ofMinutes(3));
+
+        assertEquals(List.of(2), bounded.getHistory().stream().map(Task::getId).toList());
+        clock.advance(Duration.ofMinutes(3));
+        assertTrue(bounded.getHistory().isEmpty());
+    }
+
+    @Test
+    void boundedHistoryMemoryStaysFlat() {
+        InMemoryHistoryManager bounded = new InMemoryHistoryManager(100);
+        for (int i = 0; i < 1_000; i++) {
+            bounded.add(new Task(i, "task", "desc", Status.NEW));
+        }
+        var full = bounded.getMemoryUsage();
+        for (int i = 1_000; i < 10_000; i++) {
+            bounded.add(new Task(i, "task", "desc", Status.NEW));
+        }
+
+        assertEquals(100, bounded.size());
+        assertEquals(0, bounded.getMemoryUsage().pooledNodes());
+        assertEquals(full.estimatedBytes(), bounded.getMemoryUsage().estimatedBytes());
+    }
+
+    @Test
+    void historyWindows() {
+        for (int i = 1; i <= 10; i++) {
+            historyManager.add(new Task(i, "task" + i, "desc", Status.NEW));
+        }
+
+        assertEquals(List.of(8, 9, 10), historyManager.getLastHistory(3).stream().map(Task::getId).toList());
+        assertEquals(10, historyManager.getLastHistory(50).size());
+        assertEquals(List.of(2, 3), historyManager.getHistoryPage(1, 2).stream().map(Task::getId).toList());
+        assertEquals(List.of(8, 9, 10), historyManager.getHistoryPage(7, 5).stream().map(Task::getId).toList());
+        assertTrue(historyManager.getHistoryPage(10, 5).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> historyManager.getLastHistory(-1));
+    }
+
+    @Test
+    void historyIteratorsAreLazyInBothDirections() {
+        for (int i = 1; i <= 3; i++) {
+            historyManager.add(new Task(i, "task" + i, "desc", Status.NEW));
+        }
+
+        var ascending = historyManager.historyIterator();
+        assertEquals(1, ascending.next().getId());
+        var descending = historyManager.descendingHistoryIterator();
+        assertEquals(3, descending.next().getId());
+        assertEquals(2, descending.next().getId());
+
+        historyManager.add(new Task(4, "task4", "desc", Status.NEW));
+        assertThrows(ConcurrentModificationException.class, ascending::next);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
 }
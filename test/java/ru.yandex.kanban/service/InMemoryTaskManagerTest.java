@@ -2,12 +2,21 @@ package ru.yandex.kanban.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.yandex.kanban.exception.TaskVersionConflictException;
 import ru.yandex.kanban.issue.Epic;
 import ru.yandex.kanban.issue.Status;
 import ru.yandex.kanban.issue.Subtask;
 import ru.yandex.kanban.issue.Task;
+import ru.yandex.kanban.issue.TaskType;
 import ru.yandex.kanban.utility.Managers;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -290,4 +299,580 @@ class InMemoryTaskManagerTest {
         assertEquals("Описание 2", historyTask.getDescription());
         assertEquals(Status.IN_PROGRESS, historyTask.getStatus());
     }
+
+    @Test
+    void epicTimeUpdatedOnSubtaskChanges() {
+        int epicId = taskManager.createEpic(new Epic("Эпик", "Описание эпика"));
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 9, 0);
+
+        int subtask1Id = taskManager.createSubtask(new Subtask(epicId, "Подзадача 1", "Описание 1",
+                Status.NEW, start, Duration.ofHours(1)));
+        int subtask2Id = taskManager.createSubtask(new Subtask(epicId, "Подзадача 2", "Описание 2",
+                Status.NEW, start.plusHours(3), Duration.ofHours(2)));
+
+        Epic epic = taskManager.getEpicById(epicId);
+        assertEquals(start, epic.getStartTime());
+        assertEquals(start.plusHours(5), epic.getEndTime());
+        assertEquals(Duration.ofHours(3), epic.getDuration());
+
+        // Переносим первую подзадачу позже второй
+        taskManager.updateSubtask(new Subtask(epicId, subtask1Id, "Подзадача 1", "Описание 1",
+                Status.NEW, start.plusHours(6), Duration.ofHours(1)));
+        epic = taskManager.getEpicById(epicId);
+        assertEquals(start.plusHours(3), epic.getStartTime());
+        assertEquals(start.plusHours(7), epic.getEndTime());
+
+        taskManager.removeSubtaskById(subtask2Id);
+        epic = taskManager.getEpicById(epicId);
+        assertEquals(start.plusHours(6), epic.getStartTime());
+        assertEquals(Duration.ofHours(1), epic.getDuration());
+    }
+
+    @Test
+    void boardColumnsFollowStatusChanges() {
+        int taskId = taskManager.createTask(new Task("Задача", "Описание", Status.NEW));
+        int epicId = taskManager.createEpic(new Epic("Эпик", "Описание эпика"));
+        int subtask1Id = taskManager.createSubtask(new Subtask(epicId, "Подзадача 1", "Описание 1", Status.NEW));
+        int subtask2Id = taskManager.createSubtask(new Subtask(epicId, "Подзадача 2", "Описание 2", Status.DONE));
+
+        assertEquals(List.of(taskId, subtask1Id), taskManager.getBoardColumn(Status.NEW, 10));
+        assertEquals(List.of(taskId), taskManager.getBoardColumn(Status.NEW, 1));
+        assertEquals(Map.of(Status.NEW, 2, Status.IN_PROGRESS, 0, Status.DONE, 1),
+                taskManager.getBoardCounts());
+
+        taskManager.updateSubtask(new Subtask(epicId, subtask1Id, "Подзадача 1", "Описание 1", Status.DONE));
+        assertEquals(List.of(subtask2Id, subtask1Id), taskManager.getEpicBoardColumn(epicId, Status.DONE, 10));
+        assertEquals(Map.of(Status.NEW, 0, Status.IN_PROGRESS, 0, Status.DONE, 2),
+                taskManager.getEpicBoardCounts(epicId));
+
+        taskManager.removeEpicById(epicId);
+        assertEquals(List.of(), taskManager.getBoardColumn(Status.DONE, 10));
+        assertEquals(List.of(taskId), taskManager.getBoardColumn(Status.NEW, 10));
+    }
+
+    @Test
+    void bulkStatusUpdateAndRemoveByStatus() {
+        int taskId = taskManager.createTask(new Task("Задача", "Описание", Status.DONE));
+        int epicId = taskManager.createEpic(new Epic("Эпик", "Описание эпика"));
+        int subtask1Id = taskManager.createSubtask(new Subtask(epicId, "Подзадача 1", "Описание 1", Status.NEW));
+        int subtask2Id = taskManager.createSubtask(new Subtask(epicId, "Подзадача 2", "Описание 2", Status.NEW));
+        int subtask3Id = taskManager.createSubtask(new Subtask(epicId, "Другая", "Описание 3", Status.NEW));
+
+        int updated = taskManager.updateSubtasksStatusByEpicId(epicId,
+                subtask -> subtask.getName().startsWith("Подзадача"), Status.DONE);
+
+        assertEquals(2, updated);
+        assertThrows(IllegalArgumentException.class,
+                () -> taskManager.updateSubtasksStatusByEpicId(epicId, null, Status.DONE));
+        assertEquals(Status.DONE, taskManager.getSubtaskById(subtask1Id).getStatus());
+        assertEquals(Status.NEW, taskManager.getSubtaskById(subtask3Id).getStatus());
+        assertEquals(Status.NEW, taskManager.getEpicById(epicId).getStatus());
+
+        assertEquals(3, taskManager.removeAllByStatus(Status.DONE));
+        assertTrue(taskManager.getAllTasks().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getSubtaskById(subtask2Id));
+        assertEquals(List.of(subtask3Id), List.copyOf(taskManager.getEpicById(epicId).getDependentSubtaskIds()));
+        assertEquals(0, taskManager.getBoardCounts().get(Status.DONE));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getTaskById(taskId));
+    }
+
+    @Test
+    void transactionCommitsAllOperations() {
+        taskManager.runInTransaction(manager -> {
+            int epicId = manager.createEpic(new Epic("Эпик", "Описание эпика"));
+            manager.createSubtask(new Subtask(epicId, "Подзадача 1", "Описание 1", Status.DONE));
+            manager.createSubtask(new Subtask(epicId, "Подзадача 2", "Описание 2", Status.DONE));
+        });
+
+        assertEquals(1, taskManager.getAllEpics().size());
+        assertEquals(2, taskManager.getAllSubtasks().size());
+        assertEquals(Status.DONE, taskManager.getAllEpics().getFirst().getStatus());
+    }
+
+    @Test
+    void transactionRollsBackOnFailure() {
+        int taskId = taskManager.createTask(new Task("Задача", "Описание", Status.NEW));
+        int epicId = taskManager.createEpic(new Epic("Эпик", "Описание эпика"));
+        int subtaskId = taskManager.createSubtask(new Subtask(epicId, "Подзадача", "Описание", Status.NEW));
+
+        assertThrows(IllegalArgumentException.class, () -> taskManager.runInTransaction(manager -> {
+            manager.updateTask(new Task(taskId, "Новое имя", "Описание", Status.DONE));
+            manager.removeEpicById(epicId);
+            manager.createEpic(new Epic("Новый эпик", "Описание"));
+            // Несуществующая задача: транзакция должна откатиться целиком
+            manager.removeTaskById(-1);
+        }));
+
+        assertEquals("Задача", taskManager.getTaskById(taskId).getName());
+        assertEquals(1, taskManager.getAllEpics().size());
+        assertEquals(List.of(subtaskId), taskManager.getAllSubtasksByEpicId(epicId).stream()
+                .map(Task::getId)
+                .toList());
+        assertEquals(2, taskManager.getBoardCounts().get(Status.NEW));
+        assertEquals(0, taskManager.getBoardCounts().get(Status.DONE));
+    }
+
+    @Test
+    void rolledBackTransactionIsNotVisibleInPastRevisions() {
+        int taskId = taskManager.createTask(new Task("Задача", "Описание", Status.NEW));
+        long revision = taskManager.getCurrentRevision();
+        long tasksVersion = taskManager.getModificationVersion(TaskType.TASK);
+
+        assertThrows(IllegalArgumentException.class, () -> taskManager.runInTransaction(manager -> {
+            manager.updateTask(new Task(taskId, "Неподтверждённое имя", "Описание", Status.DONE));
+            manager.removeTaskById(-1);
+        }));
+
+        assertEquals(revision, taskManager.getCurrentRevision());
+        assertEquals(tasksVersion, taskManager.getModificationVersion(TaskType.TASK));
+        assertEquals("Задача", taskManager.getIssueByIdAt(taskId, revision).getName());
+        assertEquals(List.of("Задача"), taskManager.getAllTasksAt(revision).stream().map(Task::getName).toList());
+    }
+
+    @Test
+    void staleUpdateIsRejected() {
+        int taskId = taskManager.createTask(new Task("Задача", "Описание", Status.NEW));
+
+        Task firstEditor = taskManager.getTaskById(taskId);
+        Task secondEditor = taskManager.getTaskById(taskId);
+
+        firstEditor.setName("Правка первого");
+        taskManager.updateTask(firstEditor);
+        assertEquals(1, firstEditor.getVersion());
+
+        // Второй редактор работает со старой версией и не должен затереть первую правку
+        secondEditor.setName("Правка второго");
+        var conflict = assertThrows(TaskVersionConflictException.class, () -> taskManager.updateTask(secondEditor));
+        assertEquals(0, conflict.getExpectedVersion());
+        assertEquals(1, conflict.getActualVersion());
+        assertEquals("Правка первого", taskManager.getTaskById(taskId).getName());
+
+        // Повторное обновление тем же объектом продолжает цепочку версий
+        firstEditor.setStatus(Status.DONE);
+        taskManager.updateTask(firstEditor);
+        assertEquals(2, taskManager.getTaskById(taskId).getVersion());
+    }
+
+    @Test
+    void rolledBackTransactionRestoresCallerVersionAndId() {
+        Task task = new Task("Задача", "Описание", Status.NEW);
+        int taskId = taskManager.createTask(task);
+        Task created = new Task("Новая", "Описание", Status.NEW);
+
+        assertThrows(IllegalArgumentException.class, () -> taskManager.runInTransaction(manager -> {
+            task.setName("Изменённая");
+            manager.updateTask(task);
+            // Объект можно передать снова в той же транзакции
+            manager.updateTask(task);
+            manager.createTask(created);
+            manager.removeTaskById(-1);
+        }));
+
+        assertEquals(0, task.getVersion());
+        assertNull(created.getId());
+
+        // Повтор после отката не даёт ложного конфликта версий
+        taskManager.updateTask(task);
+        assertEquals(1, task.getVersion());
+        assertEquals("Изменённая", taskManager.getTaskById(taskId).getName());
+        taskManager.createTask(created);
+        assertNotNull(created.getId());
+    }
+
+    @Test
+    void boardStateCanBeQueriedAtPastRevision() {
+        int epicId = taskManager.createEpic(new Epic("Эпик", "Описание эпика"));
+        int subtaskId = taskManager.createSubtask(new Subtask(epicId, "Подзадача", "Описание", Status.NEW));
+        long sprintStart = taskManager.getCurrentRevision();
+
+        taskManager.updateSubtask(new Subtask(epicId, subtaskId, "Подзадача", "Описание", Status.DONE));
+        taskManager.removeEpicById(epicId);
+
+        assertTrue(taskManager.getAllEpics().isEmpty());
+        assertEquals(Status.NEW, taskManager.getIssueByIdAt(subtaskId, sprintStart).getStatus());
+        assertEquals(1, taskManager.getAllSubtasksAt(sprintStart).size());
+
+        Epic epicAtStart = taskManager.getAllEpicsAt(sprintStart).getFirst();
+        assertEquals(Status.NEW, epicAtStart.getStatus());
+        assertNull(taskManager.getIssueByIdAt(epicId, taskManager.getCurrentRevision()));
+    }
+
+    @Test
+    void undoRestoresRemovedEpicWithSubtasks() {
+        int epicId = taskManager.createEpic(new Epic("Эпик", "Описание эпика"));
+        int subtask1Id = taskManager.createSubtask(new Subtask(epicId, "Подзадача 1", "Описание 1", Status.DONE));
+        int subtask2Id = taskManager.createSubtask(new Subtask(epicId, "Подзадача 2", "Описание 2", Status.NEW));
+
+        taskManager.removeEpicById(epicId);
+        assertTrue(taskManager.undo());
+
+        Epic restored = taskManager.getEpicById(epicId);
+        assertNotNull(restored);
+        assertEquals(2, taskManager.getAllSubtasksByEpicId(epicId).size());
+        assertEquals(Status.DONE, taskManager.getSubtaskById(subtask1Id).getStatus());
+        assertEquals(Status.NEW, restored.getStatus());
+
+        assertTrue(taskManager.redo());
+        assertNull(taskManager.getEpicById(epicId));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getSubtaskById(subtask2Id));
+        assertFalse(taskManager.redo());
+    }
+
+    @Test
+    void undoRevertsUpdateAndKeepsVersionGrowing() {
+        int taskId = taskManager.createTask(new Task("Задача", "Описание", Status.NEW));
+        Task edited = taskManager.getTaskById(taskId);
+        edited.setName("Новое имя");
+        taskManager.updateTask(edited);
+
+        assertTrue(taskManager.undo());
+        Task restored = taskManager.getTaskById(taskId);
+        assertEquals("Задача", restored.getName());
+        // Объект со старой версией 1 больше не может перезаписать задачу
+        assertThrows(TaskVersionConflictException.class, () -> taskManager.updateTask(edited));
+        assertEquals(2, restored.getVersion());
+
+        assertTrue(taskManager.undo());
+        assertTrue(taskManager.getAllTasks().isEmpty());
+        assertFalse(taskManager.undo());
+    }
+
+    @Test
+    void failedUndoLeavesStoreAndLogUnchanged() {
+        int[] failOn = {-1};
+        var manager = new InMemoryTaskManager() {
+            @Override
+            protected void applyIssueState(int id, Task target) {
+                if (id == failOn[0])
+                    throw new IllegalStateException("Ошибка восстановления " + id);
+                super.applyIssueState(id, target);
+            }
+        };
+        int firstId = manager.createTask(new Task("Задача 1", "Описание", Status.NEW));
+        int secondId = manager.createTask(new Task("Задача 2", "Описание", Status.NEW));
+        manager.removeAllTasks();
+
+        // Отмена восстанавливает задачи в обратном порядке и падает на первой: вторая откатывается
+        failOn[0] = firstId;
+        assertThrows(IllegalStateException.class, manager::undo);
+        assertTrue(manager.getAllTasks().isEmpty());
+        assertEquals(0, manager.getBoardCounts().get(Status.NEW));
+
+        // Операция осталась в журнале, и повторная отмена восстанавливает обе задачи
+        failOn[0] = -1;
+        assertTrue(manager.undo());
+        assertEquals(Set.of(firstId, secondId), Set.copyOf(manager.getAllTasks().stream().map(Task::getId).toList()));
+
+        failOn[0] = secondId;
+        assertThrows(IllegalStateException.class, manager::redo);
+        assertEquals(2, manager.getAllTasks().size());
+        failOn[0] = -1;
+        assertTrue(manager.redo());
+        assertTrue(manager.getAllTasks().isEmpty());
+    }
+
+    @Test
+    void undoLogIsBounded() {
+        ((InMemoryTaskManager) taskManager).setUndoLimits(2, 100);
+        for (int i = 0; i < 5; i++) {
+            taskManager.createTask(new Task("Задача " + i, "Описание", Status.NEW));
+        }
+
+        assertTrue(taskManager.undo());
+        assertTrue(taskManager.undo());
+        assertFalse(taskManager.undo());
+        assertEquals(3, taskManager.getAllTasks().size());
+    }
+
+    @Test
+    void taskRevisionsAreKept() {
+        int taskId = taskManager.createTask(new Task("Версия 0", "Описание", Status.NEW));
+        Task task = taskManager.getTaskById(taskId);
+        task.setName("Версия 1");
+        taskManager.updateTask(task);
+        task.setStatus(Status.DONE);
+        taskManager.updateTask(task);
+
+        assertEquals(3, taskManager.getRevisionCount(taskId));
+        assertEquals("Версия 0", taskManager.getTaskRevision(taskId, 0).getName());
+        assertEquals(Status.NEW, taskManager.getTaskRevision(taskId, 1).getStatus());
+        assertEquals(Status.DONE, taskManager.getTaskRevision(taskId, 2).getStatus());
+
+        taskManager.removeTaskById(taskId);
+        assertEquals(0, taskManager.getRevisionCount(taskId));
+    }
+
+    @Test
+    void rolledBackTransactionDoesNotAddRevisions() {
+        int taskId = taskManager.createTask(new Task("Задача", "Описание", Status.NEW));
+
+        assertThrows(IllegalArgumentException.class, () -> taskManager.runInTransaction(manager -> {
+            manager.updateTask(new Task(taskId, "Неподтверждённое имя", "Описание", Status.DONE));
+            manager.removeTaskById(-1);
+        }));
+
+        assertEquals(1, taskManager.getRevisionCount(taskId));
+        assertEquals("Задача", taskManager.getTaskRevision(taskId, 0).getName());
+
+        Task task = taskManager.getTaskById(taskId);
+        task.setName("Новое имя");
+        taskManager.updateTask(task);
+        assertEquals(2, taskManager.getRevisionCount(taskId));
+        assertEquals("Новое имя", taskManager.getTaskRevision(taskId, 1).getName());
+    }
+
+    @Test
+    void nestedEpicStatusAndProgressRollUp() {
+        int rootId = taskManager.createEpic(new Epic("Корень", "Описание"));
+        int childId = taskManager.createEpic(new Epic(null, "Вложенный", "Описание", rootId));
+        int leafId = taskManager.createEpic(new Epic(null, "Лист", "Описание", childId));
+        int firstId = taskManager.createSubtask(new Subtask(leafId, "Подзадача 1", "Описание", Status.DONE));
+        int secondId = taskManager.createSubtask(new Subtask(childId, "Подзадача 2", "Описание", Status.NEW));
+
+        assertEquals(Status.DONE, taskManager.getEpicById(leafId).getStatus());
+        assertEquals(Status.NEW, taskManager.getEpicById(childId).getStatus());
+        assertEquals(50, taskManager.getEpicProgress(rootId));
+        assertEquals(List.of(childId), List.copyOf(taskManager.getEpicById(rootId).getChildEpicIds()));
+
+        Subtask second = taskManager.getSubtaskById(secondId);
+        second.setStatus(Status.DONE);
+        taskManager.updateSubtask(second);
+        assertEquals(Status.DONE, taskManager.getEpicById(rootId).getStatus());
+        assertEquals(100, taskManager.getEpicProgress(rootId));
+
+        // Перенос листа на верхний уровень забирает его подзадачи у бывших предков
+        taskManager.setEpicParent(leafId, null);
+        Subtask first = taskManager.getSubtaskById(firstId);
+        first.setStatus(Status.IN_PROGRESS);
+        taskManager.updateSubtask(first);
+        assertEquals(Status.IN_PROGRESS, taskManager.getEpicById(leafId).getStatus());
+        assertEquals(Status.DONE, taskManager.getEpicById(rootId).getStatus());
+        assertEquals(1, taskManager.getEpicById(rootId).getSubtreeSubtasks());
+    }
+
+    @Test
+    void epicCannotBeNestedIntoItsSubtree() {
+        int rootId = taskManager.createEpic(new Epic("Корень", "Описание"));
+        int childId = taskManager.createEpic(new Epic(null, "Вложенный", "Описание", rootId));
+
+        assertThrows(IllegalArgumentException.class, () -> taskManager.setEpicParent(rootId, childId));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.setEpicParent(rootId, rootId));
+        assertThrows(IllegalArgumentException.class,
+                () -> taskManager.createEpic(new Epic(null, "Сирота", "Описание", 999)));
+        assertNull(taskManager.getEpicById(rootId).getParentEpicId());
+    }
+
+    @Test
+    void removingEpicRemovesNestedEpicsAndUndoRestoresThem() {
+        int rootId = taskManager.createEpic(new Epic("Корень", "Описание"));
+        int childId = taskManager.createEpic(new Epic(null, "Вложенный", "Описание", rootId));
+        int subtaskId = taskManager.createSubtask(new Subtask(childId, "Подзадача", "Описание", Status.IN_PROGRESS));
+
+        taskManager.removeEpicById(rootId);
+        assertTrue(taskManager.getAllEpics().isEmpty());
+        assertTrue(taskManager.getAllSubtasks().isEmpty());
+
+        assertTrue(taskManager.undo());
+        assertEquals(rootId, taskManager.getEpicById(childId).getParentEpicId());
+        assertEquals(subtaskId, taskManager.getSubtaskById(subtaskId).getId());
+        assertEquals(Status.IN_PROGRESS, taskManager.getEpicById(rootId).getStatus());
+        assertEquals(1, taskManager.getEpicById(rootId).getSubtreeSubtasks());
+    }
+
+    @Test
+    void dependencyAddedInFailedTransactionIsRolledBack() {
+        int firstId = taskManager.createTask(new Task("Задача 1", "Описание", Status.NEW));
+        int secondId = taskManager.createTask(new Task("Задача 2", "Описание", Status.NEW));
+
+        assertThrows(IllegalArgumentException.class, () -> taskManager.runInTransaction(manager -> {
+            manager.addDependency(firstId, secondId);
+            manager.removeTaskById(-1);
+        }));
+
+        assertTrue(taskManager.getBlockerIds(secondId).isEmpty());
+        assertEquals(List.of(firstId, secondId), taskManager.getReadyTaskIds());
+    }
+
+    @Test
+    void undoRestoresDependencies() {
+        int firstId = taskManager.createTask(new Task("Задача 1", "Описание", Status.NEW));
+        int secondId = taskManager.createTask(new Task("Задача 2", "Описание", Status.NEW));
+        int thirdId = taskManager.createTask(new Task("Задача 3", "Описание", Status.NEW));
+        taskManager.addDependency(firstId, secondId);
+        taskManager.addDependency(secondId, thirdId);
+
+        taskManager.removeTaskById(secondId);
+        assertTrue(taskManager.getBlockerIds(thirdId).isEmpty());
+
+        assertTrue(taskManager.undo());
+        assertEquals(Set.of(firstId), taskManager.getBlockerIds(secondId));
+        assertEquals(Set.of(secondId), taskManager.getBlockerIds(thirdId));
+        assertEquals(List.of(firstId), taskManager.getReadyTaskIds());
+
+        assertTrue(taskManager.redo());
+        assertTrue(taskManager.getBlockerIds(thirdId).isEmpty());
+
+        // Отмена самого добавления зависимости удаляет ребро
+        assertTrue(taskManager.undo());
+        assertTrue(taskManager.undo());
+        assertEquals(Set.of(), taskManager.getBlockerIds(thirdId));
+        assertEquals(Set.of(firstId), taskManager.getBlockerIds(secondId));
+    }
+
+    @Test
+    void undoRestoresRemovedNestedEpicUnderItsParent() {
+        int rootId = taskManager.createEpic(new Epic("Корень", "Описание"));
+        int childId = taskManager.createEpic(new Epic(null, "Вложенный", "Описание", rootId));
+        taskManager.createSubtask(new Subtask(childId, "Подзадача", "Описание", Status.DONE));
+        assertEquals(100, taskManager.getEpicProgress(rootId));
+
+        taskManager.removeEpicById(childId);
+        assertTrue(taskManager.getEpicById(rootId).getChildEpicIds().isEmpty());
+        assertEquals(0, taskManager.getEpicProgress(rootId));
+
+        assertTrue(taskManager.undo());
+        assertEquals(rootId, taskManager.getEpicById(childId).getParentEpicId());
+        assertEquals(Set.of(childId), Set.copyOf(taskManager.getEpicById(rootId).getChildEpicIds()));
+        assertEquals(100, taskManager.getEpicProgress(rootId));
+        assertEquals(Status.DONE, taskManager.getEpicById(rootId).getStatus());
+    }
+
+    @Test
+    void undoOfRemoveAllEpicsRestoresNestedEpics() {
+        int parentId = taskManager.createEpic(new Epic("Родитель", "Описание"));
+        int childId = taskManager.createEpic(new Epic("Вложенный", "Описание"));
+        taskManager.setEpicParent(childId, parentId);
+        int subtaskId = taskManager.createSubtask(new Subtask(childId, "Подзадача", "Описание", Status.DONE));
+
+        taskManager.removeAllEpics();
+        assertTrue(taskManager.getAllEpics().isEmpty());
+
+        assertTrue(taskManager.undo());
+        assertEquals(2, taskManager.getAllEpics().size());
+        assertEquals(subtaskId, taskManager.getSubtaskById(subtaskId).getId());
+        assertEquals(parentId, taskManager.getEpicById(childId).getParentEpicId());
+        assertEquals(Status.DONE, taskManager.getEpicById(parentId).getStatus());
+
+        // Следующие отмены идут по журналу дальше: подзадача, затем вложение эпика
+        assertTrue(taskManager.undo());
+        assertTrue(taskManager.getAllSubtasks().isEmpty());
+        assertTrue(taskManager.undo());
+        assertNull(taskManager.getEpicById(childId).getParentEpicId());
+    }
+
+    @Test
+    void failedTransactionRestoresNestedEpicsRemovedTogether() {
+        int parentId = taskManager.createEpic(new Epic("Родитель", "Описание"));
+        int childId = taskManager.createEpic(new Epic("Вложенный", "Описание"));
+        taskManager.setEpicParent(childId, parentId);
+        int subtaskId = taskManager.createSubtask(new Subtask(childId, "Подзадача", "Описание", Status.NEW));
+
+        IllegalStateException failure = assertThrows(IllegalStateException.class,
+                () -> taskManager.runInTransaction(manager -> {
+                    manager.removeAllEpics();
+                    throw new IllegalStateException("Ошибка в транзакции");
+                }));
+
+        assertEquals("Ошибка в транзакции", failure.getMessage());
+        assertEquals(2, taskManager.getAllEpics().size());
+        assertEquals(List.of(subtaskId), taskManager.getAllSubtasksByEpicId(childId).stream()
+                .map(Task::getId)
+                .toList());
+        assertEquals(Set.of(childId), Set.copyOf(taskManager.getEpicById(parentId).getChildEpicIds()));
+        assertEquals(1, taskManager.getEpicById(parentId).getSubtreeSubtasks());
+    }
+
+    @Test
+    void usersHaveSeparateHistories() {
+        int firstId = taskManager.createTask(new Task("Задача 1", "Описание", Status.NEW));
+        int secondId = taskManager.createTask(new Task("Задача 2", "Описание", Status.NEW));
+
+        taskManager.getTaskById(firstId, "anna");
+        taskManager.getTaskById(secondId, "boris");
+        taskManager.getTaskById(secondId, "anna");
+
+        assertEquals(List.of(firstId, secondId), taskManager.getHistory("anna").stream().map(Task::getId).toList());
+        assertEquals(List.of(secondId), taskManager.getHistory("boris").stream().map(Task::getId).toList());
+
+        taskManager.removeTaskById(secondId);
+        assertEquals(List.of(firstId), taskManager.getHistory("anna").stream().map(Task::getId).toList());
+        assertTrue(taskManager.getHistory("boris").isEmpty());
+        assertEquals(1, taskManager.getHistory().size());
+    }
+
+    @Test
+    void mostViewedTasksAreReported() {
+        int firstId = taskManager.createTask(new Task("Задача 1", "Описание", Status.NEW));
+        int secondId = taskManager.createTask(new Task("Задача 2", "Описание", Status.NEW));
+        for (int i = 0; i < 5; i++) {
+            taskManager.getTaskById(secondId);
+        }
+        taskManager.getTaskById(firstId);
+
+        assertEquals(List.of(secondId, firstId), taskManager.getMostViewed(5).stream().map(Task::getId).toList());
+        assertEquals(secondId, taskManager.getMostViewed(1, Duration.ofMinutes(5)).getFirst().getId());
+
+        taskManager.removeTaskById(secondId);
+        assertEquals(List.of(firstId), taskManager.getMostViewed(5).stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void modificationVersionsTrackChangedCollectionsAndEpics() {
+        int rootId = taskManager.createEpic(new Epic("Корень", "Описание"));
+        int childId = taskManager.createEpic(new Epic(null, "Вложенный", "Описание", rootId));
+        int otherId = taskManager.createEpic(new Epic("Другой", "Описание"));
+        int taskId = taskManager.createTask(new Task("Задача", "Описание", Status.NEW));
+        long tasksVersion = taskManager.getModificationVersion(TaskType.TASK);
+        long otherVersion = taskManager.getEpicModificationVersion(otherId);
+
+        // Просмотры версии не меняют
+        taskManager.getTaskById(taskId);
+        taskManager.getEpicById(rootId);
+        long revision = taskManager.getCurrentRevision();
+
+        int subtaskId = taskManager.createSubtask(new Subtask(childId, "Подзадача", "Описание", Status.NEW));
+        assertTrue(taskManager.getCurrentRevision() > revision);
+        assertEquals(taskManager.getCurrentRevision(), taskManager.getModificationVersion(TaskType.SUBTASK));
+        assertEquals(taskManager.getCurrentRevision(), taskManager.getModificationVersion(TaskType.EPIC));
+        assertEquals(taskManager.getCurrentRevision(), taskManager.getEpicModificationVersion(childId));
+        assertEquals(taskManager.getCurrentRevision(), taskManager.getEpicModificationVersion(rootId));
+        assertEquals(tasksVersion, taskManager.getModificationVersion(TaskType.TASK));
+        assertEquals(otherVersion, taskManager.getEpicModificationVersion(otherId));
+
+        // Перенос меняет и старого, и нового родителя
+        long rootVersion = taskManager.getEpicModificationVersion(rootId);
+        taskManager.setEpicParent(childId, otherId);
+        assertTrue(taskManager.getEpicModificationVersion(rootId) > rootVersion);
+        assertTrue(taskManager.getEpicModificationVersion(otherId) > otherVersion);
+
+        taskManager.removeSubtaskById(subtaskId);
+        taskManager.undo();
+        assertEquals(taskManager.getCurrentRevision(), taskManager.getEpicModificationVersion(otherId));
+
+        taskManager.removeEpicById(childId);
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getEpicModificationVersion(childId));
+    }
+
+    @Test
+    void collectionsAreReadInPagesById() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(taskManager.createTask(new Task("Задача " + i, "Описание", Status.NEW)));
+        }
+        int epicId = taskManager.createEpic(new Epic("Эпик", "Описание"));
+
+        var first = taskManager.getTasksPage(Integer.MIN_VALUE, 2);
+        assertEquals(ids.subList(0, 2), first.stream().map(Task::getId).toList());
+        var second = taskManager.getTasksPage(first.getLast().getId(), 10);
+        assertEquals(ids.subList(2, 5), second.stream().map(Task::getId).toList());
+        assertTrue(taskManager.getTasksPage(ids.getLast(), 10).isEmpty());
+
+        // Страница — копии, а не хранимые объекты
+        second.getFirst().setName("Изменено");
+        assertEquals("Задача 2", taskManager.getTasksPage(first.getLast().getId(), 1).getFirst().getName());
+
+        assertEquals(epicId, taskManager.getEpicsPage(Integer.MIN_VALUE, 1).getFirst().getId());
+        assertTrue(taskManager.getSubtasksPage(Integer.MIN_VALUE, 1).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getTasksPage(0, 0));
+    }
 }
@@ -0,0 +1,53 @@
+package ru.yandex.kanban.service;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.kanban.issue.Status;
+import ru.yandex.kanban.issue.Subtask;
+import ru.yandex.kanban.issue.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevisionHistoryTest {
+
+    @Test
+    void everyRevisionIsRestoredFromDeltas() {
+        RevisionHistory history = new RevisionHistory(4);
+        Task task = new Task(1, "name", "desc", Status.NEW);
+
+        for (int i = 0; i < 10; i++) {
+            task.setName("name-" + i);
+            if (i % 3 == 0)
+                task.setStatus(Status.values()[i % Status.values().length]);
+            task.setVersion(i);
+            history.record(task);
+        }
+
+        assertEquals(10, history.getRevisionCount(1));
+        for (int i = 0; i < 10; i++) {
+            Task revision = history.get(1, i);
+            assertEquals("name-" + i, revision.getName());
+            assertEquals("desc", revision.getDescription());
+            assertEquals(i, revision.getVersion());
+        }
+        assertEquals(Status.values()[9 % 3], history.get(1, 9).getStatus());
+    }
+
+    @Test
+    void movedSubtaskIsStoredAsCheckpoint() {
+        RevisionHistory history = new RevisionHistory(16);
+        LocalDateTime start = LocalDateTime.of(2025, 2, 1, 8, 0);
+
+        history.record(new Subtask(10, 1, "sub", "desc", Status.NEW, start, Duration.ofMinutes(5)));
+        history.record(new Subtask(10, 1, "sub", "desc", Status.NEW, start.plusHours(1), Duration.ofMinutes(5)));
+        history.record(new Subtask(20, 1, "sub", "desc", Status.DONE, null, null));
+
+        assertEquals(start.plusHours(1), history.get(1, 1).getStartTime());
+        Subtask moved = (Subtask) history.get(1, 2);
+        assertEquals(20, moved.getEpicId());
+        assertNull(moved.getStartTime());
+        assertThrows(IllegalArgumentException.class, () -> history.get(1, 3));
+    }
+}
@@ -0,0 +1,106 @@
+package ru.yandex.kanban.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionHistoriesTest {
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T10:00:00Z"));
+
+    @Test
+    void historiesAreKeptPerUser() {
+        SessionHistories histories = new SessionHistories(100, 3, Duration.ofHours(1), clock);
+        histories.record("anna", 1);
+        histories.record("anna", 2);
+        histories.record("boris", 2);
+        histories.record("anna", 1);
+        histories.record("anna", 3);
+        histories.record("anna", 4);
+
+        assertEquals(List.of(1, 3, 4), histories.getTaskIds("anna"));
+        assertEquals(List.of(2), histories.getTaskIds("boris"));
+        assertEquals(4, histories.getEntryCount());
+    }
+
+    @Test
+    void removalFansOutToAllSessions() {
+        SessionHistories histories = new SessionHistories(100, 10, Duration.ofHours(1), clock);
+        histories.record("anna", 1);
+        histories.record("boris", 1);
+        histories.record("boris", 2);
+
+        histories.remove(1);
+
+        assertTrue(histories.getTaskIds("anna").isEmpty());
+        assertEquals(List.of(2), histories.getTaskIds("boris"));
+        assertEquals(1, histories.getEntryCount());
+    }
+
+    @Test
+    void sessionEmptiedByRemovalDoesNotBreakEviction() {
+        SessionHistories histories = new SessionHistories(2, 10, Duration.ofHours(1), clock);
+        histories.record("anna", 1);
+        histories.remove(1);
+        assertEquals(0, histories.getSessionCount());
+
+        histories.record("boris", 2);
+        histories.record("boris", 3);
+        histories.record("boris", 4);
+
+        assertEquals(List.of(3, 4), histories.getTaskIds("boris"));
+        assertEquals(2, histories.getEntryCount());
+    }
+
+    @Test
+    void globalBudgetAndIdleSessionsAreEnforced() {
+        SessionHistories histories = new SessionHistories(3, 10, Duration.ofMinutes(30), clock);
+        histories.record("anna", 1);
+        histories.record("anna", 2);
+        clock.advance(Duration.ofMinutes(1));
+        histories.record("boris", 3);
+        histories.record("boris", 4);
+
+        // Место освобождается за счёт давно неактивной сессии
+        assertEquals(3, histories.getEntryCount());
+        assertEquals(List.of(2), histories.getTaskIds("anna"));
+
+        clock.advance(Duration.ofMinutes(30));
+        histories.record("vera", 5);
+        assertEquals(1, histories.getSessionCount());
+        assertEquals(1, histories.getEntryCount());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
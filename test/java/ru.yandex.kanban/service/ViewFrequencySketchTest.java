@@ -0,0 +1,83 @@
+package ru.yandex.kanban.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ViewFrequencySketchTest {
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T10:00:00Z"));
+
+    @Test
+    void heavyHittersAreFoundAmongManyRareViews() {
+        ViewFrequencySketch sketch = new ViewFrequencySketch(8, 1024, Duration.ofMinutes(5), 12, clock);
+        for (int i = 0; i < 10_000; i++) {
+            sketch.record(1_000 + i);
+            if (i % 10 == 0)
+                sketch.record(1);
+            if (i % 20 == 0)
+                sketch.record(2);
+        }
+
+        assertEquals(List.of(1, 2), sketch.getTop(2));
+        assertTrue(sketch.estimate(1) >= 1_000);
+        long memory = sketch.getMemoryBytes();
+
+        for (int i = 0; i < 100_000; i++) {
+            sketch.record(i);
+        }
+        assertEquals(memory, sketch.getMemoryBytes());
+    }
+
+    @Test
+    void windowCountsOnlyRecentBuckets() {
+        ViewFrequencySketch sketch = new ViewFrequencySketch(8, 256, Duration.ofMinutes(5), 12, clock);
+        for (int i = 0; i < 50; i++) {
+            sketch.record(1);
+        }
+        clock.advance(Duration.ofMinutes(30));
+        for (int i = 0; i < 5; i++) {
+            sketch.record(2);
+        }
+
+        assertEquals(List.of(1, 2), sketch.getTop(2));
+        assertEquals(List.of(2), sketch.getTop(2, Duration.ofMinutes(10)));
+        assertEquals(List.of(1, 2), sketch.getTop(2, Duration.ofHours(1)));
+
+        sketch.remove(1);
+        assertEquals(List.of(2), sketch.getTop(2));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}